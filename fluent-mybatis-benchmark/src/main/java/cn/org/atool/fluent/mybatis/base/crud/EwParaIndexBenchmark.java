@@ -0,0 +1,38 @@
+package cn.org.atool.fluent.mybatis.base.crud;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量更新时变量占位符增加数组下标: {@link BaseSqlProvider#addEwParaIndex(String, String)}
+ * <p>
+ * addEwParaIndex为包内可见方法, 基准测试放在同名包下
+ *
+ * @author darui.wu
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EwParaIndexBenchmark {
+    private String sql;
+
+    @Setup
+    public void setup() {
+        this.sql = "UPDATE fluent_mybatis.student " +
+            "SET `gmt_modified` = now(), " +
+            "`user_name` = #{ew.wrapperData.parameters.variable_1_1}, " +
+            "`age` = #{ew.wrapperData.parameters.variable_1_2} " +
+            "WHERE `id` = #{ew.wrapperData.parameters.variable_1_3} " +
+            "AND `is_deleted` = #{ew.wrapperData.parameters.variable_1_4} " +
+            "AND `env` = #{ew.wrapperData.parameters.variable_1_5}";
+    }
+
+    @Benchmark
+    public String addEwParaIndex() {
+        return BaseSqlProvider.addEwParaIndex(this.sql, "[3]");
+    }
+}
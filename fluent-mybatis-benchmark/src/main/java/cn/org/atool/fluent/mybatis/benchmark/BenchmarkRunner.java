@@ -0,0 +1,26 @@
+package cn.org.atool.fluent.mybatis.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口, 默认附加GC profiler, 同时输出 ops/s 和每次操作分配的字节数(gc.alloc.rate.norm)
+ * <pre>
+ * mvn -Pbenchmark -DskipTests package
+ * java -jar fluent-mybatis-benchmark/target/benchmarks.jar [JMH参数, 如: QueryBuild -rf json]
+ * </pre>
+ *
+ * @author darui.wu
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,94 @@
+package cn.org.atool.fluent.mybatis.benchmark;
+
+import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.base.crud.JoinBuilder;
+import cn.org.atool.fluent.mybatis.generate.wrapper.HomeAddressQuery;
+import cn.org.atool.fluent.mybatis.generate.wrapper.MemberQuery;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.refs.Refs;
+import cn.org.atool.fluent.mybatis.segment.model.Parameters;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 查询构造热点路径: 构造查询条件, 参数化sql片段, 合并sql片段
+ *
+ * @author darui.wu
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueryBuildBenchmark {
+    private Object[] args;
+
+    @Setup
+    public void setup() {
+        this.args = new Object[]{"user", 18, 60};
+    }
+
+    @Benchmark
+    public StudentQuery studentQuery() {
+        return new StudentQuery()
+            .select.id().userName().age().end()
+            .where.userName().like("user")
+            .and.age().between(18, 60)
+            .and.isDeleted().eq(false)
+            .and.env().eq("test_env").end()
+            .orderBy.id().desc().end()
+            .limit(20);
+    }
+
+    @Benchmark
+    public MemberQuery memberQuery() {
+        return new MemberQuery()
+            .select.id().userName().school().end()
+            .where.school().eq("school")
+            .and.isGirl().eq(true)
+            .and.age().in(new int[]{18, 19, 20}).end()
+            .groupBy.school().end()
+            .limit(10);
+    }
+
+    @Benchmark
+    public IQuery joinQuery() {
+        StudentQuery studentQuery = Refs.Query.student.aliasQuery()
+            .select.age().end()
+            .where.age().gt(18).end();
+        HomeAddressQuery addressQuery = Refs.Query.homeAddress.aliasWith(studentQuery)
+            .select.studentId().end()
+            .where.address().like("vas").end();
+        return JoinBuilder.from(studentQuery)
+            .join(addressQuery)
+            .onEq("id", "student_id").endJoin()
+            .limit(20)
+            .build();
+    }
+
+    /**
+     * 构造查询并合并sql片段(MergeSegments.sql())
+     */
+    @Benchmark
+    public String studentQuerySql() {
+        return this.studentQuery().getWrapperData().getMergeSql();
+    }
+
+    /**
+     * 构造join查询并生成完整查询语句
+     */
+    @Benchmark
+    public String joinQuerySql() {
+        return this.joinQuery().getWrapperData().getQuerySql();
+    }
+
+    /**
+     * 每次调用使用新的参数区, 和单个查询的实际用法一致, 避免参数区无限增长
+     */
+    @Benchmark
+    public String paramSql() {
+        return new Parameters().paramSql(null, "user_name like ? and age between ? and ?", this.args);
+    }
+}
@@ -0,0 +1,249 @@
+package cn.org.atool.fluent.mybatis.benchmark;
+
+import cn.org.atool.fluent.mybatis.base.BatchCrud;
+import cn.org.atool.fluent.mybatis.base.crud.BaseSqlProvider;
+import cn.org.atool.fluent.mybatis.base.crud.IUpdate;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.helper.StudentSqlProvider;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentUpdate;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.*;
+
+/**
+ * {@link BaseSqlProvider} 各语句构造方法
+ * <p>
+ * 查询/更新条件在{@link Setup}中预先构造, 只度量语句构造本身
+ *
+ * @author darui.wu
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SqlProviderBenchmark {
+    private StudentSqlProvider provider;
+
+    private StudentEntity entity;
+
+    private StudentEntity noPkEntity;
+
+    private Map<String, Object> queryMap;
+
+    private Map<String, Object> insertSelectMap;
+
+    private Map<String, Object> batchMap;
+
+    private Map<String, Object> batchWithPkMap;
+
+    private Map<String, Object> idsMap;
+
+    private Map<String, Object> idArrayMap;
+
+    private Map<String, Object> columnMap;
+
+    private Map<String, Object> entityMap;
+
+    private Map<String, Object> updateMap;
+
+    private Map<String, Object> batchCrudMap;
+
+    @Setup
+    public void setup() {
+        this.provider = new StudentSqlProvider();
+        this.entity = student(1L);
+        this.noPkEntity = student(null);
+
+        this.queryMap = map(Param_EW, new StudentQuery()
+            .where.userName().like("user")
+            .and.age().between(18, 60)
+            .and.isDeleted().eq(false).end()
+            .orderBy.id().desc().end()
+            .limit(20));
+
+        this.insertSelectMap = map(Param_EW, new StudentQuery()
+            .select.userName().age().end()
+            .where.age().gt(18).end());
+        this.insertSelectMap.put(Param_Fields, new String[]{"user_name", "age"});
+
+        List<StudentEntity> entities = new ArrayList<>();
+        List<StudentEntity> noPkEntities = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            entities.add(student(id));
+            noPkEntities.add(student(null));
+        }
+        this.batchMap = map(Param_List, noPkEntities);
+        this.batchWithPkMap = map(Param_List, entities);
+
+        this.idsMap = map(Param_List, Arrays.asList(1L, 2L, 3L, 4L, 5L));
+        this.idArrayMap = map(Param_List, new Serializable[]{1L, 2L, 3L});
+
+        Map<String, Object> where = new HashMap<>(4);
+        where.put("user_name", "user");
+        where.put("age", 20);
+        this.columnMap = map(Param_CM, where);
+
+        this.entityMap = map(Param_ET, this.entity);
+
+        IUpdate[] updaters = new IUpdate[5];
+        for (int index = 0; index < updaters.length; index++) {
+            updaters[index] = new StudentUpdate()
+                .set.userName().is("user" + index)
+                .set.age().is(index).end()
+                .where.id().eq((long) index).end();
+        }
+        this.updateMap = map(Param_EW, updaters);
+
+        this.batchCrudMap = map(Param_EW, BatchCrud.batch()
+            .addUpdate(new StudentUpdate().set.userName().is("user").end().where.id().eq(1L).end())
+            .addDelete(new StudentQuery().where.id().eq(2L).end()));
+    }
+
+    @Benchmark
+    public String insert() {
+        return this.provider.insert(this.noPkEntity);
+    }
+
+    @Benchmark
+    public String insertWithPk() {
+        return this.provider.insertWithPk(this.entity);
+    }
+
+    @Benchmark
+    public String insertBatch() {
+        return this.provider.insertBatch(this.batchMap);
+    }
+
+    @Benchmark
+    public String insertBatchWithPk() {
+        return this.provider.insertBatchWithPk(this.batchWithPkMap);
+    }
+
+    @Benchmark
+    public String insertSelect() {
+        return this.provider.insertSelect(this.insertSelectMap);
+    }
+
+    @Benchmark
+    public String batchCrud() {
+        return BaseSqlProvider.batchCrud(this.batchCrudMap);
+    }
+
+    @Benchmark
+    public String countNoLimit() {
+        return this.provider.countNoLimit(this.queryMap);
+    }
+
+    @Benchmark
+    public String count() {
+        return this.provider.count(this.queryMap);
+    }
+
+    @Benchmark
+    public String listEntity() {
+        return this.provider.listEntity(this.queryMap);
+    }
+
+    @Benchmark
+    public String listMaps() {
+        return this.provider.listMaps(this.queryMap);
+    }
+
+    @Benchmark
+    public String listObjs() {
+        return this.provider.listObjs(this.queryMap);
+    }
+
+    @Benchmark
+    public String findOne() {
+        return this.provider.findOne(this.queryMap);
+    }
+
+    @Benchmark
+    public String listByMap() {
+        return this.provider.listByMap(this.columnMap);
+    }
+
+    @Benchmark
+    public String listByIds() {
+        return this.provider.listByIds(this.idsMap);
+    }
+
+    @Benchmark
+    public String findById() {
+        return this.provider.findById(1L);
+    }
+
+    @Benchmark
+    public String updateById() {
+        return this.provider.updateById(this.entityMap);
+    }
+
+    @Benchmark
+    public String updateBy() {
+        return this.provider.updateBy(this.updateMap);
+    }
+
+    @Benchmark
+    public String deleteById() {
+        return this.provider.deleteById(this.idArrayMap);
+    }
+
+    @Benchmark
+    public String logicDeleteById() {
+        return this.provider.logicDeleteById(this.idArrayMap);
+    }
+
+    @Benchmark
+    public String deleteByIds() {
+        return this.provider.deleteByIds(this.idsMap);
+    }
+
+    @Benchmark
+    public String logicDeleteByIds() {
+        return this.provider.logicDeleteByIds(this.idsMap);
+    }
+
+    @Benchmark
+    public String deleteByMap() {
+        return this.provider.deleteByMap(this.columnMap);
+    }
+
+    @Benchmark
+    public String logicDeleteByMap() {
+        return this.provider.logicDeleteByMap(this.columnMap);
+    }
+
+    @Benchmark
+    public String delete() {
+        return this.provider.delete(this.queryMap);
+    }
+
+    @Benchmark
+    public String logicDelete() {
+        return this.provider.logicDelete(this.queryMap);
+    }
+
+    private static StudentEntity student(Long id) {
+        return new StudentEntity()
+            .setId(id)
+            .setUserName("user")
+            .setAge(20)
+            .setAddress("hangzhou")
+            .setEnv("test_env")
+            .setIsDeleted(false);
+    }
+
+    private static Map<String, Object> map(String key, Object value) {
+        Map<String, Object> map = new HashMap<>(4);
+        map.put(key, value);
+        return map;
+    }
+}
@@ -0,0 +1,63 @@
+package cn.org.atool.fluent.mybatis.benchmark;
+
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.utility.LambdaUtil;
+import cn.org.atool.fluent.mybatis.utility.PoJoHelper;
+import cn.org.atool.fluent.mybatis.utility.SqlInject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工具类热点路径: Map转PoJo, lambda解析, sql注入检查
+ *
+ * @author darui.wu
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UtilityBenchmark {
+    private Map<String, Object> row;
+
+    private String safeSql;
+
+    private String injectSql;
+
+    @Setup
+    public void setup() {
+        this.row = new HashMap<>(8);
+        this.row.put("id", 1L);
+        this.row.put("userName", "user");
+        this.row.put("age", 20);
+        this.row.put("address", "hangzhou");
+        this.row.put("isDeleted", false);
+        this.row.put("env", "test_env");
+        this.safeSql = "hangzhou, xihu district, no.18";
+        this.injectSql = "user_name = 'user'; drop table student";
+    }
+
+    @Benchmark
+    public StudentEntity toPoJo() {
+        return PoJoHelper.toPoJo(StudentEntity.class, this.row);
+    }
+
+    @Benchmark
+    public String lambdaResolve() {
+        return LambdaUtil.resolve(StudentEntity::getUserName);
+    }
+
+    @Benchmark
+    public boolean probablySqlInject_safe() {
+        return SqlInject.probablySqlInject(this.safeSql);
+    }
+
+    @Benchmark
+    public boolean probablySqlInject_inject() {
+        return SqlInject.probablySqlInject(this.injectSql);
+    }
+}
@@ -0,0 +1,62 @@
+package cn.org.atool.fluent.mybatis.benchmark;
+
+import cn.org.atool.fluent.mybatis.base.crud.CompiledQuery;
+import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentUpdate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单条件查询/更新的内存分配, 通过{@link BenchmarkRunner}运行, 对比 gc.alloc.rate.norm (B/op)
+ * <pre>
+ * java -jar fluent-mybatis-benchmark/target/benchmarks.jar WrapperAllocation
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WrapperAllocationBenchmark {
+    private final CompiledQuery<StudentEntity> compiled = new StudentQuery().where.id().eq(0L).end().compile();
+
+    /**
+     * 按主键查询: where id = ?
+     */
+    @Benchmark
+    public StudentQuery pointQuery() {
+        return new StudentQuery().where.id().eq(1L).end();
+    }
+
+    /**
+     * 按主键查询并生成查询语句
+     */
+    @Benchmark
+    public String pointQuerySql() {
+        return this.pointQuery().getWrapperData().getQuerySql();
+    }
+
+    /**
+     * 预编译的按主键查询, 只绑定参数值
+     */
+    @Benchmark
+    public IQuery<StudentEntity> compiledPointQuery() {
+        return compiled.bind(1L);
+    }
+
+    /**
+     * 按主键更新单个字段
+     */
+    @Benchmark
+    public StudentUpdate pointUpdate() {
+        return new StudentUpdate()
+            .set.userName().is("user").end()
+            .where.id().eq(1L).end();
+    }
+}
@@ -7,9 +7,11 @@ import cn.org.atool.fluent.mybatis.processor.entity.FluentList;
 import cn.org.atool.fluent.mybatis.processor.filer.refs.AllRefFiler;
 import cn.org.atool.fluent.mybatis.processor.filer.refs.EntityRelationFiler;
 import cn.org.atool.generator.javafile.AbstractFile;
+import com.squareup.javapoet.AnnotationSpec;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
 
 import javax.lang.model.element.Modifier;
 import java.util.Map;
@@ -43,6 +45,21 @@ public class RefsFile extends AbstractFile {
         spec.superclass(AllRefFiler.getClassName())
             .addModifiers(Modifier.FINAL)
             .addMethod(this.m_instance());
+        MethodSpec.Builder invoke = this.m_invokeRefMethod();
+        boolean hasRefMethod = false;
+        for (FluentEntity fluent : FluentList.getFluents()) {
+            for (EntityRefMethod refMethod : fluent.getRefMethods()) {
+                invoke.addCode("case $S:\n", refMethod.getRefMethod(fluent))
+                    .addStatement("\treturn (T) this.$L(($T) args[0])", refMethod.getRefMethod(fluent), fluent.entity());
+                hasRefMethod = true;
+            }
+        }
+        if (hasRefMethod) {
+            spec.addMethod(invoke.addCode("default:\n")
+                .addStatement("\treturn super.invokeRefMethod(methodOfEntity, args)")
+                .endControlFlow()
+                .build());
+        }
         for (FluentEntity fluent : FluentList.getFluents()) {
             for (EntityRefMethod refMethod : fluent.getRefMethods()) {
                 if (refMethod.isAbstractMethod()) {
@@ -54,6 +71,22 @@ public class RefsFile extends AbstractFile {
         }
     }
 
+    /**
+     * 按方法名switch分派关联方法, 替代反射调用
+     */
+    private MethodSpec.Builder m_invokeRefMethod() {
+        TypeVariableName t = TypeVariableName.get("T");
+        return MethodSpec.methodBuilder("invokeRefMethod")
+            .addModifiers(Modifier.PROTECTED)
+            .addAnnotation(Override.class)
+            .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+            .addTypeVariable(t)
+            .addParameter(String.class, "methodOfEntity")
+            .addParameter(Object[].class, "args")
+            .returns(t)
+            .beginControlFlow("switch (methodOfEntity)");
+    }
+
     private MethodSpec m_refMethod(FluentEntity fluent, EntityRefMethod refMethod) {
         String methodName = refMethod.getRefMethod(fluent);
         return MethodSpec.methodBuilder(methodName)
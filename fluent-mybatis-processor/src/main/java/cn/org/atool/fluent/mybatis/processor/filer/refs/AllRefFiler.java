@@ -1,8 +1,11 @@
 package cn.org.atool.fluent.mybatis.processor.filer.refs;
 
 import cn.org.atool.fluent.mybatis.base.IRefs;
+import cn.org.atool.fluent.mybatis.base.crud.BaseSqlProvider;
+import cn.org.atool.fluent.mybatis.base.entity.IEntityHelper;
 import cn.org.atool.fluent.mybatis.base.mapper.IRichMapper;
 import cn.org.atool.fluent.mybatis.metadata.DbType;
+import cn.org.atool.fluent.mybatis.processor.entity.FluentEntity;
 import cn.org.atool.fluent.mybatis.processor.entity.FluentList;
 import cn.org.atool.generator.javafile.AbstractFile;
 import com.squareup.javapoet.ClassName;
@@ -16,6 +19,7 @@ import static cn.org.atool.fluent.mybatis.If.isBlank;
 import static cn.org.atool.fluent.mybatis.processor.filer.ClassNames2.CN_Class_IEntity;
 import static cn.org.atool.fluent.mybatis.processor.filer.ClassNames2.CN_Set;
 import static cn.org.atool.fluent.mybatis.processor.filer.refs.FieldRefFiler.m_findColumnByField;
+import static cn.org.atool.fluent.mybatis.processor.filer.refs.FieldRefFiler.m_findMappingByField;
 import static cn.org.atool.fluent.mybatis.processor.filer.refs.FieldRefFiler.m_findPrimaryColumn;
 import static cn.org.atool.fluent.mybatis.processor.filer.refs.QueryRefFiler.*;
 
@@ -48,12 +52,16 @@ public class AllRefFiler extends AbstractFile {
             .addMethod(this.m_mappers())
             .addMethod(this.m_getMapper())
             .addMethod(m_findColumnByField(true))
+            .addMethod(m_findMappingByField(true))
             .addMethod(m_findPrimaryColumn(true))
             .addMethod(m_defaultQuery(true))
             .addMethod(m_emptyQuery(true))
             .addMethod(m_defaultUpdater(true))
             .addMethod(m_emptyUpdater(true))
             .addMethod(this.m_allEntityClass())
+            .addMethod(this.m_newEntityHelper())
+            .addMethod(this.m_newSqlProvider())
+            .addMethod(this.m_entityRelationClass())
             .addMethod(this.m_initEntityMapper());
         spec.addType(this.class_field())
             .addType(this.class_query())
@@ -85,6 +93,52 @@ public class AllRefFiler extends AbstractFile {
             .build();
     }
 
+    /**
+     * 按Entity类名switch分派, 构造时不使用反射
+     */
+    private MethodSpec m_newEntityHelper() {
+        MethodSpec.Builder spec = MethodSpec.methodBuilder("newEntityHelper")
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addAnnotation(Override.class)
+            .addParameter(Class.class, "clazz")
+            .returns(IEntityHelper.class)
+            .beginControlFlow("switch (clazz.getName())");
+        for (FluentEntity fluent : FluentList.getFluents()) {
+            spec.addCode("case $S:\n", fluent.entity().reflectionName())
+                .addStatement("\treturn new $T()", fluent.entityHelper());
+        }
+        return spec.addCode("default:\n")
+            .addStatement("\treturn null")
+            .endControlFlow()
+            .build();
+    }
+
+    private MethodSpec m_newSqlProvider() {
+        MethodSpec.Builder spec = MethodSpec.methodBuilder("newSqlProvider")
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addAnnotation(Override.class)
+            .addParameter(Class.class, "clazz")
+            .returns(BaseSqlProvider.class)
+            .beginControlFlow("switch (clazz.getName())");
+        for (FluentEntity fluent : FluentList.getFluents()) {
+            spec.addCode("case $S:\n", fluent.entity().reflectionName())
+                .addStatement("\treturn new $T()", fluent.sqlProvider());
+        }
+        return spec.addCode("default:\n")
+            .addStatement("\treturn null")
+            .endControlFlow()
+            .build();
+    }
+
+    private MethodSpec m_entityRelationClass() {
+        return MethodSpec.methodBuilder("entityRelationClass")
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addAnnotation(Override.class)
+            .returns(Class.class)
+            .addStatement("return $T.class", EntityRelationFiler.getClassName())
+            .build();
+    }
+
     private MethodSpec m_mappers() {
         return MethodSpec.methodBuilder("mapper")
             .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
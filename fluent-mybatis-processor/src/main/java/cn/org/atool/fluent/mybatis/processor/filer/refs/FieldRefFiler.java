@@ -1,6 +1,7 @@
 package cn.org.atool.fluent.mybatis.processor.filer.refs;
 
 import cn.org.atool.fluent.mybatis.base.entity.IMapping;
+import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
 import cn.org.atool.fluent.mybatis.processor.entity.FluentEntity;
 import cn.org.atool.fluent.mybatis.processor.entity.FluentList;
 import cn.org.atool.fluent.mybatis.utility.MybatisUtil;
@@ -47,6 +48,7 @@ public class FieldRefFiler extends AbstractFile {
         spec.addField(this.f_allMappings())
             .addStaticBlock(this.m_initMapping())
             .addMethod(m_findColumnByField(false))
+            .addMethod(m_findMappingByField(false))
             .addMethod(m_findPrimaryColumn(false));
     }
 
@@ -91,6 +93,26 @@ public class FieldRefFiler extends AbstractFile {
         return spec.build();
     }
 
+    public static MethodSpec m_findMappingByField(boolean isRef) {
+        MethodSpec.Builder spec = MethodSpec.methodBuilder("findMappingByField")
+            .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+            .addParameter(Class.class, "clazz")
+            .addParameter(String.class, "field")
+            .returns(FieldMapping.class);
+        if (isRef) {
+            spec.addAnnotation(Override.class)
+                .addStatement("return $T.findMappingByField(clazz, field)", getClassName());
+        } else {
+            spec.addModifiers(Modifier.STATIC)
+                .addJavadoc("返回clazz属性field对应的字段映射")
+                .addCode("if (mappings.containsKey(clazz)) {\n")
+                .addStatement("\treturn mappings.get(clazz).findMappingByField(field)")
+                .addCode("}\n")
+                .addStatement("throw $L(clazz)", M_NOT_FLUENT_MYBATIS_EXCEPTION);
+        }
+        return spec.build();
+    }
+
     public static MethodSpec m_findColumnByField(boolean isRef) {
         MethodSpec.Builder spec = MethodSpec.methodBuilder("findColumnByField")
             .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
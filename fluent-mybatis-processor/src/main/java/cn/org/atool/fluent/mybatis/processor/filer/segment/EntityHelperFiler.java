@@ -2,6 +2,7 @@ package cn.org.atool.fluent.mybatis.processor.filer.segment;
 
 import cn.org.atool.fluent.mybatis.base.IEntity;
 import cn.org.atool.fluent.mybatis.base.entity.IEntityHelper;
+import cn.org.atool.fluent.mybatis.base.entity.IRowMapper;
 import cn.org.atool.fluent.mybatis.base.model.EntityToMap;
 import cn.org.atool.fluent.mybatis.processor.base.FluentClassName;
 import cn.org.atool.fluent.mybatis.processor.entity.CommonField;
@@ -9,6 +10,16 @@ import cn.org.atool.fluent.mybatis.processor.entity.FluentEntity;
 import cn.org.atool.fluent.mybatis.processor.filer.AbstractFiler;
 import com.squareup.javapoet.*;
 
+import javax.lang.model.element.Modifier;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 
 import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Suffix_EntityHelper;
@@ -20,6 +31,31 @@ import static cn.org.atool.fluent.mybatis.processor.filer.ClassNames2.CN_Map_Str
  * @author wudarui
  */
 public class EntityHelperFiler extends AbstractFiler {
+    /**
+     * 可以直接从ResultSet取值的字段类型: IRowMapper静态取值方法
+     */
+    private static final Map<TypeName, String> ROW_GETTERS = new HashMap<>();
+
+    static {
+        ROW_GETTERS.put(ClassName.get(Long.class), "getLong");
+        ROW_GETTERS.put(ClassName.get(Integer.class), "getInteger");
+        ROW_GETTERS.put(ClassName.get(Short.class), "getShort");
+        ROW_GETTERS.put(ClassName.get(Byte.class), "getByte");
+        ROW_GETTERS.put(ClassName.get(Double.class), "getDouble");
+        ROW_GETTERS.put(ClassName.get(Float.class), "getFloat");
+        ROW_GETTERS.put(ClassName.get(Boolean.class), "getBoolean");
+        ROW_GETTERS.put(ClassName.get(String.class), "getString");
+        ROW_GETTERS.put(ClassName.get(BigDecimal.class), "getBigDecimal");
+        ROW_GETTERS.put(ArrayTypeName.of(TypeName.BYTE), "getBytes");
+        ROW_GETTERS.put(ClassName.get(Date.class), "getDate");
+        ROW_GETTERS.put(ClassName.get(Timestamp.class), "getTimestamp");
+        ROW_GETTERS.put(ClassName.get(java.sql.Date.class), "getSqlDate");
+        ROW_GETTERS.put(ClassName.get(java.sql.Time.class), "getSqlTime");
+        ROW_GETTERS.put(ClassName.get(LocalDateTime.class), "getLocalDateTime");
+        ROW_GETTERS.put(ClassName.get(LocalDate.class), "getLocalDate");
+        ROW_GETTERS.put(ClassName.get(LocalTime.class), "getLocalTime");
+    }
+
     public static String getClassName(FluentClassName fluent) {
         return fluent.getClassName() + Suffix_EntityHelper;
     }
@@ -50,6 +86,72 @@ public class EntityHelperFiler extends AbstractFiler {
             .addMethod(this.m_toMap())
             .addMethod(this.m_toEntity())
             .addMethod(this.m_copy());
+        if (this.isRowMappable()) {
+            builder.addSuperinterface(this.parameterizedType(ClassName.get(IRowMapper.class), fluent.entity()))
+                .addField(this.f_rowColumns())
+                .addMethod(this.m_rowColumns())
+                .addMethod(this.m_map());
+        }
+    }
+
+    /**
+     * 所有字段都未指定typeHandler, 且类型可以直接从ResultSet读取时, 生成IRowMapper实现
+     *
+     * @return true: 生成ResultSet直接转换实现
+     */
+    private boolean isRowMappable() {
+        if (fluent.getFields().isEmpty()) {
+            return false;
+        }
+        for (CommonField fc : fluent.getFields()) {
+            if (fc.getTypeHandler() != null || !ROW_GETTERS.containsKey(fc.getJavaType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private FieldSpec f_rowColumns() {
+        CodeBlock.Builder columns = CodeBlock.builder().add("{");
+        boolean first = true;
+        for (CommonField fc : fluent.getFields()) {
+            columns.add(first ? "$S" : ", $S", fc.getColumn());
+            first = false;
+        }
+        return FieldSpec.builder(String[].class, "ROW_COLUMNS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+            .initializer(columns.add("}").build())
+            .build();
+    }
+
+    private MethodSpec m_rowColumns() {
+        return super.publicMethod("rowColumns", true, ArrayTypeName.of(String.class))
+            .addStatement("return ROW_COLUMNS")
+            .build();
+    }
+
+    /**
+     * public Entity map(ResultSet rs, int[] index)
+     *
+     * @return MethodSpec
+     */
+    private MethodSpec m_map() {
+        MethodSpec.Builder builder = super.publicMethod("map", true, fluent.entity())
+            .addParameter(ResultSet.class, "rs")
+            .addParameter(int[].class, "index")
+            .addException(SQLException.class)
+            .addStatement("$T entity = new $T()", fluent.entity(), fluent.entity())
+            .addStatement("boolean found = false")
+            .addStatement("Object value");
+        int index = 0;
+        for (CommonField fc : fluent.getFields()) {
+            builder.addCode("if (index[$L] > 0 && (value = $T.$L(rs, index[$L])) != null) {\n",
+                index, IRowMapper.class, ROW_GETTERS.get(fc.getJavaType()), index);
+            builder.addStatement("\tentity.$L(($T) value)", fc.setMethodName(), fc.getJavaType());
+            builder.addStatement("\tfound = true");
+            builder.addCode("}\n");
+            index++;
+        }
+        return builder.addStatement("return found ? entity : null").build();
     }
 
     private MethodSpec m_toColumnMap() {
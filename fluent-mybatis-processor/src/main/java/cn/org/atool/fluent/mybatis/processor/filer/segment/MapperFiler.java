@@ -9,6 +9,7 @@ import cn.org.atool.fluent.mybatis.base.mapper.IRichMapper;
 import cn.org.atool.fluent.mybatis.base.mapper.IWrapperMapper;
 import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
 import cn.org.atool.fluent.mybatis.mapper.FluentConst;
+import cn.org.atool.fluent.mybatis.mapper.FluentLanguageDriver;
 import cn.org.atool.fluent.mybatis.processor.base.FluentClassName;
 import cn.org.atool.fluent.mybatis.processor.entity.CommonField;
 import cn.org.atool.fluent.mybatis.processor.entity.FluentEntity;
@@ -432,6 +433,9 @@ public class MapperFiler extends AbstractFiler {
             .addMember("type", "$T.class", fluent.sqlProvider())
             .addMember("method", "$S", methodName)
             .build());
+        builder.addAnnotation(AnnotationSpec.builder(Lang.class)
+            .addMember("value", "$T.class", FluentLanguageDriver.class)
+            .build());
         return builder;
     }
 
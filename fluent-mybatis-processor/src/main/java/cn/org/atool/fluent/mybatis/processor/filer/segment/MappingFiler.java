@@ -58,6 +58,7 @@ public class MappingFiler extends AbstractFiler {
             .addField(this.f_ALL_COLUMNS())
             .addField(this.f_ALL_JOIN_COLUMNS())
             .addMethod(this.m_findColumnByField())
+            .addMethod(this.m_findMappingByField())
             .addMethod(this.m_findField());
     }
 
@@ -92,6 +93,15 @@ public class MappingFiler extends AbstractFiler {
             .build();
     }
 
+    private MethodSpec m_findMappingByField() {
+        return super.publicMethod("findMappingByField", true, FieldMapping.class)
+            .addParameter(String.class, "field")
+            .addModifiers(Modifier.DEFAULT)
+            .addStatement("String column = Property2Column.get(field)")
+            .addStatement("return column == null ? null : Column2Mapping.get(column)")
+            .build();
+    }
+
     private FieldSpec f_Field(CommonField fc) {
         FieldSpec.Builder spec = FieldSpec.builder(FieldMapping.class,
             fc.getName(), Modifier.STATIC, Modifier.PUBLIC, Modifier.FINAL)
@@ -3,6 +3,7 @@ package cn.org.atool.fluent.mybatis.processor.filer.segment;
 import cn.org.atool.fluent.mybatis.base.IEntity;
 import cn.org.atool.fluent.mybatis.base.crud.BaseSqlProvider;
 import cn.org.atool.fluent.mybatis.base.model.InsertList;
+import cn.org.atool.fluent.mybatis.base.model.SqlFragments;
 import cn.org.atool.fluent.mybatis.base.model.UpdateDefault;
 import cn.org.atool.fluent.mybatis.base.model.UpdateSet;
 import cn.org.atool.fluent.mybatis.mapper.FluentConst;
@@ -16,10 +17,13 @@ import cn.org.atool.fluent.mybatis.processor.filer.ClassNames2;
 import cn.org.atool.fluent.mybatis.utility.MybatisUtil;
 import cn.org.atool.fluent.mybatis.utility.SqlProviderUtils;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.TypeSpec;
 
+import javax.lang.model.element.Modifier;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -67,6 +71,7 @@ public class SqlProviderFiler extends AbstractFiler {
     protected void build(TypeSpec.Builder spec) {
         spec.superclass(parameterizedType(ClassName.get(BaseSqlProvider.class), fluent.entity()));
         spec.addField(this.f_defaults());
+        spec.addField(this.f_fragments());
         // provider method
         spec.addMethod(this.m_primaryIsNull());
         spec.addMethod(this.m_primaryNotNull());
@@ -79,6 +84,7 @@ public class SqlProviderFiler extends AbstractFiler {
         spec.addMethod(this.m_tableName());
         spec.addMethod(this.m_mapping());
         spec.addMethod(this.m_allFields());
+        spec.addMethod(this.m_fragments());
         spec.addMethod(this.m_setEntityByDefault());
         spec.addMethod(this.m_dbType());
         spec.addMethod(this.m_longTypeOfLogicDelete());
@@ -250,6 +256,27 @@ public class SqlProviderFiler extends AbstractFiler {
         return fields.toString();
     }
 
+    /**
+     * 预构造的sql片段: select字段, insert字段, 主键条件
+     *
+     * @return FieldSpec
+     */
+    private FieldSpec f_fragments() {
+        String primary = fluent.getPrimary() == null ? "null" : '"' + fluent.getPrimary().getColumn() + '"';
+        return FieldSpec.builder(SqlFragments.class, "fragments", Modifier.PRIVATE, Modifier.FINAL, Modifier.STATIC)
+            .addJavadoc("预构造的sql片段")
+            .initializer("new $T($T.$L, $L,\n\tnew String[]{$L},\n\tnew String[]{$L})",
+                SqlFragments.class, DbType.class, fluent.getDbType().name(), primary,
+                this.getFields(true), this.getFields(false))
+            .build();
+    }
+
+    private MethodSpec m_fragments() {
+        return super.protectedMethod("fragments", true, ClassName.get(SqlFragments.class))
+            .addStatement("return fragments")
+            .build();
+    }
+
     private MethodSpec m_dbType() {
         return super.publicMethod("dbType", true, DbType.class)
             .addStatement("return $T.$L", DbType.class, fluent.getDbType().name())
@@ -0,0 +1,120 @@
+package cn.org.atool.fluent.mybatis.entity;
+
+import cn.org.atool.fluent.mybatis.base.BatchCrud;
+import cn.org.atool.fluent.mybatis.generate.ATM;
+import cn.org.atool.fluent.mybatis.generate.dao.intf.StudentDao;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentUpdate;
+import cn.org.atool.fluent.mybatis.mapper.EntityCache;
+import cn.org.atool.fluent.mybatis.mapper.EntityCacheInterceptor;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 主键缓存: findById, listByIds 读缓存, 写操作失效
+ *
+ * @author darui.wu
+ */
+public class EntityCacheTest extends BaseTest {
+    @Autowired
+    StudentMapper mapper;
+
+    @Autowired
+    StudentDao dao;
+
+    @Autowired
+    SqlSessionFactory sqlSessionFactory;
+
+    EntityCache cache;
+
+    @BeforeEach
+    void setup() {
+        ATM.dataMap.student.initTable(3)
+            .id.values(1, 2, 3)
+            .userName.values("tom", "mike", "jack")
+            .age.values(20, 30, 40)
+            .cleanAndInsert();
+        cache = interceptor().cache(StudentEntity.class, 100, 60_000).getCache(StudentEntity.class);
+    }
+
+    @AfterEach
+    void reset() {
+        interceptor().cache(StudentEntity.class, 0, 0);
+    }
+
+    @Test
+    void test_findById() {
+        StudentEntity student = mapper.findById(1L);
+        student.setUserName("changed");
+        StudentEntity cached = mapper.findById(1);
+        want.string(cached.getUserName()).eq("tom");
+        want.string(dao.selectById(1L).getUserName()).eq("tom");
+        want.number(db.sqlList().size()).eq(1);
+        want.number(cache.getHits()).eq(2L);
+        want.number(cache.getMisses()).eq(1L);
+    }
+
+    @Test
+    void test_listByIds_missesOnly() {
+        mapper.findById(1L);
+        List<StudentEntity> list = mapper.listByIds(Arrays.asList(1L, 2L, 3L));
+        want.list(list).sizeEq(3);
+        want.number(db.sqlList().size()).eq(2);
+        db.sqlList().wantPara(1).eqList(2L, 3L);
+        want.list(mapper.listByIds(Arrays.asList(3L, 2L))).sizeEq(2);
+        want.number(db.sqlList().size()).eq(2);
+        want.number(cache.size()).eq(3);
+    }
+
+    @Test
+    void test_updateById_invalidate() {
+        mapper.findById(1L);
+        mapper.updateById(new StudentEntity().setId(1L).setUserName("tom2"));
+        want.string(mapper.findById(1L).getUserName()).eq("tom2");
+        want.string(mapper.findById(1L).getUserName()).eq("tom2");
+        want.number(db.sqlList().size()).eq(3);
+    }
+
+    @Test
+    void test_deleteById_invalidate() {
+        mapper.listByIds(Arrays.asList(1L, 2L, 3L));
+        mapper.deleteById(1L);
+        mapper.deleteByIds(Arrays.asList(2L));
+        want.number(cache.size()).eq(1);
+        want.object(mapper.findById(1L)).isNull();
+        want.list(mapper.listByIds(Arrays.asList(1L, 2L, 3L))).sizeEq(1);
+    }
+
+    @Test
+    void test_updateBy_clear() {
+        mapper.listByIds(Arrays.asList(1L, 2L));
+        dao.updateEntityByIds(new StudentEntity().setId(2L).setUserName("mike2"));
+        want.number(cache.size()).eq(0);
+        want.string(mapper.findById(2L).getUserName()).eq("mike2");
+    }
+
+    @Test
+    void test_batchCrud_clear() {
+        mapper.findById(3L);
+        mapper.batchCrud(BatchCrud.batch()
+            .addUpdate(new StudentUpdate().set.userName().is("jack2").end().where.id().eq(3L).end()));
+        want.number(cache.size()).eq(0);
+        want.string(mapper.findById(3L).getUserName()).eq("jack2");
+    }
+
+    private EntityCacheInterceptor interceptor() {
+        return sqlSessionFactory.getConfiguration().getInterceptors().stream()
+            .filter(EntityCacheInterceptor.class::isInstance)
+            .map(EntityCacheInterceptor.class::cast)
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("EntityCacheInterceptor not registered."));
+    }
+}
@@ -0,0 +1,64 @@
+package cn.org.atool.fluent.mybatis.entity;
+
+import cn.org.atool.fluent.mybatis.base.IRefs;
+import cn.org.atool.fluent.mybatis.generate.ATM;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentScoreEntity;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.junit.jupiter.api.Test;
+import org.test4j.hamcrest.matcher.modes.EqMode;
+import org.test4j.hamcrest.matcher.string.StringMode;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class LoadRelationsTest extends BaseTest {
+    @Test
+    void test_loadRelations_list() {
+        ATM.dataMap.studentScore.table(3).init()
+            .studentId.values(1, 1, 2)
+            .subject.values("数学", "英语", "语文")
+            .isDeleted.values(false)
+            .env.values("test_env")
+            .cleanAndInsert();
+        List<StudentEntity> students = Arrays.asList(
+            student(1L), student(2L), student(3L), student(1L));
+        IRefs.loadRelations(students, "findStudentScoreList");
+        db.sqlList().wantFirstSql().end("" +
+            "WHERE `student_id` IN (?, ?, ?) " +
+            "AND `is_deleted` IN (?) " +
+            "AND `env` IN (?)", StringMode.SameAsSpace);
+        db.sqlList().wantFirstPara().eqList(1L, 2L, 3L, false, "test_env");
+
+        List<StudentScoreEntity> scores = students.get(0).findStudentScoreList();
+        want.list(scores).eqDataMap(ATM.dataMap.studentScore.entity(2)
+            .studentId.values(1)
+            .subject.values("数学", "英语"), EqMode.IGNORE_DEFAULTS);
+        want.number(students.get(1).findStudentScoreList().size()).eq(1);
+        want.number(students.get(2).findStudentScoreList().size()).eq(0);
+        want.number(students.get(3).findStudentScoreList().size()).eq(2);
+        want.number(db.sqlList().size()).eq(1);
+    }
+
+    @Test
+    void test_loadRelations_single() {
+        ATM.dataMap.student.initTable(3)
+            .id.values(1, 2, 3)
+            .deskMateId.values(2, 1, 5)
+            .userName.values("tom", "rose", "mike")
+            .cleanAndInsert();
+        List<StudentEntity> students = Arrays.asList(
+            new StudentEntity().setId(1L), new StudentEntity().setId(2L), new StudentEntity().setId(4L));
+        IRefs.loadRelations(students, "findDeskMate");
+        db.sqlList().wantFirstSql().end("WHERE `desk_mate_id` IN (?, ?, ?)", StringMode.SameAsSpace);
+
+        want.string(students.get(0).findDeskMate().getUserName()).eq("rose");
+        want.string(students.get(1).findDeskMate().getUserName()).eq("tom");
+        want.object(students.get(2).findDeskMate()).isNull();
+        want.number(db.sqlList().size()).eq(1);
+    }
+
+    private static StudentEntity student(long id) {
+        return new StudentEntity().setId(id).setIsDeleted(false).setEnv("test_env");
+    }
+}
@@ -0,0 +1,142 @@
+package cn.org.atool.fluent.mybatis.entity;
+
+import cn.org.atool.fluent.mybatis.base.BatchCrud;
+import cn.org.atool.fluent.mybatis.generate.ATM;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.mapper.HomeAddressMapper;
+import cn.org.atool.fluent.mybatis.generate.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generate.wrapper.HomeAddressQuery;
+import cn.org.atool.fluent.mybatis.generate.wrapper.HomeAddressUpdate;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentUpdate;
+import cn.org.atool.fluent.mybatis.mapper.QueryCacheInterceptor;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+/**
+ * 查询结果缓存: 按表失效
+ *
+ * @author darui.wu
+ */
+public class QueryCacheTest extends BaseTest {
+    @Autowired
+    StudentMapper mapper;
+
+    @Autowired
+    HomeAddressMapper addressMapper;
+
+    @Autowired
+    SqlSessionFactory sqlSessionFactory;
+
+    QueryCacheInterceptor cache;
+
+    long hits;
+
+    @BeforeEach
+    void setup() {
+        ATM.dataMap.student.initTable(3)
+            .id.values(1, 2, 3)
+            .userName.values("tom", "mike", "jack")
+            .age.values(20, 30, 40)
+            .homeAddressId.values(1, 2, 3)
+            .cleanAndInsert();
+        ATM.dataMap.homeAddress.initTable(2)
+            .id.values(1, 2)
+            .address.values("address")
+            .cleanAndInsert();
+        cache = interceptor().cache(StudentEntity.class, true);
+        cache.clear();
+        hits = cache.getHits();
+    }
+
+    @AfterEach
+    void reset() {
+        cache.cache(StudentEntity.class, false).clear();
+    }
+
+    @Test
+    void test_listEntity_hit() {
+        List<StudentEntity> list = mapper.listEntity(query(20));
+        list.get(0).setUserName("changed");
+        List<StudentEntity> cached = mapper.listEntity(query(20));
+        want.string(cached.get(0).getUserName()).eq("mike");
+        want.number(mapper.count(query(20))).eq(2);
+        want.number(mapper.count(query(20))).eq(2);
+        want.number(db.sqlList().size()).eq(2);
+        want.number(cache.getHits() - hits).eq(2L);
+    }
+
+    @Test
+    void test_different_parameter() {
+        mapper.listEntity(query(20));
+        want.list(mapper.listEntity(query(30))).sizeEq(1);
+        want.number(db.sqlList().size()).eq(2);
+        want.number(cache.size()).eq(2);
+    }
+
+    @Test
+    void test_updateBy_invalidate() {
+        mapper.listEntity(query(20));
+        mapper.updateBy(new StudentUpdate().set.userName().is("mike2").end().where.id().eq(2L).end());
+        want.string(mapper.listEntity(query(20)).get(0).getUserName()).eq("mike2");
+        want.number(db.sqlList().size()).eq(3);
+    }
+
+    @Test
+    void test_insert_delete_invalidate() {
+        want.number(mapper.count(query(20))).eq(2);
+        mapper.insertWithPk(new StudentEntity().setId(4L).setUserName("lucy").setAge(50));
+        want.number(mapper.count(query(20))).eq(3);
+        mapper.delete(new StudentQuery().where.id().eq(4L).end());
+        want.number(mapper.count(query(20))).eq(2);
+        want.number(cache.getHits() - hits).eq(0L);
+    }
+
+    @Test
+    void test_nested_table_invalidate() {
+        StudentQuery query = new StudentQuery()
+            .where.homeAddressId().in(new HomeAddressQuery().selectId()
+                .where.address().eq("address").end())
+            .end();
+        want.list(mapper.listEntity(query)).sizeEq(2);
+        want.list(mapper.listEntity(query)).sizeEq(2);
+        want.number(db.sqlList().size()).eq(1);
+        addressMapper.updateBy(new HomeAddressUpdate().set.address().is("moved").end().where.id().eq(1L).end());
+        want.list(mapper.listEntity(query)).sizeEq(1);
+        want.number(db.sqlList().size()).eq(3);
+    }
+
+    @Test
+    void test_batchCrud_invalidate() {
+        mapper.listEntity(query(20));
+        mapper.batchCrud(BatchCrud.batch()
+            .addUpdate(new StudentUpdate().set.userName().is("jack2").end().where.id().eq(3L).end()));
+        want.string(mapper.listEntity(query(20)).get(1).getUserName()).eq("jack2");
+    }
+
+    @Test
+    void test_not_enabled() {
+        addressMapper.listEntity(new HomeAddressQuery());
+        addressMapper.listEntity(new HomeAddressQuery());
+        want.number(db.sqlList().size()).eq(2);
+        want.number(cache.size()).eq(0);
+    }
+
+    private static StudentQuery query(int age) {
+        return new StudentQuery().where.age().gt(age).end().orderBy.id().asc().end();
+    }
+
+    private QueryCacheInterceptor interceptor() {
+        return sqlSessionFactory.getConfiguration().getInterceptors().stream()
+            .filter(QueryCacheInterceptor.class::isInstance)
+            .map(QueryCacheInterceptor.class::cast)
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("QueryCacheInterceptor not registered."));
+    }
+}
@@ -0,0 +1,41 @@
+package cn.org.atool.fluent.mybatis.entity;
+
+import cn.org.atool.fluent.mybatis.base.IRefs;
+import cn.org.atool.fluent.mybatis.generate.ATM;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntityHelper;
+import cn.org.atool.fluent.mybatis.generate.helper.StudentSqlProvider;
+import cn.org.atool.fluent.mybatis.mapper.EntityHelperFactory;
+import cn.org.atool.fluent.mybatis.refs.IEntityRelation;
+import cn.org.atool.fluent.mybatis.refs.Refs;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 编译生成的静态注册表: 帮助类, SqlProvider, 关联方法分派
+ *
+ * @author darui.wu
+ */
+public class RefsRegistryTest extends BaseTest {
+    @Test
+    void test_registry() {
+        want.object(IRefs.registry()).same(Refs.instance());
+        want.bool(Refs.instance().newEntityHelper(StudentEntity.class) instanceof StudentEntityHelper).is(true);
+        want.bool(Refs.instance().newSqlProvider(StudentEntity.class) instanceof StudentSqlProvider).is(true);
+        want.object(Refs.instance().newEntityHelper(String.class)).isNull();
+        want.object(Refs.instance().entityRelationClass()).eq(IEntityRelation.class);
+        want.bool(EntityHelperFactory.getInstance(StudentEntity.class) instanceof StudentEntityHelper).is(true);
+    }
+
+    @Test
+    void test_invokeRefMethod() {
+        ATM.dataMap.student.initTable(2)
+            .id.values(1L, 2L)
+            .userName.values("mate", "self")
+            .deskMateId.values(2L, null)
+            .cleanAndInsert();
+        StudentEntity mate = new StudentEntity().setId(2L).findDeskMate();
+        want.number(mate.getId()).eq(1L);
+        want.string(mate.getUserName()).eq("mate");
+    }
+}
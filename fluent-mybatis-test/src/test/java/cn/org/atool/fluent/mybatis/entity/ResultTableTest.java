@@ -0,0 +1,79 @@
+package cn.org.atool.fluent.mybatis.entity;
+
+import cn.org.atool.fluent.mybatis.generate.ATM;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.model.CompactRow;
+import cn.org.atool.fluent.mybatis.model.ResultTable;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ResultTableTest extends BaseTest {
+    @Autowired
+    StudentMapper mapper;
+
+    @BeforeEach
+    void setup() {
+        ATM.dataMap.student.initTable(3)
+            .id.values(1, 2, 3)
+            .userName.values("tom", "mike", null)
+            .age.values(20, 30, 40)
+            .cleanAndInsert();
+    }
+
+    @Test
+    void test_listTable() {
+        StudentQuery query = new StudentQuery()
+            .select.id().userName().age().end()
+            .orderBy.id().asc().end();
+        ResultTable table = mapper.listTable(query);
+        want.list(table.columns()).eqReflect(Arrays.asList("id", "user_name", "age"));
+        want.number(table.size()).eq(3);
+        want.list(table.column("user_name")).eqReflect(Arrays.asList("tom", "mike", null));
+        want.object(table.get(1, "age")).eqReflect(30);
+
+        AtomicLong sum = new AtomicLong();
+        table.forEach(row -> sum.addAndGet(((Number) row.get("age")).longValue()));
+        want.number(sum.get()).eq(90L);
+
+        want.bool(table.toMaps().equals(mapper.listMaps(query))).is(true);
+        want.bool(table.row(2).containsKey("user_name")).is(false);
+    }
+
+    @Test
+    void test_compactMap() {
+        StudentQuery query = new StudentQuery()
+            .select.id().userName().age().end()
+            .orderBy.id().asc().end();
+        List<Map<String, Object>> expected = mapper.listMaps(query);
+        want.bool(expected.get(0) instanceof CompactRow).is(false);
+
+        List<Map<String, Object>> maps = mapper.listMaps(new StudentQuery()
+            .select.id().userName().age().end()
+            .orderBy.id().asc().end()
+            .compactMap());
+        want.bool(maps.get(0) instanceof CompactRow).is(true);
+        want.bool(maps.equals(expected)).is(true);
+        want.number(maps.get(2).hashCode()).eq(expected.get(2).hashCode());
+        want.bool(maps.get(2).containsKey("user_name")).is(false);
+        want.number(maps.get(0).size()).eq(3);
+        want.exception(() -> maps.get(0).put("id", 10L), UnsupportedOperationException.class);
+
+        List<StudentEntity> students = mapper.listPoJos(StudentEntity.class, new StudentQuery()
+            .select.id().userName().end()
+            .orderBy.id().asc().end()
+            .compactMap());
+        want.list(students).eqDataMap(ATM.dataMap.student.entity(3)
+            .id.values(1L, 2L, 3L)
+            .userName.values("tom", "mike", null));
+        want.bool(mapper.listMaps(query).get(0) instanceof CompactRow).is(false);
+    }
+}
@@ -0,0 +1,83 @@
+package cn.org.atool.fluent.mybatis.entity;
+
+import cn.org.atool.fluent.mybatis.base.IRefs;
+import cn.org.atool.fluent.mybatis.base.entity.IRowMapper;
+import cn.org.atool.fluent.mybatis.generate.ATM;
+import cn.org.atool.fluent.mybatis.generate.entity.BlobValuePoJo;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import cn.org.atool.fluent.mybatis.utility.MapperKits;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RowMapperTest extends BaseTest {
+    @Autowired
+    StudentMapper mapper;
+
+    @Autowired
+    SqlSessionFactory sqlSessionFactory;
+
+    @Test
+    void test_generated() {
+        want.bool(IRefs.findEntityHelper(StudentEntity.class) instanceof IRowMapper).is(true);
+        want.bool(IRefs.findEntityHelper(BlobValuePoJo.class) instanceof IRowMapper).is(false);
+    }
+
+    @Test
+    void test_isEntityResultMap() {
+        org.apache.ibatis.session.Configuration configuration = sqlSessionFactory.getConfiguration();
+        ResultMap generated = configuration.getResultMap(StudentMapper.class.getName() + "." + StudentMapper.ResultMap);
+        want.bool(MapperKits.isEntityResultMap(generated)).is(true);
+        ResultMap xml = new ResultMap.Builder(configuration, "my.xml.StudentMapper." + StudentMapper.ResultMap,
+            StudentEntity.class, new ArrayList<>()).build();
+        want.bool(MapperKits.isEntityResultMap(xml)).is(false);
+    }
+
+    @Test
+    void test_listEntity() {
+        ATM.dataMap.student.initTable(2)
+            .id.values(1, 2)
+            .userName.values("tom", null)
+            .age.values(23, null)
+            .isDeleted.values(true, false)
+            .cleanAndInsert();
+        List<StudentEntity> list = mapper.listEntity(new StudentQuery().orderBy.id().asc().end());
+        want.list(list).eqDataMap(ATM.dataMap.student.entity(2)
+            .id.values(1L, 2L)
+            .userName.values("tom", null)
+            .age.values(23, null)
+            .isDeleted.values(true, false));
+    }
+
+    @Test
+    void test_partialColumns() {
+        ATM.dataMap.student.initTable(2)
+            .id.values(1, 2)
+            .userName.values("tom", "mike")
+            .cleanAndInsert();
+        List<StudentEntity> list = mapper.listEntity(new StudentQuery()
+            .select.userName().end()
+            .orderBy.id().asc().end());
+        want.list(list).eqDataMap(ATM.dataMap.student.entity(2)
+            .id.values(null, null)
+            .userName.values("tom", "mike"));
+    }
+
+    @Test
+    void test_emptyRow() {
+        ATM.dataMap.student.initTable(1)
+            .id.values(1)
+            .userName.values((Object) null)
+            .cleanAndInsert();
+        List<StudentEntity> list = mapper.listEntity(new StudentQuery().select.userName().end());
+        want.number(list.size()).eq(1);
+        want.object(list.get(0)).isNull();
+    }
+}
@@ -0,0 +1,118 @@
+package cn.org.atool.fluent.mybatis.method;
+
+import cn.org.atool.fluent.mybatis.customize.model.MyEnum;
+import cn.org.atool.fluent.mybatis.generate.ATM;
+import cn.org.atool.fluent.mybatis.generate.dao.intf.StudentDao;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.mapper.MyEnumTypeMapper;
+import cn.org.atool.fluent.mybatis.generate.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generate.wrapper.MyEnumTypeQuery;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.metadata.DbType;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import cn.org.atool.fluent.mybatis.utility.InListHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.test4j.tools.datagen.DataGenerator;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * IN列表按桶对齐和分段
+ *
+ * @author darui.wu
+ */
+public class InListTest extends BaseTest {
+    @Autowired
+    private StudentMapper mapper;
+
+    @Autowired
+    private StudentDao dao;
+
+    @Autowired
+    private MyEnumTypeMapper enumMapper;
+
+    @AfterEach
+    void reset() {
+        InListHelper.setPadding(false);
+        DbType.MYSQL.setMaxInSize(0);
+    }
+
+    @Test
+    public void test_listByIds_padding() {
+        ATM.dataMap.student.initTable(3)
+            .userName.values(DataGenerator.increase("username_%d"))
+            .cleanAndInsert();
+        InListHelper.setPadding(true);
+        List<StudentEntity> users = mapper.listByIds(Arrays.asList(3L, 1L, 2L));
+        db.sqlList().wantFirstSql()
+            .where().eq("`id` IN (?, ?, ?, ?)");
+        db.sqlList().wantFirstPara().eqList(3L, 1L, 2L, 2L);
+        want.number(users.size()).eq(3);
+    }
+
+    @Test
+    public void test_listByIds_split() {
+        ATM.dataMap.student.initTable(3)
+            .userName.values(DataGenerator.increase("username_%d"))
+            .cleanAndInsert();
+        DbType.MYSQL.setMaxInSize(2);
+        List<StudentEntity> users = mapper.listByIds(Arrays.asList(3L, 1L, 2L));
+        db.sqlList().wantFirstSql()
+            .where().eq("(`id` IN (?, ?) OR `id` IN (?))");
+        want.number(users.size()).eq(3);
+    }
+
+    @Test
+    public void test_daoSelectByIds_chunked() {
+        ATM.dataMap.student.initTable(3)
+            .userName.values(DataGenerator.increase("username_%d"))
+            .cleanAndInsert();
+        DbType.MYSQL.setMaxInSize(2);
+        List<StudentEntity> users = dao.selectByIds(Arrays.asList(3L, 1L, 2L));
+        db.sqlList().wantSql(0).where().eq("`id` IN (?, ?)");
+        db.sqlList().wantSql(1).where().eq("`id` IN (?)");
+        want.number(users.size()).eq(3);
+    }
+
+    @Test
+    public void test_daoDeleteByIds_chunked() {
+        ATM.dataMap.student.initTable(3)
+            .userName.values(DataGenerator.increase("username_%d"))
+            .cleanAndInsert();
+        DbType.MYSQL.setMaxInSize(2);
+        int count = dao.deleteByIds(Arrays.asList(3L, 1L, 2L));
+        want.number(count).eq(3);
+        db.sqlList().wantSql(1).where().eq("`id` IN (?)");
+    }
+
+    @Test
+    public void test_in_paddingAndSplit() {
+        InListHelper.setPadding(true);
+        DbType.MYSQL.setMaxInSize(2);
+        mapper.listEntity(new StudentQuery()
+            .where.id().in(Arrays.asList(1L, 2L, 3L))
+            .and.age().notIn(new int[]{20, 30, 40})
+            .and.userName().in(new String[]{"a", "b"}).end());
+        db.sqlList().wantFirstSql().where().eq("" +
+            "(`id` IN (?, ?) OR `id` IN (?, ?)) " +
+            "AND (`age` NOT IN (?, ?) AND `age` NOT IN (?, ?)) " +
+            "AND `user_name` IN (?, ?)");
+        db.sqlList().wantFirstPara().eqList(1L, 2L, 3L, 3L, 20, 30, 40, 40, "a", "b");
+    }
+
+    @Test
+    public void test_in_split_typeHandler() {
+        ATM.dataMap.myEnumType.initTable(3)
+            .enumNum.values(0, 1, 2)
+            .enumString.values("test1", "test2", "test3")
+            .cleanAndInsert();
+        DbType.MYSQL.setMaxInSize(2);
+        int count = enumMapper.count(MyEnumTypeQuery.query()
+            .where.enumNum().in(new MyEnum[]{MyEnum.test1, MyEnum.test2, MyEnum.test3}).end());
+        db.sqlList().wantFirstSql().where().eq("(`enum_num` IN (?, ?) OR `enum_num` IN (?))");
+        want.number(count).eq(3);
+    }
+}
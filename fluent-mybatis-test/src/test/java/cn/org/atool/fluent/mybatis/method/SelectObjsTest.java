@@ -4,6 +4,7 @@ import cn.org.atool.fluent.mybatis.generate.ATM;
 import cn.org.atool.fluent.mybatis.generate.mapper.StudentMapper;
 import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
 import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.apache.ibatis.exceptions.PersistenceException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -53,4 +54,45 @@ public class SelectObjsTest extends BaseTest {
             .end("FROM fluent_mybatis.student WHERE `user_name` = ?");
         want.list(users).eqReflect(new String[]{"u2", "u2"});
     }
+
+    @Test
+    public void test_listLongs() throws Exception {
+        db.table(ATM.table.student).clean()
+            .insert(ATM.dataMap.student.initTable(20)
+                .id.autoIncrease()
+                .age.values(10, null, 30)
+            );
+        long[] ids = mapper.listLongs(new StudentQuery()
+            .select.id().end()
+            .orderBy.id().asc().end());
+        db.sqlList().wantFirstSql().eq("SELECT `id` FROM fluent_mybatis.student ORDER BY `id` ASC");
+        want.number(ids.length).eq(20);
+        want.number(ids[0]).eq(1L);
+        want.number(ids[19]).eq(20L);
+
+        int[] ages = mapper.listInts(new StudentQuery()
+            .select.age().end()
+            .where.id().in(new long[]{1, 2, 3}).end()
+            .orderBy.id().asc().end());
+        want.array(ages).eqReflect(new int[]{10, 30});
+    }
+
+    @Test
+    public void test_listStrings() throws Exception {
+        db.table(ATM.table.student).clean()
+            .insert(ATM.dataMap.student.initTable(3)
+                .id.values(23, 24, 25)
+                .userName.values("u1", null, "u3")
+            );
+        List<String> users = mapper.listStrings(new StudentQuery()
+            .select.userName().end()
+            .orderBy.id().asc().end());
+        want.list(users).eqReflect(new String[]{"u1", null, "u3"});
+    }
+
+    @Test
+    public void test_listLongs_error() {
+        want.exception(() -> mapper.listLongs(new StudentQuery().select.apply("not_exists").end()),
+            PersistenceException.class).contains("Error querying database");
+    }
 }
@@ -1,5 +1,8 @@
 package cn.org.atool.fluent.mybatis.test;
 
+import cn.org.atool.fluent.mybatis.mapper.EntityCacheInterceptor;
+import cn.org.atool.fluent.mybatis.mapper.QueryCacheInterceptor;
+import cn.org.atool.fluent.mybatis.mapper.RowMapperInterceptor;
 import cn.org.atool.fluent.mybatis.metadata.DbType;
 import cn.org.atool.fluent.mybatis.refs.Refs;
 import cn.org.atool.fluent.mybatis.spring.MapperFactory;
@@ -61,6 +64,9 @@ class TestSpringConfig {
         org.apache.ibatis.session.Configuration configuration = new org.apache.ibatis.session.Configuration();
         configuration.setLazyLoadingEnabled(true);
         configuration.setMapUnderscoreToCamelCase(true);
+        configuration.addInterceptor(new RowMapperInterceptor());
+        configuration.addInterceptor(new EntityCacheInterceptor());
+        configuration.addInterceptor(new QueryCacheInterceptor());
         bean.setConfiguration(configuration);
         return bean;
     }
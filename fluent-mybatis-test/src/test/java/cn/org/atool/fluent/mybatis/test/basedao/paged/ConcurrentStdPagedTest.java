@@ -0,0 +1,125 @@
+package cn.org.atool.fluent.mybatis.test.basedao.paged;
+
+import cn.org.atool.fluent.mybatis.base.mapper.StdPagedExecutor;
+import cn.org.atool.fluent.mybatis.generate.ATM;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.mapper.FluentLanguageDriver;
+import cn.org.atool.fluent.mybatis.model.StdPagedList;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 标准分页: count和列表查询并发执行, 总数缓存
+ *
+ * @author darui.wu
+ */
+public class ConcurrentStdPagedTest extends BaseTest {
+    @Autowired
+    private StudentMapper mapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @AfterEach
+    void reset() {
+        StdPagedExecutor.setConcurrent(false);
+        StdPagedExecutor.setExecutor(null);
+        StdPagedExecutor.setCountCacheTtl(0);
+        StdPagedExecutor.setCountCacheSize(1024);
+        StdPagedExecutor.clearCountCache();
+    }
+
+    @Test
+    void test_concurrent() {
+        ATM.dataMap.student.initTable(20)
+            .userName.formatAutoIncrease("user_%d")
+            .cleanAndInsert();
+        StdPagedExecutor.setConcurrent(true);
+        AtomicInteger submitted = new AtomicInteger();
+        StdPagedExecutor.setExecutor(task -> {
+            submitted.incrementAndGet();
+            new Thread(task).start();
+        });
+        StdPagedList<StudentEntity> paged = mapper.stdPagedEntity(query());
+        want.number(paged.getTotal()).eq(20);
+        want.list(paged.getData().stream().map(StudentEntity::getId).collect(Collectors.toList()))
+            .eqReflect(new long[]{6, 7, 8, 9, 10});
+
+        StdPagedList<Map<String, Object>> maps = mapper.stdPagedMap(query());
+        want.number(maps.getTotal()).eq(20);
+        want.number(maps.getData().size()).eq(5);
+        want.number(submitted.get()).eq(2);
+    }
+
+    @Test
+    void test_concurrent_unstableName() {
+        ATM.dataMap.student.initTable(8)
+            .userName.formatAutoIncrease("user_%d")
+            .cleanAndInsert();
+        FluentLanguageDriver driver = (FluentLanguageDriver) sqlSessionFactory.getConfiguration().getLanguageDriver(FluentLanguageDriver.class);
+        driver.setStableName(false);
+        try {
+            StdPagedExecutor.setConcurrent(true);
+            StdPagedList<StudentEntity> paged = mapper.stdPagedEntity(query());
+            want.number(paged.getTotal()).eq(8);
+            want.number(paged.getData().size()).eq(3);
+        } finally {
+            driver.setStableName(null);
+        }
+    }
+
+    @Test
+    void test_countCache_lru() {
+        ATM.dataMap.student.initTable(10)
+            .userName.formatAutoIncrease("user_%d")
+            .cleanAndInsert();
+        StdPagedExecutor.setCountCacheTtl(60_000);
+        StdPagedExecutor.setCountCacheSize(1);
+        want.number(mapper.stdPagedEntity(query()).getTotal()).eq(10);
+        want.number(mapper.stdPagedEntity(new StudentQuery().where.id().gt(5).end().limit(0, 5)).getTotal()).eq(5);
+
+        ATM.dataMap.student.table(1)
+            .id.values(11)
+            .userName.values("user_11")
+            .insert();
+        want.number(mapper.stdPagedEntity(new StudentQuery().where.id().gt(5).end().limit(0, 5)).getTotal()).eq(5);
+        want.number(mapper.stdPagedEntity(query()).getTotal()).eq(11);
+    }
+
+    @Test
+    void test_countCache() {
+        ATM.dataMap.student.initTable(10)
+            .userName.formatAutoIncrease("user_%d")
+            .cleanAndInsert();
+        StdPagedExecutor.setCountCacheTtl(60_000);
+        want.number(mapper.stdPagedEntity(query()).getTotal()).eq(10);
+
+        ATM.dataMap.student.table(2)
+            .id.values(11, 12)
+            .userName.values("user_11", "user_12")
+            .insert();
+        want.number(mapper.stdPagedEntity(query()).getTotal()).eq(10);
+        want.number(mapper.stdPagedEntity(new StudentQuery()
+            .where.userName().like("user_1").end()
+            .limit(0, 5)).getTotal()).eq(4);
+
+        StdPagedExecutor.clearCountCache();
+        want.number(mapper.stdPagedEntity(query()).getTotal()).eq(12);
+    }
+
+    private static StudentQuery query() {
+        return new StudentQuery()
+            .where.userName().like("user").end()
+            .orderBy.id().asc().end()
+            .limit(5, 5);
+    }
+}
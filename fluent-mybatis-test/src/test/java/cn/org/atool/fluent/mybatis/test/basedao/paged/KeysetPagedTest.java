@@ -0,0 +1,85 @@
+package cn.org.atool.fluent.mybatis.test.basedao.paged;
+
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import cn.org.atool.fluent.mybatis.generate.ATM;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.model.TagPagedList;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 游标(keyset)分页
+ *
+ * @author darui.wu
+ */
+public class KeysetPagedTest extends BaseTest {
+    @Autowired
+    private StudentMapper mapper;
+
+    @Test
+    void test_keysetPagedEntity() {
+        ATM.dataMap.student.initTable(10)
+            .userName.formatAutoIncrease("user_%d")
+            .age.values(30, 20, 30, 10, 20, 30, 10, 20, 30, 10)
+            .cleanAndInsert();
+        List<Long> ids = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            TagPagedList<StudentEntity> paged = mapper.keysetPagedEntity(new StudentQuery()
+                .where.userName().like("user").end()
+                .orderBy.age().desc().id().asc().end()
+                .limit(4), token);
+            paged.getData().forEach(student -> ids.add(student.getId()));
+            token = paged.getNextToken();
+            pages++;
+        } while (token != null);
+        want.number(pages).eq(3);
+        want.list(ids).eqReflect(new long[]{1, 3, 6, 9, 2, 5, 8, 4, 7, 10});
+        db.sqlList().wantSql(1).end("FROM fluent_mybatis.student " +
+            "WHERE `user_name` LIKE ? " +
+            "AND (`age` <= ? AND (`age` < ? OR (`age` = ? AND `id` > ?))) " +
+            "ORDER BY `age` DESC, `id` ASC LIMIT ?, ?");
+    }
+
+    @Test
+    void test_keysetPagedMap_rowValue() {
+        ATM.dataMap.student.initTable(5)
+            .age.values(10, 20, 20, 20, 30)
+            .cleanAndInsert();
+        TagPagedList<Map<String, Object>> first = mapper.keysetPagedMap(new StudentQuery()
+            .select.id().age().end()
+            .where.age().ge(20).or.id().eq(1).end()
+            .orderBy.age().asc().end()
+            .limit(2), null);
+        want.list(first.getData()).eqDataMap(ATM.dataMap.student.table(2)
+            .id.values(1, 2));
+        TagPagedList<Map<String, Object>> second = mapper.keysetPagedMap(new StudentQuery()
+            .select.id().age().end()
+            .where.age().ge(20).or.id().eq(1).end()
+            .orderBy.age().asc().end()
+            .limit(2), first.getNextToken());
+        want.list(second.getData()).eqDataMap(ATM.dataMap.student.table(2)
+            .id.values(3, 4));
+        db.sqlList().wantSql(1).end("FROM fluent_mybatis.student " +
+            "WHERE ( `age` >= ? OR `id` = ? ) " +
+            "AND (`age`, `id`) > (?, ?) " +
+            "ORDER BY `age` ASC, `id` ASC LIMIT ?, ?");
+    }
+
+    @Test
+    void test_keysetPaged_reuse() {
+        ATM.dataMap.student.initTable(3).cleanAndInsert();
+        StudentQuery query = new StudentQuery().orderBy.id().asc().end().limit(2);
+        TagPagedList<StudentEntity> first = mapper.keysetPagedEntity(query, null);
+        want.exception(() -> mapper.keysetPagedEntity(query, first.getNextToken()), FluentMybatisException.class)
+            .contains("please build a new query for each page");
+    }
+}
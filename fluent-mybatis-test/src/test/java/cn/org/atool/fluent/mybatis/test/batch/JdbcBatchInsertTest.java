@@ -0,0 +1,81 @@
+package cn.org.atool.fluent.mybatis.test.batch;
+
+import cn.org.atool.fluent.mybatis.base.mapper.BatchInsertExecutor;
+import cn.org.atool.fluent.mybatis.generate.ATM;
+import cn.org.atool.fluent.mybatis.generate.dao.intf.StudentDao;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.model.BatchInsertResult;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC batch方式批量插入
+ *
+ * @author darui.wu
+ */
+public class JdbcBatchInsertTest extends BaseTest {
+    @Autowired
+    private StudentMapper mapper;
+
+    @Autowired
+    private StudentDao dao;
+
+    @AfterEach
+    void reset() {
+        BatchInsertExecutor.setJdbcBatch(false);
+        BatchInsertExecutor.setFlushSize(1000);
+    }
+
+    @Test
+    void test_saveInJdbcBatch() {
+        db.table(ATM.table.student).clean();
+        BatchInsertExecutor.setFlushSize(2);
+        List<StudentEntity> list = students(5, false);
+        BatchInsertResult result = mapper.saveInJdbcBatch(list);
+        want.number(result.getTotal()).eq(5);
+        want.number(result.getBatchCounts().size()).eq(3);
+        db.table(ATM.table.student).count().eq(5);
+        for (StudentEntity student : list) {
+            want.number(student.getId()).notNull();
+        }
+        db.sqlList().wantFirstSql().start("INSERT INTO fluent_mybatis.student(");
+    }
+
+    @Test
+    void test_saveInJdbcBatch_withPk() {
+        db.table(ATM.table.student).clean();
+        List<StudentEntity> list = students(3, true);
+        BatchInsertResult result = dao.saveInJdbcBatch(list);
+        want.number(result.getTotal()).eq(3);
+        db.table(ATM.table.student).query().eqDataMap(ATM.dataMap.student.table(3)
+            .id.values(101, 102, 103)
+            .userName.values("name1", "name2", "name3"));
+    }
+
+    @Test
+    void test_save_jdbcBatchMode() {
+        db.table(ATM.table.student).clean();
+        BatchInsertExecutor.setJdbcBatch(true);
+        int count = dao.save(students(4, false));
+        want.number(count).eq(4);
+        db.table(ATM.table.student).count().eq(4);
+    }
+
+    private static List<StudentEntity> students(int size, boolean withPk) {
+        List<StudentEntity> list = new ArrayList<>();
+        for (int index = 1; index <= size; index++) {
+            StudentEntity student = new StudentEntity().setUserName("name" + index).setAge(20 + index).setTenant(0L);
+            if (withPk) {
+                student.setId(100L + index);
+            }
+            list.add(student);
+        }
+        return list;
+    }
+}
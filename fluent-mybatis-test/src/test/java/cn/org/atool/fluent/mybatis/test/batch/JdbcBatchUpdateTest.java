@@ -0,0 +1,80 @@
+package cn.org.atool.fluent.mybatis.test.batch;
+
+import cn.org.atool.fluent.mybatis.base.mapper.BatchUpdateExecutor;
+import cn.org.atool.fluent.mybatis.generate.ATM;
+import cn.org.atool.fluent.mybatis.generate.dao.intf.IdcardDao;
+import cn.org.atool.fluent.mybatis.generate.dao.intf.StudentDao;
+import cn.org.atool.fluent.mybatis.generate.entity.IdcardEntity;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.model.BatchUpdateResult;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+
+/**
+ * JDBC batch方式批量更新
+ *
+ * @author darui.wu
+ */
+public class JdbcBatchUpdateTest extends BaseTest {
+    @Autowired
+    private StudentDao studentDao;
+
+    @Autowired
+    private IdcardDao idcardDao;
+
+    @AfterEach
+    void reset() {
+        BatchUpdateExecutor.setJdbcBatch(false);
+        BatchUpdateExecutor.setFlushSize(1000);
+    }
+
+    @Test
+    void test_updateEntityByIdsInJdbcBatch() {
+        ATM.dataMap.student.initTable(5)
+            .cleanAndInsert();
+        BatchUpdateExecutor.setFlushSize(2);
+        BatchUpdateResult result = studentDao.updateEntityByIdsInJdbcBatch(Arrays.asList(
+            new StudentEntity().setId(2L).setUserName("test2").setAge(20),
+            new StudentEntity().setId(3L).setUserName("test3").setAge(30),
+            new StudentEntity().setId(4L).setAge(40),
+            new StudentEntity().setId(100L).setAge(50)));
+        want.number(result.getTotal()).eq(3);
+        want.array(result.getRowCounts()).eqReflect(new int[]{1, 1, 1, 0});
+        want.bool(result.isAllUpdated()).is(false);
+        db.sqlList().wantFirstSql().eq("" +
+            "UPDATE fluent_mybatis.student " +
+            "SET `gmt_modified` = now(), `user_name` = ?, `age` = ? " +
+            "WHERE `id` = ?");
+        db.table(ATM.table.student).queryWhere("id in (2, 3, 4)")
+            .eqDataMap(ATM.dataMap.student.table(3)
+                .id.values(2, 3, 4)
+                .age.values(20, 30, 40)
+            );
+    }
+
+    @Test
+    void test_updateEntityByIds_withVersion() {
+        ATM.dataMap.idcard.table(2)
+            .id.values(1, 2)
+            .code.values("old")
+            .version.values(2, 2)
+            .cleanAndInsert();
+        BatchUpdateExecutor.setJdbcBatch(true);
+        boolean updated = idcardDao.updateEntityByIds(
+            new IdcardEntity().setId(1L).setCode("new").setVersion(2L),
+            new IdcardEntity().setId(2L).setCode("new").setVersion(1L));
+        want.bool(updated).is(true);
+        db.sqlList().wantFirstSql().eq("" +
+            "UPDATE idcard SET `version` = `version` + 1, `code` = ? " +
+            "WHERE `id` = ? AND `version` = ?");
+        ATM.dataMap.idcard.table(2)
+            .id.values(1, 2)
+            .code.values("new", "old")
+            .version.values(3, 2)
+            .eqTable();
+    }
+}
@@ -0,0 +1,232 @@
+package cn.org.atool.fluent.mybatis.test.datasource;
+
+import cn.org.atool.fluent.mybatis.base.IRefs;
+import cn.org.atool.fluent.mybatis.base.mapper.StdPagedExecutor;
+import cn.org.atool.fluent.mybatis.generate.entity.NoAutoIdEntity;
+import cn.org.atool.fluent.mybatis.generate.mapper.NoAutoIdMapper;
+import cn.org.atool.fluent.mybatis.generate.wrapper.NoAutoIdQuery;
+import cn.org.atool.fluent.mybatis.mapper.QueryCacheInterceptor;
+import cn.org.atool.fluent.mybatis.mapper.ReadWriteInterceptor;
+import cn.org.atool.fluent.mybatis.model.StdPagedList;
+import cn.org.atool.fluent.mybatis.spring.MapperFactory;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 读写分离: 主库和2个从库都是H2内存库, 按column_1区分查询的是哪个库
+ *
+ * @author darui.wu
+ */
+public class ReadWriteTest extends BaseTest {
+    static final DataSource primary = h2("rw_primary");
+
+    static final DataSource replica1 = h2("rw_replica1");
+
+    static final DataSource replica2 = h2("rw_replica2");
+
+    ReadWriteInterceptor interceptor;
+
+    SqlSessionFactory factory;
+
+    @BeforeEach
+    void setup() throws Exception {
+        init(primary, "primary");
+        init(replica1, "replica1");
+        init(replica2, "replica2");
+        interceptor = new ReadWriteInterceptor(replica1, replica2);
+        factory = factory(primary, interceptor);
+    }
+
+    @Test
+    void test_roundRobin() {
+        want.string(mapped(mapper -> mapper.findById("1").getColumn1())).eq("replica1");
+        want.string(mapped(mapper -> mapper.listEntity(new NoAutoIdQuery()).get(0).getColumn1())).eq("replica2");
+        want.number(this.<Integer>mapped(mapper -> mapper.count(new NoAutoIdQuery().where.column1().eq("replica1").end()))).eq(1);
+    }
+
+    @Test
+    void test_forcePrimary() {
+        NoAutoIdQuery query = new NoAutoIdQuery().forcePrimary();
+        want.string(mapped(mapper -> mapper.findOne(query).getColumn1())).eq("primary");
+        want.string(mapped(mapper -> mapper.listEntity(query.compile().bind()).get(0).getColumn1())).eq("primary");
+    }
+
+    @Test
+    void test_sticky_after_write() {
+        mapped(mapper -> mapper.updateById(new NoAutoIdEntity().setId("1").setColumn1("primary2").setLockVersion(0L)));
+        want.string(mapped(mapper -> mapper.findById("1").getColumn1())).eq("primary2");
+        interceptor.setStickyMillis(0);
+        want.string(mapped(mapper -> mapper.findById("1").getColumn1())).eq("replica1");
+    }
+
+    @Test
+    void test_write_session() {
+        interceptor.setStickyMillis(0);
+        try (SqlSession session = factory.openSession(false)) {
+            NoAutoIdMapper mapper = session.getMapper(NoAutoIdMapper.class);
+            want.string(mapper.findById("1").getColumn1()).eq("replica1");
+            mapper.insertWithPk(new NoAutoIdEntity().setId("2").setColumn1("uncommitted"));
+            want.number(mapper.count(new NoAutoIdQuery())).eq(2);
+            session.rollback();
+        }
+        want.number(this.<Integer>mapped(mapper -> mapper.count(new NoAutoIdQuery()))).eq(1);
+    }
+
+    @Test
+    void test_leastLatency() {
+        DataSource slow = (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class[]{DataSource.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("getConnection")) {
+                    Thread.sleep(50);
+                }
+                return method.invoke(replica1, args);
+            });
+        interceptor = new ReadWriteInterceptor(slow, replica2);
+        interceptor.setBalance(ReadWriteInterceptor.Balance.LEAST_LATENCY);
+        factory = factory(primary, interceptor);
+        for (int index = 0; index < 2; index++) {
+            mapped(mapper -> mapper.findById("1"));
+        }
+        for (int index = 0; index < 4; index++) {
+            want.string(mapped(mapper -> mapper.findById("1").getColumn1())).eq("replica2");
+        }
+    }
+
+    @Test
+    void test_failover() {
+        AtomicInteger attempts = new AtomicInteger();
+        interceptor = new ReadWriteInterceptor(broken(attempts), replica2);
+        interceptor.setStickyMillis(0);
+        factory = factory(primary, interceptor);
+        for (int index = 0; index < 4; index++) {
+            want.string(mapped(mapper -> mapper.findById("1").getColumn1())).eq("replica2");
+        }
+        want.number(attempts.get()).eq(1);
+
+        interceptor = new ReadWriteInterceptor(broken(attempts), broken(attempts));
+        interceptor.setCooldownMillis(0);
+        factory = factory(primary, interceptor);
+        want.string(mapped(mapper -> mapper.findById("1").getColumn1())).eq("primary");
+        want.number(attempts.get()).eq(3);
+    }
+
+    @Test
+    void test_leastLatency_failed() {
+        AtomicInteger attempts = new AtomicInteger();
+        interceptor = new ReadWriteInterceptor(broken(attempts), replica2);
+        interceptor.setBalance(ReadWriteInterceptor.Balance.LEAST_LATENCY);
+        interceptor.setCooldownMillis(0);
+        factory = factory(primary, interceptor);
+        for (int index = 0; index < 4; index++) {
+            want.string(mapped(mapper -> mapper.findById("1").getColumn1())).eq("replica2");
+        }
+        want.number(interceptor.getReplicas().get(0).getLatency()).eq(0L);
+        want.bool(interceptor.getReplicas().get(1).getLatency() > 0).is(true);
+    }
+
+    @Test
+    void test_queryCache_outer() {
+        interceptor.setStickyMillis(0);
+        Configuration configuration = factory.getConfiguration();
+        configuration.addInterceptor(new QueryCacheInterceptor().cache(NoAutoIdEntity.class, true));
+        want.string(mapped(mapper -> mapper.listEntity(new NoAutoIdQuery()).get(0).getColumn1())).eq("replica1");
+        want.string(mapped(mapper -> mapper.listEntity(new NoAutoIdQuery()).get(0).getColumn1())).eq("replica1");
+        want.string(mapped(mapper -> mapper.listEntity(new NoAutoIdQuery().where.id().eq("1").end()).get(0).getColumn1())).eq("replica2");
+    }
+
+    @Test
+    void test_stdPaged_concurrent() throws Exception {
+        interceptor.setStickyMillis(0);
+        StdPagedExecutor.setConcurrent(true);
+        try {
+            StdPagedList<NoAutoIdEntity> paged = withFactory(factory, () -> mapped(mapper -> mapper.stdPagedEntity(new NoAutoIdQuery()
+                .where.column1().like("replica").end()
+                .limit(0, 10))));
+            want.number(paged.getTotal()).eq(1);
+            want.number(paged.getData().size()).eq(1);
+        } finally {
+            StdPagedExecutor.setConcurrent(false);
+        }
+    }
+
+    private static DataSource broken(AtomicInteger attempts) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class[]{DataSource.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("getConnection")) {
+                    attempts.incrementAndGet();
+                    throw new SQLException("connection refused");
+                }
+                return method.invoke(replica1, args);
+            });
+    }
+
+    private <R> R mapped(Function<NoAutoIdMapper, R> function) {
+        try (SqlSession session = factory.openSession(true)) {
+            return function.apply(session.getMapper(NoAutoIdMapper.class));
+        }
+    }
+
+    /**
+     * 执行期间, 把NoAutoIdMapper的SqlSessionFactory(IRefs.sqlSessionFactory)临时替换为factory
+     */
+    static <R> R withFactory(SqlSessionFactory factory, Supplier<R> supplier) throws Exception {
+        Field field = IRefs.class.getDeclaredField("mapperFactory");
+        field.setAccessible(true);
+        MapperFactory mapperFactory = (MapperFactory) field.get(IRefs.instance());
+        field = MapperFactory.class.getDeclaredField("sqlSessionFactories");
+        field.setAccessible(true);
+        Map<Class, SqlSessionFactory> factories = (Map<Class, SqlSessionFactory>) field.get(mapperFactory);
+        SqlSessionFactory origin = factories.put(NoAutoIdMapper.class, factory);
+        try {
+            return supplier.get();
+        } finally {
+            if (origin == null) {
+                factories.remove(NoAutoIdMapper.class);
+            } else {
+                factories.put(NoAutoIdMapper.class, origin);
+            }
+        }
+    }
+
+    static SqlSessionFactory factory(DataSource primary, Interceptor interceptor) {
+        Configuration configuration = new Configuration(new Environment("rw", new JdbcTransactionFactory(), primary));
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.addInterceptor(interceptor);
+        configuration.addMapper(NoAutoIdMapper.class);
+        return new SqlSessionFactoryBuilder().build(configuration);
+    }
+
+    static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+
+    static void init(DataSource dataSource, String value) throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS no_auto_id");
+            statement.execute("CREATE TABLE no_auto_id (id VARCHAR(64) PRIMARY KEY, column_1 VARCHAR(64), lock_version BIGINT)");
+            statement.execute("INSERT INTO no_auto_id VALUES ('1', '" + value + "', 0)");
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package cn.org.atool.fluent.mybatis.test.datasource;
+
+import cn.org.atool.fluent.mybatis.base.crud.CompiledQuery;
+import cn.org.atool.fluent.mybatis.base.mapper.StdPagedExecutor;
+import cn.org.atool.fluent.mybatis.generate.entity.NoAutoIdEntity;
+import cn.org.atool.fluent.mybatis.generate.mapper.NoAutoIdMapper;
+import cn.org.atool.fluent.mybatis.generate.wrapper.NoAutoIdQuery;
+import cn.org.atool.fluent.mybatis.generate.wrapper.NoAutoIdUpdate;
+import cn.org.atool.fluent.mybatis.mapper.QueryCacheInterceptor;
+import cn.org.atool.fluent.mybatis.mapper.ShardingInterceptor;
+import cn.org.atool.fluent.mybatis.model.StdPagedList;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 分片: 4个H2内存库, 按id分片
+ * id为 "1" ~ "8", column_1 交替为 a/b, lock_version 为 1 ~ 8
+ *
+ * @author darui.wu
+ */
+public class ShardingTest extends BaseTest {
+    static final int SHARDS = 4;
+
+    static final List<DataSource> databases = new ArrayList<>();
+
+    static {
+        for (int index = 0; index < SHARDS; index++) {
+            databases.add(ReadWriteTest.h2("shard" + index));
+        }
+    }
+
+    final AtomicInteger[] connections = new AtomicInteger[SHARDS];
+
+    ShardingInterceptor interceptor;
+
+    SqlSessionFactory factory;
+
+    @BeforeEach
+    void setup() throws Exception {
+        List<DataSource> shards = new ArrayList<>();
+        for (int index = 0; index < SHARDS; index++) {
+            DataSource dataSource = databases.get(index);
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS no_auto_id");
+                statement.execute("CREATE TABLE no_auto_id (id VARCHAR(64) PRIMARY KEY, column_1 VARCHAR(64), lock_version BIGINT)");
+            }
+            AtomicInteger counter = connections[index] = new AtomicInteger();
+            shards.add((DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class[]{DataSource.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection")) {
+                        counter.incrementAndGet();
+                    }
+                    return method.invoke(dataSource, args);
+                }));
+        }
+        interceptor = new ShardingInterceptor(shards).shardKey(NoAutoIdEntity.class, "id");
+        factory = ReadWriteTest.factory(ReadWriteTest.primary, interceptor);
+        for (int id = 1; id <= 8; id++) {
+            int value = id;
+            mapped(mapper -> mapper.insertWithPk(entity(value)));
+        }
+        Arrays.stream(connections).forEach(counter -> counter.set(0));
+    }
+
+    @Test
+    void test_insert_route() throws Exception {
+        for (int id = 1; id <= 8; id++) {
+            int shard = interceptor.shardOf(String.valueOf(id));
+            want.bool(ids(shard).contains(String.valueOf(id))).is(true);
+        }
+        int total = 0;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            total += ids(shard).size();
+        }
+        want.number(total).eq(8);
+    }
+
+    @Test
+    void test_findById_singleShard() {
+        NoAutoIdEntity entity = mapped(mapper -> mapper.findById("5"));
+        want.number(entity.getLockVersion()).eq(5L);
+        want.number(connected()).eq(1);
+        want.number(connections[interceptor.shardOf("5")].get()).eq(1);
+    }
+
+    @Test
+    void test_in_subset() {
+        List<NoAutoIdEntity> list = mapped(mapper -> mapper.listByIds(Arrays.asList("1", "2")));
+        want.number(list.size()).eq(2);
+        Set<Integer> shards = new HashSet<>(Arrays.asList(interceptor.shardOf("1"), interceptor.shardOf("2")));
+        want.number(connected()).eq(shards.size());
+    }
+
+    @Test
+    void test_route_not() {
+        List<NoAutoIdEntity> list = mapped(mapper -> mapper.listEntity(new NoAutoIdQuery().where.applyFunc("NOT (id = ?)", "5").end()));
+        want.number(list.size()).eq(7);
+        want.number(connected()).eq(SHARDS);
+        int count = mapped(mapper -> mapper.count(new NoAutoIdQuery().where.applyFunc("NOT id IN (?, ?)", "5", "6").end()));
+        want.number(count).eq(6);
+    }
+
+    @Test
+    void test_route_case() {
+        int count = mapped(mapper -> mapper.count(new NoAutoIdQuery()
+            .where.applyFunc("CASE WHEN id = ? THEN 0 ELSE 1 END = 1", "5").end()));
+        want.number(count).eq(7);
+        count = mapped(mapper -> mapper.count(new NoAutoIdQuery()
+            .where.applyFunc("COALESCE(id = ?, FALSE) = FALSE", "5").end()));
+        want.number(count).eq(7);
+        want.number(connected()).eq(SHARDS * 2);
+    }
+
+    @Test
+    void test_route_laterConjunct() {
+        int count = mapped(mapper -> mapper.count(new NoAutoIdQuery()
+            .where.applyFunc("NOT (id = ?)", "6")
+            .and.id().eq("5").end()));
+        want.number(count).eq(1);
+        want.number(connected()).eq(1);
+    }
+
+    @Test
+    void test_listEntity_orderBy_limit() {
+        List<NoAutoIdEntity> list = mapped(mapper -> mapper.listEntity(new NoAutoIdQuery()
+            .where.lockVersion().gt(1).end()
+            .orderBy.lockVersion().desc().end()
+            .limit(2, 3)));
+        want.list(list.stream().map(NoAutoIdEntity::getLockVersion).collect(Collectors.toList())).eqReflect(Arrays.asList(6L, 5L, 4L));
+        want.number(connected()).eq(SHARDS);
+    }
+
+    @Test
+    void test_listEntity_kWayMerge() {
+        List<NoAutoIdEntity> list = mapped(mapper -> mapper.listEntity(new NoAutoIdQuery()
+            .orderBy.column1().asc().lockVersion().asc().end()));
+        want.list(list.stream().map(NoAutoIdEntity::getId).collect(Collectors.toList()))
+            .eqReflect(Arrays.asList("1", "3", "5", "7", "2", "4", "6", "8"));
+    }
+
+    @Test
+    void test_count() {
+        int count = mapped(mapper -> mapper.count(new NoAutoIdQuery().where.column1().eq("a").end()));
+        want.number(count).eq(4);
+        int total = mapped(mapper -> mapper.countNoLimit(new NoAutoIdQuery().limit(1)));
+        want.number(total).eq(8);
+    }
+
+    @Test
+    void test_aggregate() {
+        List<Map<String, Object>> maps = mapped(mapper -> mapper.listMaps(new NoAutoIdQuery()
+            .select.column1()
+            .count("cnt")
+            .sum.lockVersion("total")
+            .min.lockVersion()
+            .max.lockVersion("high")
+            .end()
+            .groupBy.column1().end()
+            .orderBy.column1().desc().end()));
+        want.number(maps.size()).eq(2);
+        Map<String, Object> b = upper(maps.get(0));
+        want.string((String) b.get("COLUMN_1")).eq("b");
+        want.number(((Number) b.get("CNT")).intValue()).eq(4);
+        want.number(((Number) b.get("TOTAL")).intValue()).eq(20);
+        want.number(((Number) b.get("MIN(LOCK_VERSION)")).intValue()).eq(2);
+        want.number(((Number) b.get("HIGH")).intValue()).eq(8);
+        Map<String, Object> a = upper(maps.get(1));
+        want.number(((Number) a.get("TOTAL")).intValue()).eq(16);
+    }
+
+    @Test
+    void test_avg_unsupported() {
+        want.exception(() -> mapped(mapper -> mapper.listMaps(new NoAutoIdQuery().select.avg.lockVersion().end())),
+            PersistenceException.class).contains("can't be merged across shards");
+    }
+
+    @Test
+    void test_countDistinct_unsupported() {
+        want.exception(() -> mapped(mapper -> mapper.listMaps(new NoAutoIdQuery().select.apply("COUNT(DISTINCT column_1)").end())),
+            PersistenceException.class).contains("COUNT(DISTINCT) can't be merged across shards");
+        want.exception(() -> mapped(mapper -> mapper.count(new NoAutoIdQuery().distinct().select.column1().end())),
+            PersistenceException.class).contains("count of distinct query can't be merged across shards");
+        want.exception(() -> mapped(mapper -> mapper.countNoLimit(new NoAutoIdQuery().distinct().select.column1().end().limit(1))),
+            PersistenceException.class).contains("count of distinct query can't be merged across shards");
+    }
+
+    @Test
+    void test_groupBy_regroup() {
+        List<Map<String, Object>> maps = mapped(mapper -> mapper.listMaps(new NoAutoIdQuery()
+            .select.column1().end()
+            .groupBy.column1().end()
+            .orderBy.column1().asc().end()));
+        want.list(maps.stream().map(map -> upper(map).get("COLUMN_1")).collect(Collectors.toList()))
+            .eqReflect(Arrays.asList("a", "b"));
+    }
+
+    @Test
+    void test_groupBy_compiled() {
+        CompiledQuery<NoAutoIdEntity> compiled = new NoAutoIdQuery()
+            .select.column1().end()
+            .where.lockVersion().gt(0).end()
+            .groupBy.column1().end()
+            .orderBy.column1().asc().end()
+            .compile();
+        List<Map<String, Object>> maps = mapped(mapper -> mapper.listMaps(compiled.bind(2L)));
+        want.list(maps.stream().map(map -> upper(map).get("COLUMN_1")).collect(Collectors.toList()))
+            .eqReflect(Arrays.asList("a", "b"));
+    }
+
+    @Test
+    void test_distinct() {
+        List<Map<String, Object>> maps = mapped(mapper -> mapper.listMaps(new NoAutoIdQuery().distinct()
+            .select.column1().end()
+            .orderBy.column1().desc().end()
+            .limit(1, 5)));
+        want.list(maps.stream().map(map -> upper(map).get("COLUMN_1")).collect(Collectors.toList()))
+            .eqReflect(Arrays.asList("a"));
+    }
+
+    @Test
+    void test_stream_singleShard() throws Exception {
+        List<Long> versions = ReadWriteTest.withFactory(factory, () -> mapped(mapper -> {
+            try (Stream<NoAutoIdEntity> stream = mapper.streamEntity(new NoAutoIdQuery().where.id().eq("5").end(), 100)) {
+                return stream.map(NoAutoIdEntity::getLockVersion).collect(Collectors.toList());
+            }
+        }));
+        want.list(versions).eqReflect(Arrays.asList(5L));
+        want.number(connected()).eq(1);
+        want.number(connections[interceptor.shardOf("5")].get()).eq(1);
+
+        want.exception(() -> ReadWriteTest.withFactory(factory, () -> mapped(mapper -> mapper.streamMaps(new NoAutoIdQuery(), 100))),
+            PersistenceException.class).contains("must be routed to a single shard");
+    }
+
+    @Test
+    void test_stdPaged_concurrent() throws Exception {
+        StdPagedExecutor.setConcurrent(true);
+        try {
+            StdPagedList<NoAutoIdEntity> paged = ReadWriteTest.withFactory(factory, () -> mapped(mapper -> mapper.stdPagedEntity(new NoAutoIdQuery()
+                .where.lockVersion().gt(1).end()
+                .orderBy.lockVersion().desc().end()
+                .limit(2, 3))));
+            want.number(paged.getTotal()).eq(7);
+            want.list(paged.getData().stream().map(NoAutoIdEntity::getLockVersion).collect(Collectors.toList()))
+                .eqReflect(Arrays.asList(6L, 5L, 4L));
+        } finally {
+            StdPagedExecutor.setConcurrent(false);
+        }
+    }
+
+    @Test
+    void test_update_broadcast() {
+        int count = mapped(mapper -> mapper.updateBy(new NoAutoIdUpdate().ignoreLockVersion()
+            .set.column1().is("c").end()
+            .where.column1().eq("a").end()));
+        want.number(count).eq(4);
+        want.number(connected()).eq(SHARDS);
+        int updated = mapped(mapper -> mapper.updateBy(new NoAutoIdUpdate().ignoreLockVersion()
+            .set.column1().is("d").end()
+            .where.id().eq("3").end()));
+        want.number(updated).eq(1);
+        want.number(connected()).eq(SHARDS + 1);
+    }
+
+    @Test
+    void test_write_inTransaction() throws Exception {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            want.exception(() -> mapped(mapper -> mapper.insertWithPk(entity(9))),
+                PersistenceException.class).contains("can't be executed in transaction");
+            want.number(this.<Integer>mapped(mapper -> mapper.count(new NoAutoIdQuery()))).eq(8);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        want.bool(ids(interceptor.shardOf("9")).contains("9")).is(false);
+    }
+
+    @Test
+    void test_queryCache_shardWrite() throws Exception {
+        QueryCacheInterceptor cache = new QueryCacheInterceptor().cache(NoAutoIdEntity.class, true);
+        factory.getConfiguration().addInterceptor(cache);
+        NoAutoIdQuery query = new NoAutoIdQuery().where.column1().eq("a").end();
+        want.list(this.<List<NoAutoIdEntity>>mapped(mapper -> mapper.listEntity(query))).sizeEq(4);
+        want.list(this.<List<NoAutoIdEntity>>mapped(mapper -> mapper.listEntity(query))).sizeEq(4);
+        want.number(cache.getHits()).eq(1L);
+        mapped(mapper -> mapper.updateBy(new NoAutoIdUpdate().ignoreLockVersion()
+            .set.column1().is("b").end()
+            .where.id().eq("1").end()));
+        want.list(this.<List<NoAutoIdEntity>>mapped(mapper -> mapper.listEntity(query))).sizeEq(3);
+
+        Field field = QueryCacheInterceptor.class.getDeclaredField("written");
+        field.setAccessible(true);
+        want.number(((Map) field.get(cache)).size()).eq(0);
+    }
+
+    @Test
+    void test_insertBatch_split() throws Exception {
+        int count = mapped(mapper -> mapper.insertBatchWithPk(Arrays.asList(entity(9), entity(10), entity(11))));
+        want.number(count).eq(3);
+        for (int id = 9; id <= 11; id++) {
+            want.bool(ids(interceptor.shardOf(String.valueOf(id))).contains(String.valueOf(id))).is(true);
+        }
+    }
+
+    private int connected() {
+        return Arrays.stream(connections).mapToInt(AtomicInteger::get).sum();
+    }
+
+    private static NoAutoIdEntity entity(int id) {
+        return new NoAutoIdEntity().setId(String.valueOf(id)).setColumn1(id % 2 == 1 ? "a" : "b").setLockVersion((long) id);
+    }
+
+    private static Map<String, Object> upper(Map<String, Object> map) {
+        Map<String, Object> upper = new HashMap<>();
+        map.forEach((key, value) -> upper.put(key.toUpperCase(Locale.ENGLISH).replace("`", ""), value));
+        return upper;
+    }
+
+    private static List<String> ids(int shard) throws Exception {
+        List<String> ids = new ArrayList<>();
+        try (Connection connection = databases.get(shard).getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id FROM no_auto_id")) {
+            while (rs.next()) {
+                ids.add(rs.getString(1));
+            }
+        }
+        return ids;
+    }
+
+    private <R> R mapped(Function<NoAutoIdMapper, R> function) {
+        try (SqlSession session = factory.openSession(true)) {
+            return function.apply(session.getMapper(NoAutoIdMapper.class));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package cn.org.atool.fluent.mybatis.test.stable;
+
+import cn.org.atool.fluent.mybatis.base.crud.CompiledQuery;
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import cn.org.atool.fluent.mybatis.generate.ATM;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.mapper.FluentLanguageDriver;
+import cn.org.atool.fluent.mybatis.model.StdPagedList;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.test4j.hamcrest.matcher.modes.EqMode;
+
+import java.util.List;
+
+/**
+ * 预编译查询: 结构只构造一次, 每次执行只绑定参数值
+ *
+ * @author darui.wu
+ */
+public class CompiledQueryTest extends BaseTest {
+    @Autowired
+    private StudentMapper mapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    private FluentLanguageDriver driver;
+
+    @BeforeEach
+    void setup() {
+        driver = (FluentLanguageDriver) sqlSessionFactory.getConfiguration().getLanguageDriver(FluentLanguageDriver.class);
+        driver.clear();
+        ATM.dataMap.student.initTable(4)
+            .userName.values("user1", "user2", "user3", "user4")
+            .age.values(20, 30, 40, 50)
+            .cleanAndInsert();
+    }
+
+    @Test
+    void test_bind() {
+        CompiledQuery<StudentEntity> compiled = new StudentQuery()
+            .where.age().gt(0).and.userName().like("").end()
+            .orderBy.age().asc().end()
+            .compile();
+        want.number(compiled.size()).eq(2);
+        List<StudentEntity> list = mapper.listEntity(compiled.bind(25, "%user%"));
+        want.list(list).eqDataMap(ATM.dataMap.student.entity(3)
+            .userName.values("user2", "user3", "user4"), EqMode.IGNORE_DEFAULTS);
+        list = mapper.listEntity(compiled.bind(35, "user4"));
+        want.number(list.size()).eq(1);
+        want.number(mapper.count(compiled.bind(45, "%user%"))).eq(1);
+
+        db.sqlList().wantSql(0).end("WHERE `age` > ? AND `user_name` LIKE ? ORDER BY `age` ASC");
+        db.sqlList().wantSql(1).end("WHERE `age` > ? AND `user_name` LIKE ? ORDER BY `age` ASC");
+        db.sqlList().wantPara(1).eqList(35, "user4");
+        want.number(driver.getMisses()).eq(2L);
+        want.number(driver.getHits()).eq(1L);
+    }
+
+    @Test
+    void test_unstableName() {
+        driver.setStableName(false);
+        try {
+            CompiledQuery<StudentEntity> compiled = new StudentQuery().where.age().ge(0).end().compile();
+            mapper.listEntity(compiled.bind(40));
+            mapper.listEntity(compiled.bind(50));
+            db.sqlList().wantPara(1).eqList(50);
+            want.number(driver.getHits()).eq(1L);
+        } finally {
+            driver.setStableName(null);
+        }
+    }
+
+    @Test
+    void test_paged() {
+        CompiledQuery<StudentEntity> compiled = new StudentQuery()
+            .where.age().ge(0).end()
+            .orderBy.age().desc().end()
+            .limit(1, 2)
+            .compile();
+        StdPagedList<StudentEntity> paged = mapper.stdPagedEntity(compiled.bind(30));
+        want.number(paged.getTotal()).eq(3);
+        want.list(paged.getData()).eqDataMap(ATM.dataMap.student.entity(2)
+            .userName.values("user3", "user2"), EqMode.IGNORE_DEFAULTS);
+        want.number(mapper.listEntity(compiled.bind(45)).size()).eq(0);
+    }
+
+    @Test
+    void test_delete() {
+        CompiledQuery<StudentEntity> compiled = new StudentQuery().where.userName().eq("").end().compile();
+        mapper.delete(compiled.bind("user1"));
+        mapper.delete(compiled.bind("user2"));
+        db.sqlList().wantSql(1).end("WHERE `user_name` = ?");
+        want.number(mapper.count(new StudentQuery())).eq(2);
+    }
+
+    @Test
+    void test_template_changed() {
+        StudentQuery template = new StudentQuery().where.age().gt(0).end();
+        CompiledQuery<StudentEntity> compiled = template.compile();
+        template.where.userName().eq("user4").end().limit(1);
+        want.number(mapper.count(compiled.bind(25))).eq(3);
+        mapper.delete(compiled.bind(45));
+        want.number(mapper.count(new StudentQuery())).eq(3);
+        db.sqlList().wantSql(0).end("WHERE `age` > ?");
+        db.sqlList().wantSql(1).end("WHERE `age` > ?");
+    }
+
+    @Test
+    void test_bind_mismatch() {
+        CompiledQuery<StudentEntity> compiled = new StudentQuery().where.age().gt(0).end().compile();
+        want.exception(() -> compiled.bind(1, 2), FluentMybatisException.class)
+            .contains("has 1 parameter(s), but 2 value(s) were bound");
+        want.exception(() -> compiled.bind(1).limit(1), FluentMybatisException.class)
+            .contains("can't be modified");
+    }
+}
@@ -0,0 +1,81 @@
+package cn.org.atool.fluent.mybatis.test.stable;
+
+import cn.org.atool.fluent.mybatis.base.BatchCrud;
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.base.crud.BatchCrudImpl;
+import cn.org.atool.fluent.mybatis.base.crud.JoinBuilder;
+import cn.org.atool.fluent.mybatis.base.entity.IEntityHelper;
+import cn.org.atool.fluent.mybatis.generate.entity.HomeAddressEntity;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentScoreEntity;
+import cn.org.atool.fluent.mybatis.generate.wrapper.HomeAddressQuery;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentUpdate;
+import cn.org.atool.fluent.mybatis.mapper.EntityHelperFactory;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * EntityHelper, SqlProvider, Query构造器注册表的并发访问
+ *
+ * @author darui.wu
+ */
+public class RegistryConcurrencyTest extends BaseTest {
+    private static final int THREADS = 16;
+
+    private static final int ROUNDS = 200;
+
+    @Test
+    void test_concurrentLookup() throws Exception {
+        Class<? extends IEntity>[] klasses = new Class[]{StudentEntity.class, HomeAddressEntity.class, StudentScoreEntity.class};
+        Set<IEntityHelper> helpers = ConcurrentHashMap.newKeySet();
+        Set<String> joinSql = ConcurrentHashMap.newKeySet();
+        Set<String> batchSql = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < ROUNDS; round++) {
+                        helpers.add(EntityHelperFactory.getInstance(klasses[round % klasses.length]));
+                        joinSql.add(shape(JoinBuilder.from(new StudentQuery("t1").where.id().eq(1L).end())
+                            .join(new HomeAddressQuery("t2"))
+                            .on(l -> l.where.homeAddressId(), r -> r.where.id()).endJoin()
+                            .build().getWrapperData().getQuerySql()));
+                        BatchCrudImpl batch = (BatchCrudImpl) BatchCrud.batch()
+                            .addUpdate(new StudentUpdate().set.userName().is("user").end().where.id().eq(1L).end())
+                            .addDelete(new HomeAddressQuery().where.id().eq(1L).end());
+                        batchSql.add(shape(batch.batchSql()));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        want.number(helpers.size()).eq(klasses.length);
+        for (Class<? extends IEntity> klass : klasses) {
+            want.bool(helpers.contains(EntityHelperFactory.getInstance(klass))).is(true);
+        }
+        want.number(joinSql.size()).eq(1);
+        want.number(batchSql.size()).eq(1);
+    }
+
+    /**
+     * 去掉每个实例不同的参数变量名
+     */
+    private static String shape(String sql) {
+        return sql.replaceAll("#\\{[^}]+}", "?");
+    }
+}
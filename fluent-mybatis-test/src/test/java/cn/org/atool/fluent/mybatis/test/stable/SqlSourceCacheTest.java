@@ -0,0 +1,69 @@
+package cn.org.atool.fluent.mybatis.test.stable;
+
+import cn.org.atool.fluent.mybatis.generate.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.mapper.FluentLanguageDriver;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * sql解析缓存: 相同结构的查询只解析一次
+ *
+ * @author darui.wu
+ */
+public class SqlSourceCacheTest extends BaseTest {
+    @Autowired
+    private StudentMapper mapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    private FluentLanguageDriver driver;
+
+    @BeforeEach
+    void setup() {
+        driver = (FluentLanguageDriver) sqlSessionFactory.getConfiguration().getLanguageDriver(FluentLanguageDriver.class);
+        driver.clear();
+    }
+
+    @AfterEach
+    void reset() {
+        driver.setStableName(null);
+    }
+
+    @Test
+    void test_sameShape() {
+        mapper.listEntity(query(20, "user1"));
+        mapper.listEntity(query(30, "user2"));
+        mapper.listEntity(query(40, "user3"));
+        db.sqlList().wantSql(2).end("WHERE `age` > ? AND `user_name` LIKE ?");
+        db.sqlList().wantPara(2).eqList(40, "%user3%");
+        want.number(driver.getMisses()).eq(1L);
+        want.number(driver.getHits()).eq(2L);
+    }
+
+    @Test
+    void test_differentShape() {
+        mapper.listEntity(query(20, "user1"));
+        mapper.listEntity(new StudentQuery().where.age().gt(20).end());
+        want.number(driver.getMisses()).eq(2L);
+        want.number(driver.getHits()).eq(0L);
+    }
+
+    @Test
+    void test_unstableName() {
+        driver.setStableName(false);
+        mapper.listEntity(query(20, "user1"));
+        mapper.listEntity(query(20, "user1"));
+        want.number(driver.getMisses()).eq(0L);
+        want.number(driver.size()).eq(0);
+    }
+
+    private static StudentQuery query(int age, String name) {
+        return new StudentQuery().where.age().gt(age).and.userName().like(name).end();
+    }
+}
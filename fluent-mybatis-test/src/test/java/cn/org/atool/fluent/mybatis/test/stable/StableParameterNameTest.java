@@ -0,0 +1,100 @@
+package cn.org.atool.fluent.mybatis.test.stable;
+
+import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.base.crud.JoinBuilder;
+import cn.org.atool.fluent.mybatis.generate.ATM;
+import cn.org.atool.fluent.mybatis.generate.helper.StudentSqlProvider;
+import cn.org.atool.fluent.mybatis.generate.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generate.wrapper.HomeAddressQuery;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.mapper.FluentLanguageDriver;
+import cn.org.atool.fluent.mybatis.segment.model.Parameters;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Param_EW;
+
+/**
+ * 变量稳定命名: 相同结构的查询生成相同的sql语句
+ *
+ * @author darui.wu
+ */
+public class StableParameterNameTest extends BaseTest {
+    @Autowired
+    private StudentMapper mapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    private FluentLanguageDriver driver;
+
+    @BeforeEach
+    void setup() {
+        driver = (FluentLanguageDriver) sqlSessionFactory.getConfiguration().getLanguageDriver(FluentLanguageDriver.class);
+        driver.clear();
+    }
+
+    @AfterEach
+    void reset() {
+        driver.setStableName(null);
+    }
+
+    @Test
+    void test_sameShape() {
+        String sql1 = listEntitySql(nestedQuery(20, "user1"));
+        String sql2 = listEntitySql(nestedQuery(30, "user2"));
+        want.string(sql1).eq(sql2).contains("#{ew_p1}").contains("#{ew_p3}");
+    }
+
+    @Test
+    void test_join_sameShape() {
+        String sql1 = listEntitySql(joinQuery(1L, "addr1"));
+        String sql2 = listEntitySql(joinQuery(2L, "addr2"));
+        want.string(sql1).eq(sql2).contains("#{ew_p2}");
+    }
+
+    @Test
+    void test_execute() {
+        ATM.dataMap.student.initTable(3)
+            .userName.values("user1", "user2", "user3")
+            .age.values(30)
+            .cleanAndInsert();
+        IQuery query = nestedQuery(20, "user");
+        int size = query.getWrapperData().getParameters().size();
+        mapper.listEntity(query);
+        mapper.listEntity(query);
+        db.sqlList().wantFirstPara().eqList(20, "%user%", 20);
+        want.number(query.getWrapperData().getParameters().size()).eq(size);
+        want.number(driver.getHits()).eq(1L);
+        want.number(mapper.listMaps(joinQuery(1L, "addr")).size()).eq(0);
+    }
+
+    private static IQuery nestedQuery(int age, String name) {
+        return new StudentQuery()
+            .where.age().gt(age)
+            .and.id().in(q -> q.selectId().where.userName().like(name).end())
+            .and.age().ge(age).end();
+    }
+
+    private static IQuery joinQuery(long id, String address) {
+        StudentQuery left = new StudentQuery("t1").where.id().eq(id).end();
+        HomeAddressQuery right = new HomeAddressQuery("t2").where.address().like(address).end();
+        return JoinBuilder.from(left).join(right)
+            .on(l -> l.where.homeAddressId(), r -> r.where.id()).endJoin()
+            .build();
+    }
+
+    private static String listEntitySql(IQuery query) {
+        Map<String, Object> map = new HashMap<>();
+        map.put(Param_EW, query);
+        return Parameters.stableSql(new StudentSqlProvider().listEntity(map), new ArrayList<>());
+    }
+}
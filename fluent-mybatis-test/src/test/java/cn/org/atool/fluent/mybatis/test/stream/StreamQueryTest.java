@@ -0,0 +1,105 @@
+package cn.org.atool.fluent.mybatis.test.stream;
+
+import cn.org.atool.fluent.mybatis.base.dao.IProtectedDao;
+import cn.org.atool.fluent.mybatis.generate.ATM;
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.mapper.StudentMapper;
+import cn.org.atool.fluent.mybatis.generate.wrapper.StudentQuery;
+import cn.org.atool.fluent.mybatis.model.Form;
+import cn.org.atool.fluent.mybatis.refs.FieldRef;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import lombok.Data;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 流式查询
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings("unchecked")
+public class StreamQueryTest extends BaseTest {
+    @Autowired
+    private StudentMapper mapper;
+
+    @Autowired
+    @Qualifier("studentDaoImpl")
+    private IProtectedDao dao;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Test
+    void test_streamEntity() {
+        ATM.dataMap.student.initTable(10)
+            .userName.formatAutoIncrease("user_%d")
+            .cleanAndInsert();
+        try (Stream<StudentEntity> stream = mapper.streamEntity(new StudentQuery()
+            .where.id().gt(3).end()
+            .orderBy.id().asc().end())) {
+            List<Long> ids = stream.map(StudentEntity::getId).collect(Collectors.toList());
+            want.list(ids).eqReflect(new long[]{4, 5, 6, 7, 8, 9, 10});
+        }
+        db.sqlList().wantFirstSql().end("FROM fluent_mybatis.student WHERE `id` > ? ORDER BY `id` ASC");
+    }
+
+    @Test
+    void test_streamMaps_fetchSize() {
+        ATM.dataMap.student.initTable(5)
+            .userName.formatAutoIncrease("user_%d")
+            .cleanAndInsert();
+        try (Stream<Map<String, Object>> stream = mapper.streamMaps(new StudentQuery()
+            .select.userName().end()
+            .orderBy.id().asc().end(), 2)) {
+            List<Object> names = stream.map(map -> map.get("user_name")).collect(Collectors.toList());
+            want.list(names).eqReflect(new String[]{"user_1", "user_2", "user_3", "user_4", "user_5"});
+        }
+        try (Stream<Map<String, Object>> stream = mapper.streamMaps(new StudentQuery(), 3)) {
+            want.number(stream.count()).eq(5L);
+        }
+        boolean registered = sqlSessionFactory.getConfiguration().getMappedStatementNames().stream()
+            .anyMatch(name -> name.contains("$cursor"));
+        want.bool(registered).is(false);
+    }
+
+    @Test
+    void test_streamPoJo() {
+        ATM.dataMap.student.initTable(3)
+            .userName.formatAutoIncrease("user_%d")
+            .cleanAndInsert();
+        try (Stream<StudentPoJo> stream = (Stream<StudentPoJo>) dao.streamPoJo(StudentPoJo.class, new StudentQuery()
+            .select.id().userName().end()
+            .orderBy.id().asc().end())) {
+            List<String> names = stream.map(StudentPoJo::getUserName).collect(Collectors.toList());
+            want.list(names).eqReflect(new String[]{"user_1", "user_2", "user_3"});
+        }
+    }
+
+    @Test
+    void test_formStream() {
+        ATM.dataMap.student.initTable(4)
+            .userName.values("xx", "yy", "xx", "yy")
+            .env.values("test_env")
+            .isDeleted.values(false)
+            .cleanAndInsert();
+        try (Stream<StudentEntity> stream = new Form()
+            .add.eq(FieldRef.Student.userName, "xx")
+            .to(StudentEntity.class).streamEntity()) {
+            want.number(stream.count()).eq(2L);
+        }
+    }
+
+    @Data
+    public static class StudentPoJo {
+        private Long id;
+
+        private String userName;
+    }
+}
@@ -0,0 +1,19 @@
+package cn.org.atool.fluent.mybatis.test.util;
+
+import cn.org.atool.fluent.mybatis.generate.entity.StudentEntity;
+import cn.org.atool.fluent.mybatis.generate.helper.StudentMapping;
+import cn.org.atool.fluent.mybatis.test.BaseTest;
+import cn.org.atool.fluent.mybatis.utility.LambdaUtil;
+import cn.org.atool.fluent.mybatis.utility.MappingKits;
+import org.junit.jupiter.api.Test;
+
+public class LambdaMappingTest extends BaseTest {
+    @Test
+    void test_resolveMapping() {
+        for (int i = 0; i < 3; i++) {
+            want.object(LambdaUtil.resolve(StudentEntity.class, StudentEntity::getUserName)).same(StudentMapping.userName);
+            want.object(LambdaUtil.resolve(StudentEntity.class, StudentEntity::getIsDeleted)).same(StudentMapping.isDeleted);
+        }
+        want.string(MappingKits.toColumn(StudentEntity.class, StudentEntity::getHomeAddressId)).eq("home_address_id");
+    }
+}
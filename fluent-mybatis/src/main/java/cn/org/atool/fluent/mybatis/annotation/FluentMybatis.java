@@ -65,4 +65,27 @@ public @interface FluentMybatis {
      * @return type of database
      */
     DbType dbType() default DbType.MYSQL;
+
+    /**
+     * 主键缓存(findById, listByIds)的最大条目数, 0表示不缓存
+     * 需要注册mybatis插件 {@link cn.org.atool.fluent.mybatis.mapper.EntityCacheInterceptor}
+     *
+     * @return max size of cache
+     */
+    int cacheSize() default 0;
+
+    /**
+     * 主键缓存的有效期(毫秒), 0表示不过期
+     *
+     * @return ttl of cache
+     */
+    long cacheTtl() default 0;
+
+    /**
+     * 是否缓存查询结果(listEntity, listMaps, listObjs, count, countNoLimit, findOne), 适合小数据量的配置表
+     * 需要注册mybatis插件 {@link cn.org.atool.fluent.mybatis.mapper.QueryCacheInterceptor}
+     *
+     * @return cache query result or not
+     */
+    boolean queryCache() default false;
 }
\ No newline at end of file
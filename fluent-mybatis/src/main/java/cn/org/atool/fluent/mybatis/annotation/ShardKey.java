@@ -0,0 +1,15 @@
+package cn.org.atool.fluent.mybatis.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 分片键字段标识, 按字段值的hash路由到分片
+ * 需要注册mybatis插件 {@link cn.org.atool.fluent.mybatis.mapper.ShardingInterceptor}
+ *
+ * @author darui.wu
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ShardKey {
+}
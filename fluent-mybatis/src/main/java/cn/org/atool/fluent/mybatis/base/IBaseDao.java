@@ -1,8 +1,15 @@
 package cn.org.atool.fluent.mybatis.base;
 
+import cn.org.atool.fluent.mybatis.base.crud.IUpdate;
+import cn.org.atool.fluent.mybatis.base.dao.DaoHelper;
+import cn.org.atool.fluent.mybatis.base.mapper.BatchUpdateExecutor;
 import cn.org.atool.fluent.mybatis.base.mapper.IRichMapper;
+import cn.org.atool.fluent.mybatis.base.mapper.IWrapperMapper;
+import cn.org.atool.fluent.mybatis.model.BatchInsertResult;
+import cn.org.atool.fluent.mybatis.model.BatchUpdateResult;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -38,6 +45,17 @@ public interface IBaseDao<E extends IEntity> {
         return this.mapper().save(list);
     }
 
+    /**
+     * 以JDBC batch方式批量插入
+     * 列表实例的主键必须全赋值，或者全不赋值
+     *
+     * @param list 实体对象列表
+     * @return 插入结果, 包含每批提交的影响行数
+     */
+    default BatchInsertResult saveInJdbcBatch(Collection<E> list) {
+        return this.mapper().saveInJdbcBatch(list);
+    }
+
     /**
      * <p>
      * 根据主键判断记录是否已经存在
@@ -70,7 +88,7 @@ public interface IBaseDao<E extends IEntity> {
      * @return 对象列表
      */
     default List<E> selectByIds(Serializable... ids) {
-        return (List<E>) this.mapper().listByIds(Arrays.asList(ids));
+        return (List<E>) this.mapper().listByIdsChunked(Arrays.asList(ids));
     }
 
     /**
@@ -80,7 +98,7 @@ public interface IBaseDao<E extends IEntity> {
      * @return 结果列表
      */
     default List<E> selectByIds(Collection<? extends Serializable> ids) {
-        return (List<E>) this.mapper().listByIds(ids);
+        return (List<E>) this.mapper().listByIdsChunked(ids);
     }
 
     /**
@@ -131,6 +149,22 @@ public interface IBaseDao<E extends IEntity> {
         return this.updateEntityByIds((E[]) entities.toArray(new IEntity[0]));
     }
 
+    /**
+     * 根据entity的主键批量修改entity中非null属性, 以JDBC batch方式执行
+     * 不需要数据库连接开启多语句执行, 返回每个实例的影响行数
+     *
+     * @param entities 实体对象列表
+     * @return 更新结果
+     */
+    default BatchUpdateResult updateEntityByIdsInJdbcBatch(Collection<E> entities) {
+        IWrapperMapper mapper = (IWrapperMapper) this.mapper();
+        List<IUpdate> updates = new ArrayList<>(entities.size());
+        for (E entity : entities) {
+            updates.add(DaoHelper.buildUpdateEntityById(() -> (IUpdate) mapper.updater(), entity));
+        }
+        return new BatchUpdateExecutor(this.mapper()).update(updates);
+    }
+
     /**
      * 根据whereNoN非空属性作为相等条件, 更新updateNoN非空属性字段
      *
@@ -187,7 +221,7 @@ public interface IBaseDao<E extends IEntity> {
      * @return 被执行的记录数
      */
     default int deleteByIds(Collection<? extends Serializable> ids) {
-        return this.mapper().deleteByIds(ids);
+        return this.mapper().deleteByIdsChunked(ids);
     }
 
     /**
@@ -197,7 +231,7 @@ public interface IBaseDao<E extends IEntity> {
      * @return 被执行的记录数
      */
     default int logicDeleteByIds(Collection<? extends Serializable> ids) {
-        return this.mapper().logicDeleteByIds(ids);
+        return this.mapper().logicDeleteByIdsChunked(ids);
     }
 
     /**
@@ -1,13 +1,16 @@
 package cn.org.atool.fluent.mybatis.base;
 
+import cn.org.atool.fluent.mybatis.base.crud.BaseSqlProvider;
 import cn.org.atool.fluent.mybatis.base.crud.IQuery;
 import cn.org.atool.fluent.mybatis.base.crud.IUpdate;
 import cn.org.atool.fluent.mybatis.base.entity.IEntityHelper;
 import cn.org.atool.fluent.mybatis.base.mapper.IRichMapper;
+import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
 import cn.org.atool.fluent.mybatis.mapper.EntityHelperFactory;
 import cn.org.atool.fluent.mybatis.metadata.DbType;
 import cn.org.atool.fluent.mybatis.spring.MapperFactory;
 import lombok.Setter;
+import org.apache.ibatis.session.SqlSessionFactory;
 
 import java.lang.reflect.Method;
 import java.util.List;
@@ -76,6 +79,30 @@ public abstract class IRefs {
         }
     }
 
+    /**
+     * 应用没有编译生成Refs类
+     */
+    private static volatile boolean NO_REFS = false;
+
+    /**
+     * 返回编译生成的静态注册表(Refs单例), 应用没有生成Refs类时返回null
+     *
+     * @return IRefs
+     */
+    public static IRefs registry() {
+        if (INSTANCE == null && !NO_REFS) {
+            try {
+                return instance();
+            } catch (RuntimeException e) {
+                if (!(e.getCause() instanceof ClassNotFoundException)) {
+                    throw e;
+                }
+                NO_REFS = true;
+            }
+        }
+        return INSTANCE;
+    }
+
     protected static RuntimeException springNotInitException() {
         return new RuntimeException("The cn.org.atool.fluent.mybatis.spring.MapperFactory must be configured as spring bean.");
     }
@@ -121,6 +148,47 @@ public abstract class IRefs {
      */
     public abstract String findColumnByField(Class clazz, String field);
 
+    /**
+     * 返回clazz属性field对应的字段映射
+     *
+     * @param clazz Entity类类型
+     * @param field entity属性名
+     * @return 字段映射, 属性不存在时返回null
+     */
+    public FieldMapping findMappingByField(Class clazz, String field) {
+        String column = this.findColumnByField(clazz, field);
+        return column == null ? null : new FieldMapping(field, column);
+    }
+
+    /**
+     * 构造clazz实体的帮助类实例, 编译生成的Refs按实体类名分派, 不使用反射
+     *
+     * @param clazz Entity类类型
+     * @return 帮助类实例, clazz不在注册表中时返回null
+     */
+    public IEntityHelper newEntityHelper(Class clazz) {
+        return null;
+    }
+
+    /**
+     * 构造clazz实体的SqlProvider实例, 编译生成的Refs按实体类名分派, 不使用反射
+     *
+     * @param clazz Entity类类型
+     * @return SqlProvider实例, clazz不在注册表中时返回null
+     */
+    public BaseSqlProvider newSqlProvider(Class clazz) {
+        return null;
+    }
+
+    /**
+     * 实体类间自定义关联关系接口(IEntityRelation)
+     *
+     * @return 编译生成的接口类, 未生成时返回null
+     */
+    public Class entityRelationClass() {
+        return null;
+    }
+
     /**
      * 返回clazz实体的主键字段
      *
@@ -168,18 +236,19 @@ public abstract class IRefs {
     }
 
     /**
-     * 反射调用 methodOfEntity 方法
+     * 调用 methodOfEntity 方法
+     * 编译生成的Refs按方法名switch分派, 这里是反射调用的兜底实现
      *
      * @param methodOfEntity 方法名称
      * @param args           方法参数列表
      * @param <T>            ignore
      * @return ignore
      */
-    private <T> T invokeRefMethod(String methodOfEntity, Object[] args) {
-        if (!refMethods.containsKey(methodOfEntity)) {
+    protected <T> T invokeRefMethod(String methodOfEntity, Object[] args) {
+        Method method = refMethods.computeIfAbsent(methodOfEntity, this::findRefMethod);
+        if (method == null) {
             throw new RuntimeException("the method[" + methodOfEntity + "] not defined or wrong define.");
         }
-        Method method = refMethods.get(methodOfEntity);
         try {
             return (T) method.invoke(this, args);
         } catch (Exception e) {
@@ -190,6 +259,37 @@ public abstract class IRefs {
 
     private final Map<String, Method> refMethods = new ConcurrentHashMap<>(32);
 
+    private Method findRefMethod(String methodOfEntity) {
+        for (Method method : this.getClass().getMethods()) {
+            if (method.getName().equals(methodOfEntity) && method.getParameterCount() > 0
+                && RichEntity.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 批量加载实体列表的@RefMethod关联关系, 结果设置到各实体的关联缓存中,
+     * 之后调用实体关联方法直接返回缓存结果
+     * <pre>
+     * 自动映射的关联关系按关联字段执行 IN 查询(超过数据库IN列表上限时分批), 消除逐条加载的 N+1 查询
+     * 自定义实现的关联关系逐条加载
+     * </pre>
+     *
+     * @param entities  实体列表, 必须是同一实体类
+     * @param refMethod Entity @RefMethod方法名称
+     * @param <E>       实体类型
+     * @return 实体列表
+     */
+    public static <E extends RichEntity> List<E> loadRelations(List<E> entities, String refMethod) {
+        if (entities == null || entities.isEmpty()) {
+            return entities;
+        }
+        new RelationLoader(instance(), entities.get(0).getClass(), refMethod).load(entities);
+        return entities;
+    }
+
     /**
      * 返回标注@FluentMybatis注解Entity类
      *
@@ -241,20 +341,24 @@ public abstract class IRefs {
 
     protected abstract IRichMapper getMapper(Class<? extends IEntity> clazz);
 
+    /**
+     * 返回Mapper接口对应的SqlSessionFactory
+     *
+     * @param mapperInterface Mapper接口
+     * @return SqlSessionFactory
+     */
+    public static SqlSessionFactory sqlSessionFactory(Class mapperInterface) {
+        MapperFactory factory = instance().mapperFactory;
+        if (factory == null) {
+            throw springNotInitException();
+        }
+        return factory.getSqlSessionFactory(mapperInterface);
+    }
+
     /**
      * 从spring容器中获取Mapper
      */
     public void wiredMapper() {
-        Method[] methods = this.getClass().getMethods();
-        for (Method method : methods) {
-            if (method.getParameterCount() == 0) {
-                continue;
-            }
-            Class parameterType = method.getParameterTypes()[0];
-            if (RichEntity.class.isAssignableFrom(parameterType)) {
-                this.refMethods.put(method.getName(), method);
-            }
-        }
         this.initEntityMapper();
     }
 
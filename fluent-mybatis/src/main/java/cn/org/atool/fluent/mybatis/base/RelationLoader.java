@@ -0,0 +1,212 @@
+package cn.org.atool.fluent.mybatis.base;
+
+import cn.org.atool.fluent.mybatis.If;
+import cn.org.atool.fluent.mybatis.annotation.RefMethod;
+import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.base.mapper.IRichMapper;
+import cn.org.atool.fluent.mybatis.base.model.SqlOp;
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import cn.org.atool.fluent.mybatis.utility.InListHelper;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * 批量加载@RefMethod关联关系, 避免逐条加载的 N+1 查询
+ * <pre>
+ * 1. 自动映射关联(@RefMethod("关联字段 = 本实体字段 && ...")):
+ *    收集所有实体的关联字段值, 按数据库IN列表上限分批执行 IN 查询,
+ *    在内存中按关联字段值分组, 设置到每个实体的关联缓存中
+ * 2. 自定义实现的关联(@RefMethod未赋值): 逐条调用关联方法并缓存
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+class RelationLoader {
+    private final IRefs refs;
+    /**
+     * 本实体类
+     */
+    private final Class<? extends IEntity> entityClass;
+    /**
+     * 关联方法
+     */
+    private final Method method;
+    /**
+     * 关联实体类
+     */
+    private final Class<? extends IEntity> refClass;
+    /**
+     * 关联方法返回是否是列表
+     */
+    private final boolean isList;
+    /**
+     * 关联实体的数据库字段
+     */
+    private final List<String> refColumns = new ArrayList<>();
+    /**
+     * 本实体的数据库字段
+     */
+    private final List<String> thisColumns = new ArrayList<>();
+
+    RelationLoader(IRefs refs, Class entityClass, String methodName) {
+        this.refs = refs;
+        this.entityClass = refs.findFluentEntityClass(entityClass);
+        try {
+            this.method = this.entityClass.getMethod(methodName);
+        } catch (NoSuchMethodException e) {
+            throw new FluentMybatisException("the method[" + methodName + "] without parameter not found in entity[" + this.entityClass.getName() + "].", e);
+        }
+        RefMethod ref = this.method.getAnnotation(RefMethod.class);
+        if (ref == null) {
+            throw new FluentMybatisException("the method[" + methodName + "] of entity[" + this.entityClass.getName() + "] is not a @RefMethod.");
+        }
+        this.isList = List.class.isAssignableFrom(this.method.getReturnType());
+        this.refClass = this.refClass();
+        if (If.notBlank(ref.value())) {
+            this.parse(ref.value());
+        }
+    }
+
+    /**
+     * 批量加载关联关系, 设置到实体的关联缓存
+     *
+     * @param entities 实体列表
+     */
+    void load(List<? extends RichEntity> entities) {
+        String methodName = this.method.getName();
+        if (this.refColumns.isEmpty()) {
+            for (RichEntity entity : entities) {
+                entity.invoke(methodName, true);
+            }
+            return;
+        }
+        Map<List<Object>, List<RichEntity>> parents = new LinkedHashMap<>();
+        Map<List<Object>, List<Object>> values = new HashMap<>();
+        for (RichEntity entity : entities) {
+            Map<String, Object> row = entity.toColumnMap(false);
+            List<Object> key = key(row, this.thisColumns);
+            if (key == null) {
+                entity.cached.put(methodName, Optional.ofNullable(this.isList ? new ArrayList<>() : null));
+            } else {
+                parents.computeIfAbsent(key, k -> new ArrayList<>()).add(entity);
+                values.computeIfAbsent(key, k -> values(row, this.thisColumns));
+            }
+        }
+        if (parents.isEmpty()) {
+            return;
+        }
+        Map<List<Object>, List<IEntity>> children = this.children(parents.keySet(), values);
+        for (Map.Entry<List<Object>, List<RichEntity>> entry : parents.entrySet()) {
+            List<IEntity> list = children.getOrDefault(entry.getKey(), Collections.emptyList());
+            for (RichEntity entity : entry.getValue()) {
+                Object value = this.isList ? new ArrayList<>(list) : (list.isEmpty() ? null : list.get(0));
+                entity.cached.put(methodName, Optional.ofNullable(value));
+            }
+        }
+    }
+
+    /**
+     * 按第一个关联字段分批 IN 查询, 其它关联字段以去重后的值 IN 过滤, 再在内存中按完整关联值分组
+     *
+     * @param keys   本实体的关联字段值(数值已统一转换)
+     * @param values 本实体的关联字段原始值
+     * @return 关联字段值 - 关联实体列表
+     */
+    private Map<List<Object>, List<IEntity>> children(Set<List<Object>> keys, Map<List<Object>, List<Object>> values) {
+        IRichMapper mapper = IRefs.mapper(this.refClass);
+        Map<Object, List<List<Object>>> firsts = new LinkedHashMap<>();
+        for (List<Object> key : keys) {
+            firsts.computeIfAbsent(key.get(0), k -> new ArrayList<>()).add(key);
+        }
+        Map<List<Object>, List<IEntity>> children = new HashMap<>(keys.size() * 2);
+        for (List<Object> chunk : InListHelper.chunk(firsts.keySet(), mapper.maxInSize())) {
+            Set<List<Object>> chunkKeys = new LinkedHashSet<>();
+            for (Object first : chunk) {
+                chunkKeys.addAll(firsts.get(first));
+            }
+            IQuery query = this.refs.emptyQuery(this.refClass);
+            for (int index = 0; index < this.refColumns.size(); index++) {
+                Set<Object> args = new LinkedHashSet<>();
+                for (List<Object> key : chunkKeys) {
+                    args.add(values.get(key).get(index));
+                }
+                query.where().apply(this.refColumns.get(index), SqlOp.IN, args.toArray());
+            }
+            List<IEntity> list = mapper.listEntity(query);
+            for (IEntity child : list) {
+                List<Object> key = key(child.toColumnMap(false), this.refColumns);
+                if (key != null && chunkKeys.contains(key)) {
+                    children.computeIfAbsent(key, k -> new ArrayList<>()).add(child);
+                }
+            }
+        }
+        return children;
+    }
+
+    /**
+     * 解析 "关联Entity字段 = this.Entity字段 && ..."
+     *
+     * @param value @RefMethod定义
+     */
+    private void parse(String value) {
+        for (String pair : value.split("&&")) {
+            String[] fields = pair.split("=");
+            if (fields.length != 2 || If.isBlank(fields[0]) || If.isBlank(fields[1])) {
+                throw new FluentMybatisException("illegal @RefMethod value of method[" + this.method.getName() + "]: " + value);
+            }
+            this.refColumns.add(this.column(this.refClass, fields[0].trim()));
+            this.thisColumns.add(this.column(this.entityClass, fields[1].trim()));
+        }
+    }
+
+    private String column(Class clazz, String field) {
+        String column = this.refs.findColumnByField(clazz, field);
+        if (column == null) {
+            throw new FluentMybatisException("the field[" + field + "] not found in entity[" + clazz.getName() + "].");
+        }
+        return column;
+    }
+
+    private Class<? extends IEntity> refClass() {
+        Type type = this.isList ? this.method.getGenericReturnType() : this.method.getReturnType();
+        if (this.isList && type instanceof ParameterizedType) {
+            type = ((ParameterizedType) type).getActualTypeArguments()[0];
+        }
+        if (type instanceof Class && IEntity.class.isAssignableFrom((Class) type)) {
+            return this.refs.findFluentEntityClass((Class) type);
+        }
+        throw new FluentMybatisException("can't find the related entity of method[" + this.method.getName() + "] in entity[" + this.entityClass.getName() + "].");
+    }
+
+    private static List<Object> values(Map<String, Object> row, List<String> columns) {
+        List<Object> values = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            values.add(row.get(column));
+        }
+        return values;
+    }
+
+    /**
+     * 返回关联字段值, 数值类型统一转换, 有null值时返回null
+     *
+     * @param row     字段-值 map
+     * @param columns 关联字段
+     * @return 关联字段值列表
+     */
+    private static List<Object> key(Map<String, Object> row, List<String> columns) {
+        List<Object> key = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            Object value = row.get(column);
+            if (value == null) {
+                return null;
+            }
+            key.add(value instanceof Number ? new BigDecimal(value.toString()).stripTrailingZeros() : value);
+        }
+        return key;
+    }
+}
@@ -95,6 +95,28 @@ public abstract class BaseQuery<
         return (Q) this;
     }
 
+    /**
+     * 读写分离时, 强制查询主库
+     *
+     * @return self
+     * @see cn.org.atool.fluent.mybatis.mapper.ReadWriteInterceptor
+     */
+    public Q forcePrimary() {
+        this.wrapperData.setForcePrimary(true);
+        return (Q) this;
+    }
+
+    /**
+     * Map查询结果(listMaps, findOneMap)转换为只读的CompactRow, 共享字段索引
+     *
+     * @return self
+     * @see cn.org.atool.fluent.mybatis.mapper.RowMapperInterceptor
+     */
+    public Q compactMap() {
+        this.wrapperData.setCompactMap(true);
+        return (Q) this;
+    }
+
     @Override
     public abstract List<String> allFields();
 
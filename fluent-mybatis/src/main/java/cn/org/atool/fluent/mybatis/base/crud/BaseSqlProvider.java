@@ -8,6 +8,7 @@ import cn.org.atool.fluent.mybatis.base.entity.IRichEntity;
 import cn.org.atool.fluent.mybatis.base.mapper.IEntityMapper;
 import cn.org.atool.fluent.mybatis.base.model.FieldType;
 import cn.org.atool.fluent.mybatis.base.model.InsertList;
+import cn.org.atool.fluent.mybatis.base.model.SqlFragments;
 import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
 import cn.org.atool.fluent.mybatis.mapper.MapperSql;
 import cn.org.atool.fluent.mybatis.metadata.DbType;
@@ -17,8 +18,10 @@ import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static cn.org.atool.fluent.mybatis.If.isBlank;
@@ -121,7 +124,7 @@ public abstract class BaseSqlProvider<E extends IEntity> {
             }
         }
         sql.INSERT_INTO(tableName == null ? this.tableName() : tableName);
-        sql.INSERT_COLUMNS(dbType(), this.allFields(withPk));
+        sql.INSERT_COLUMNS(this.fragments().insertColumns(withPk));
         sql.VALUES();
         for (int index = 0; index < entities.size(); index++) {
             if (index > 0) {
@@ -189,7 +192,10 @@ public abstract class BaseSqlProvider<E extends IEntity> {
      * @return ignore
      */
     public String countNoLimit(Map map) {
-        WrapperData ew = getWrapperData(map, Param_EW);
+        return compiled(map, M_countNoLimit, this::countNoLimit);
+    }
+
+    private String countNoLimit(WrapperData ew) {
         if (notBlank(ew.getCustomizedSql())) {
             return ew.getCustomizedSql();
         }
@@ -206,7 +212,10 @@ public abstract class BaseSqlProvider<E extends IEntity> {
      * @return ignore
      */
     public String count(Map map) {
-        WrapperData ew = getWrapperData(map, Param_EW);
+        return compiled(map, M_count, this::count);
+    }
+
+    private String count(WrapperData ew) {
         if (notBlank(ew.getCustomizedSql())) {
             return ew.getCustomizedSql();
         }
@@ -217,7 +226,10 @@ public abstract class BaseSqlProvider<E extends IEntity> {
     }
 
     private String queryByWrapperData(Map map) {
-        WrapperData ew = getWrapperData(map, Param_EW);
+        return compiled(map, M_listEntity, this::queryByWrapperData);
+    }
+
+    private String queryByWrapperData(WrapperData ew) {
         if (notBlank(ew.getCustomizedSql())) {
             return ew.getCustomizedSql();
         }
@@ -283,7 +295,7 @@ public abstract class BaseSqlProvider<E extends IEntity> {
         Collection ids = getParas(map, Param_List);
         assertNotEmpty("PrimaryKeyList", ids);
         sql.SELECT(this.tableName(), this.joiningAllFields());
-        sql.WHERE_PK_IN(this.dbType().wrap(this.idColumn()), ids.size());
+        sql.WHERE_PK_IN(this.dbType(), this.primary(), ids.size());
         return sql.toString();
     }
 
@@ -297,14 +309,12 @@ public abstract class BaseSqlProvider<E extends IEntity> {
         assertNotNull("PrimaryKey", id);
         MapperSql sql = new MapperSql();
         sql.SELECT(this.tableName(), this.joiningAllFields());
-        sql.WHERE(format("%s = #{value}", dbType().wrap(this.idColumn())));
+        sql.WHERE(this.primaryFragments().primaryEqValue());
         return sql.toString();
     }
 
     private String joiningAllFields() {
-        return this.allFields(true).stream()
-            .map(dbType()::wrap)
-            .collect(joining(", "));
+        return this.fragments().selectColumns();
     }
 
     /**
@@ -348,18 +358,10 @@ public abstract class BaseSqlProvider<E extends IEntity> {
     }
 
     private void whereEqIds(MapperSql sql, Serializable[] ids) {
-        String idColumn = this.dbType().wrap(this.idColumn());
         if (ids.length == 1) {
-            sql.WHERE(format("%s = #{list[0]}", idColumn));
+            sql.WHERE(this.primaryFragments().primaryEqFirst());
         } else {
-            StringBuilder values = new StringBuilder();
-            for (int index = 0; index < ids.length; index++) {
-                if (index > 0) {
-                    values.append(", ");
-                }
-                values.append("#{list[").append(index).append("]}");
-            }
-            sql.WHERE(format("%s IN (%s)", idColumn, values));
+            sql.WHERE_PK_IN(this.dbType(), this.primary(), ids.length);
         }
     }
 
@@ -374,7 +376,7 @@ public abstract class BaseSqlProvider<E extends IEntity> {
         assertNotEmpty("ids", ids);
         MapperSql sql = new MapperSql();
         sql.DELETE_FROM(this.tableName(), null);
-        sql.WHERE_PK_IN(this.dbType().wrap(this.idColumn()), ids.size());
+        sql.WHERE_PK_IN(this.dbType(), this.primary(), ids.size());
         return sql.toString();
     }
 
@@ -389,7 +391,7 @@ public abstract class BaseSqlProvider<E extends IEntity> {
         assertNotEmpty("ids", ids);
         MapperSql sql = new MapperSql();
         this.logicDelete(sql);
-        sql.WHERE_PK_IN(this.dbType().wrap(this.idColumn()), ids.size());
+        sql.WHERE_PK_IN(this.dbType(), this.primary(), ids.size());
         return sql.toString();
     }
 
@@ -442,8 +444,7 @@ public abstract class BaseSqlProvider<E extends IEntity> {
      * @return ignore
      */
     public String delete(Map map) {
-        WrapperData ew = getWrapperData(map, Param_EW);
-        return buildDeleteSql(ew, false);
+        return compiled(map, M_Delete, ew -> buildDeleteSql(ew, false));
     }
 
     /**
@@ -453,8 +454,7 @@ public abstract class BaseSqlProvider<E extends IEntity> {
      * @return ignore
      */
     public String logicDelete(Map map) {
-        WrapperData ew = getWrapperData(map, Param_EW);
-        return buildDeleteSql(ew, true);
+        return compiled(map, M_LogicDelete, ew -> buildDeleteSql(ew, true));
     }
 
     /**
@@ -483,6 +483,38 @@ public abstract class BaseSqlProvider<E extends IEntity> {
         return String.join(";\n", list);
     }
 
+    /**
+     * 预编译查询{@link CompiledQuery}支持的语句类型, 以及语句的sql构造
+     *
+     * @return 语句类型 - sql构造
+     */
+    Map<String, Function<WrapperData, String>> compiledBuilders() {
+        Map<String, Function<WrapperData, String>> builders = new LinkedHashMap<>();
+        builders.put(M_listEntity, this::queryByWrapperData);
+        builders.put(M_count, this::count);
+        builders.put(M_countNoLimit, this::countNoLimit);
+        builders.put(M_Delete, ew -> this.buildDeleteSql(ew, false));
+        builders.put(M_LogicDelete, ew -> this.buildDeleteSql(ew, true));
+        return builders;
+    }
+
+    /**
+     * 预编译查询{@link CompiledQuery}的每种语句在编译时用模板构造, 之后直接复用sql语句
+     *
+     * @param map       k-v条件
+     * @param statement 语句类型
+     * @param builder   sql构造
+     * @return sql语句
+     */
+    private static String compiled(Map map, String statement, Function<WrapperData, String> builder) {
+        WrapperData ew = getWrapperData(map, Param_EW);
+        if (ew instanceof CompiledQuery.BoundData) {
+            return ((CompiledQuery.BoundData) ew).sql(statement);
+        } else {
+            return builder.apply(ew);
+        }
+    }
+
     private final static char[] EW_CONST = "#{ew.".toCharArray();
 
     private final static String sub = ".wrapperData.parameters.";
@@ -662,14 +694,46 @@ public abstract class BaseSqlProvider<E extends IEntity> {
     protected abstract IMapping mapping();
 
     /**
-     * 主键字段名
+     * 按 {@link #mapping()} 和 {@link #allFields(boolean)} 延迟构造的sql片段
+     */
+    private volatile SqlFragments fragments;
+
+    /**
+     * 预构造的sql片段
+     * 生成的XyzSqlProvider直接返回静态常量, 自定义的子类可以不实现
+     *
+     * @return ignore
+     */
+    protected SqlFragments fragments() {
+        SqlFragments fragments = this.fragments;
+        if (fragments == null) {
+            fragments = new SqlFragments(this.dbType(), this.mapping().findPrimaryColumn(),
+                this.allFields(true).toArray(new String[0]), this.allFields(false).toArray(new String[0]));
+            this.fragments = fragments;
+        }
+        return fragments;
+    }
+
+    /**
+     * 包含主键的sql片段
+     *
+     * @return ignore
+     */
+    private SqlFragments primaryFragments() {
+        SqlFragments fragments = this.fragments();
+        if (fragments.primary() == null) {
+            throw new RuntimeException("the primary not found.");
+        }
+        return fragments;
+    }
+
+    /**
+     * 转义后的主键字段名
      *
      * @return ignore
      */
-    private String idColumn() {
-        return this.mapping().findField(FieldType.PRIMARY_ID)
-            .map(c -> c.column)
-            .orElseThrow(() -> new RuntimeException("the primary not found."));
+    private String primary() {
+        return this.primaryFragments().primary();
     }
 
     /**
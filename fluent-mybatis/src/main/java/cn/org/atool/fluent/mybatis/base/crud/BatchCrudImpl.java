@@ -12,9 +12,7 @@ import lombok.Setter;
 import lombok.experimental.Accessors;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static cn.org.atool.fluent.mybatis.utility.MybatisUtil.assertNotNull;
 import static java.lang.String.format;
@@ -42,7 +40,7 @@ public class BatchCrudImpl implements BatchCrud {
             if (!(updater instanceof BaseWrapper)) {
                 throw new IllegalArgumentException("the updater should be instance of BaseWrapper");
             }
-            BaseSqlProvider provider = this.findSqlProvider(updater.getWrapperData().getEntityClass());
+            BaseSqlProvider provider = findSqlProvider(updater.getWrapperData().getEntityClass());
             String sql = provider.buildUpdaterSql(updater.getWrapperData());
             updater.getWrapperData().sharedParameter(wrapperData);
             list.add(sql);
@@ -56,7 +54,7 @@ public class BatchCrudImpl implements BatchCrud {
             if (!(query instanceof BaseWrapper)) {
                 throw new IllegalArgumentException("the query should be instance of BaseWrapper");
             }
-            BaseSqlProvider provider = this.findSqlProvider(query.getWrapperData().getEntityClass());
+            BaseSqlProvider provider = findSqlProvider(query.getWrapperData().getEntityClass());
             String sql = provider.buildDeleteSql(query.getWrapperData(), false);
             query.getWrapperData().sharedParameter(wrapperData);
             list.add(sql);
@@ -64,29 +62,38 @@ public class BatchCrudImpl implements BatchCrud {
         return this;
     }
 
-    private static final Map<Class, BaseSqlProvider> SQL_PROVIDER_MAP = new HashMap<>();
-
-    private BaseSqlProvider findSqlProvider(Class<? extends IEntity> klass) {
-        if (SQL_PROVIDER_MAP.containsKey(klass)) {
-            return SQL_PROVIDER_MAP.get(klass);
-        }
-        synchronized (SQL_PROVIDER_MAP) {
-            if (SQL_PROVIDER_MAP.containsKey(klass)) {
-                return SQL_PROVIDER_MAP.get(klass);
+    /**
+     * Entity类 - SqlProvider实例, 命中时无锁
+     */
+    private static final ClassValue<BaseSqlProvider> SQL_PROVIDERS = new ClassValue<BaseSqlProvider>() {
+        @Override
+        protected BaseSqlProvider computeValue(Class<?> klass) {
+            IRefs registry = IRefs.registry();
+            BaseSqlProvider provider = registry == null ? null : registry.newSqlProvider(klass);
+            if (provider != null) {
+                return provider;
             }
             String klassName = buildSqlProviderClassName(klass);
             try {
                 Class providerKlass = Class.forName(klassName);
-                BaseSqlProvider provider = (BaseSqlProvider) providerKlass.getDeclaredConstructor().newInstance();
-                SQL_PROVIDER_MAP.put(klass, provider);
-                return provider;
+                return (BaseSqlProvider) providerKlass.getDeclaredConstructor().newInstance();
             } catch (Exception e) {
                 throw new RuntimeException("findSqlProvider[" + klassName + "] error:" + e.getMessage(), e);
             }
         }
+    };
+
+    /**
+     * 返回Entity类对应的SqlProvider实例
+     *
+     * @param klass Entity类
+     * @return SqlProvider实例
+     */
+    static BaseSqlProvider findSqlProvider(Class<? extends IEntity> klass) {
+        return SQL_PROVIDERS.get(klass);
     }
 
-    private String buildSqlProviderClassName(Class<? extends IEntity> klass) {
+    private static String buildSqlProviderClassName(Class<?> klass) {
         String pack = klass.getPackage().getName();
         pack = pack.substring(0, pack.length() - ".entity".length()) + ".helper";
         String name = klass.getSimpleName();
@@ -105,7 +112,7 @@ public class BatchCrudImpl implements BatchCrud {
             if (!wrapperData.getParameters().containsKey(ENTITY_LIST_KEY)) {
                 wrapperData.getParameters().put(ENTITY_LIST_KEY, new ArrayList<>());
             }
-            BaseSqlProvider provider = this.findSqlProvider(entity.getClass());
+            BaseSqlProvider provider = findSqlProvider(entity.getClass());
             List values = (List) wrapperData.getParameters().get(ENTITY_LIST_KEY);
             int index = values.size();
             values.add(entity);
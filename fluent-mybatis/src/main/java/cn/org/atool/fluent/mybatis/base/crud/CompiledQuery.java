@@ -0,0 +1,356 @@
+package cn.org.atool.fluent.mybatis.base.crud;
+
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import cn.org.atool.fluent.mybatis.segment.WhereBase;
+import cn.org.atool.fluent.mybatis.segment.model.HintType;
+import cn.org.atool.fluent.mybatis.segment.model.MergeSegments;
+import cn.org.atool.fluent.mybatis.segment.model.OrderByKey;
+import cn.org.atool.fluent.mybatis.segment.model.PagedOffset;
+import cn.org.atool.fluent.mybatis.segment.model.Parameters;
+import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 预编译查询: 查询结构只构造一次, 之后每次执行只绑定参数值
+ * <pre>
+ * 1. 模板查询中的每个变量是一个绑定位置, 按变量在查询语句中出现的顺序排列, 同 PreparedStatement 中 '?' 的顺序
+ *    绑定值原样设置: like条件要自带通配符, in条件的每个元素是一个绑定位置
+ * 2. 每种语句(listEntity/listMaps/listObjs/findOne, count, countNoLimit, delete, logicDelete)
+ *    在编译时用模板构造sql, 之后执行的sql文本完全相同, 直接命中SqlSource解析缓存
+ * 3. {@link #bind(Object...)} 只创建一个轻量的查询实例, 不再构造条件片段和sql语句
+ * 4. 编译结果不可变, 可以在多线程间共享; 编译后再修改模板查询, 不影响编译结果
+ *
+ * 示例:
+ * CompiledQuery&lt;StudentEntity&gt; compiled = new StudentQuery()
+ *     .where.age().gt(0).and.userName().eq("").end()
+ *     .compile();
+ * mapper.listEntity(compiled.bind(18, "user"));
+ * </pre>
+ *
+ * @param <E> 实体类型
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public final class CompiledQuery<E extends IEntity> {
+    /**
+     * 绑定变量名称前缀
+     */
+    private static final String SLOT = "b";
+    /**
+     * 构造语句时追加的常量(比如分页参数)名称前缀
+     */
+    private static final String CONST = "c";
+
+    private final IQuery<E> template;
+
+    private final Supplier<String> table;
+
+    private final Class entityClass;
+
+    private final Class queryClass;
+
+    private final boolean forcePrimary;
+
+    private final boolean compactMap;
+
+    private final boolean distinct;
+
+    private final String sqlSelect;
+
+    private final String groupBy;
+
+    private final PagedOffset paged;
+
+    private final List<OrderByKey> orderByKeys;
+    /**
+     * 模板变量名称 -> 绑定变量名称
+     */
+    private final Map<String, String> slots = new HashMap<>(8);
+    /**
+     * 绑定变量名称 -> 绑定值下标
+     */
+    private final Map<String, Integer> positions = new HashMap<>(8);
+    /**
+     * 常量名称 -> 常量值
+     */
+    private final Map<String, Object> constants = new HashMap<>(4);
+    /**
+     * 语句类型 -> sql语句
+     */
+    private final Map<String, String> statements = new HashMap<>(8);
+    /**
+     * 语句类型 -> 模板不支持该语句时, 构造sql的异常
+     */
+    private final Map<String, RuntimeException> failures = new HashMap<>(4);
+    /**
+     * 模板查询语句, 变量已经重命名为绑定变量
+     */
+    private final String querySql;
+
+    CompiledQuery(IQuery<E> template) {
+        this.template = template;
+        WrapperData data = template.getWrapperData();
+        this.table = data::getTable;
+        Parameters parameters = data.getParameters();
+        this.querySql = parameters.renameSql(data.getQuerySql(), name -> {
+            String slot = this.slots.get(name);
+            if (slot == null) {
+                slot = SLOT + (this.slots.size() + 1);
+                this.slots.put(name, slot);
+                this.positions.put(slot, this.positions.size());
+            }
+            return slot;
+        });
+        Map<String, Function<WrapperData, String>> builders = BatchCrudImpl.findSqlProvider(data.getEntityClass()).compiledBuilders();
+        for (Map.Entry<String, Function<WrapperData, String>> entry : builders.entrySet()) {
+            try {
+                this.statements.put(entry.getKey(), this.render(data, entry.getValue()));
+            } catch (RuntimeException e) {
+                this.failures.put(entry.getKey(), e);
+            }
+        }
+        this.entityClass = data.getEntityClass();
+        this.queryClass = data.getQueryClass();
+        this.forcePrimary = data.isForcePrimary();
+        this.compactMap = data.isCompactMap();
+        this.distinct = data.isDistinct();
+        this.sqlSelect = data.getSqlSelect();
+        this.groupBy = data.getGroupBy();
+        this.paged = data.getPaged();
+        this.orderByKeys = Collections.unmodifiableList(new ArrayList<>(data.getOrderByKeys()));
+    }
+
+    /**
+     * 绑定参数值, 返回可以直接执行的查询
+     *
+     * @param values 按绑定位置顺序排列的参数值
+     * @return 查询
+     */
+    public IQuery<E> bind(Object... values) {
+        if (values.length != this.positions.size()) {
+            throw FluentMybatisException.instance("The compiled query has %s parameter(s), but %s value(s) were bound.",
+                this.positions.size(), values.length);
+        }
+        return new BoundQuery<>(new BoundData(this, values));
+    }
+
+    /**
+     * 绑定位置个数
+     *
+     * @return 绑定位置个数
+     */
+    public int size() {
+        return this.positions.size();
+    }
+
+    /**
+     * 模板查询语句, 变量为绑定变量
+     *
+     * @return sql
+     */
+    public String getQuerySql() {
+        return this.querySql;
+    }
+
+    /**
+     * 返回语句类型对应的sql语句
+     *
+     * @param statement 语句类型
+     * @return sql语句
+     */
+    String sql(String statement) {
+        String sql = this.statements.get(statement);
+        if (sql != null) {
+            return sql;
+        }
+        RuntimeException failure = this.failures.get(statement);
+        if (failure != null) {
+            throw new FluentMybatisException(failure.getMessage(), failure);
+        }
+        throw FluentMybatisException.instance("The statement[%s] can't be executed by compiled query.", statement);
+    }
+
+    /**
+     * 用模板构造sql语句, 模板变量替换为绑定变量, 构造时追加的变量替换为常量
+     */
+    private String render(WrapperData data, Function<WrapperData, String> builder) {
+        Parameters parameters = data.getParameters();
+        return parameters.renameSql(builder.apply(data), name -> {
+            String slot = this.slots.get(name);
+            if (slot != null) {
+                return slot;
+            }
+            String constant = CONST + (this.constants.size() + 1);
+            this.constants.put(constant, parameters.get(name));
+            return constant;
+        });
+    }
+
+    /**
+     * 绑定了参数值的查询数据
+     */
+    static class BoundData extends WrapperData {
+        private final CompiledQuery compiled;
+
+        BoundData(CompiledQuery compiled, Object[] values) {
+            super(compiled.table, null, new BoundParameters(compiled, values), compiled.entityClass, compiled.queryClass);
+            this.compiled = compiled;
+            this.isDistinct = compiled.distinct;
+            this.setForcePrimary(compiled.forcePrimary);
+            this.setCompactMap(compiled.compactMap);
+        }
+
+        /**
+         * 语句类型对应的sql语句
+         *
+         * @param statement 语句类型
+         * @return sql语句
+         */
+        String sql(String statement) {
+            return this.compiled.sql(statement);
+        }
+
+        @Override
+        public String getQuerySql() {
+            return this.compiled.querySql;
+        }
+
+        @Override
+        public String getSqlSelect() {
+            return this.compiled.sqlSelect;
+        }
+
+        @Override
+        public String getGroupBy() {
+            return this.compiled.groupBy;
+        }
+
+        /**
+         * 条件片段(如分片归并用到的GROUP BY字段)由模板查询提供
+         */
+        @Override
+        public MergeSegments getMergeSegments() {
+            return this.compiled.template.getWrapperData().getMergeSegments();
+        }
+
+        @Override
+        public PagedOffset getPaged() {
+            return this.compiled.paged;
+        }
+
+        /**
+         * 分页参数已编译为常量, 不能修改
+         */
+        @Override
+        public void setPaged(PagedOffset paged) {
+            throw new FluentMybatisException("The paging of a compiled query can't be changed.");
+        }
+
+        @Override
+        public List<OrderByKey> getOrderByKeys() {
+            return this.compiled.orderByKeys;
+        }
+    }
+
+    /**
+     * 绑定值和常量直接从编译结果中读取, 不复制到Map中
+     */
+    private static class BoundParameters extends Parameters {
+        private final CompiledQuery compiled;
+
+        private final Object[] values;
+
+        BoundParameters(CompiledQuery compiled, Object[] values) {
+            this.compiled = compiled;
+            this.values = values;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Integer position = (Integer) this.compiled.positions.get(key);
+            if (position != null) {
+                return this.values[position];
+            }
+            Object constant = this.compiled.constants.get(key);
+            return constant == null ? super.get(key) : constant;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return this.compiled.positions.containsKey(key) || this.compiled.constants.containsKey(key) || super.containsKey(key);
+        }
+    }
+
+    /**
+     * 绑定了参数值的查询, 只能用来执行
+     */
+    private static class BoundQuery<E extends IEntity> implements IQuery<E>, IWrapper {
+        private final BoundData data;
+
+        BoundQuery(BoundData data) {
+            this.data = data;
+        }
+
+        @Override
+        public <Q extends IQuery<E>> Q distinct() {
+            throw immutable();
+        }
+
+        @Override
+        public <Q extends IQuery<E>> Q selectAll() {
+            throw immutable();
+        }
+
+        @Override
+        public <Q extends IQuery<E>> Q selectId() {
+            throw immutable();
+        }
+
+        @Override
+        public <Q extends IQuery<E>> Q limit(int limit) {
+            throw immutable();
+        }
+
+        @Override
+        public <Q extends IQuery<E>> Q limit(int start, int limit) {
+            throw immutable();
+        }
+
+        @Override
+        public <Q extends IQuery<E>> Q last(String lastSql) {
+            throw immutable();
+        }
+
+        @Override
+        public WhereBase where() {
+            throw immutable();
+        }
+
+        @Override
+        public IWrapper hint(HintType type, String hint) {
+            throw immutable();
+        }
+
+        @Override
+        public WrapperData getWrapperData() {
+            return this.data;
+        }
+
+        @Override
+        public CompiledQuery<E> compile() {
+            return this.data.compiled;
+        }
+
+        private static FluentMybatisException immutable() {
+            return new FluentMybatisException("The bound query of a compiled query can't be modified.");
+        }
+    }
+}
@@ -82,6 +82,17 @@ public interface IQuery<E extends IEntity> {
      */
     WrapperData getWrapperData();
 
+    /**
+     * 预编译查询, 之后每次执行只绑定参数值
+     * 各语句的sql在编译时构造, 编译后再修改当前查询不影响编译结果
+     *
+     * @return CompiledQuery
+     * @see CompiledQuery#bind(Object...)
+     */
+    default CompiledQuery<E> compile() {
+        return new CompiledQuery<>(this);
+    }
+
     /**
      * 根据Query定义执行后续操作
      * <pre>
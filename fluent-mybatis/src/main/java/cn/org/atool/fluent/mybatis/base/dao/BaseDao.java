@@ -4,8 +4,12 @@ import cn.org.atool.fluent.mybatis.base.IBaseDao;
 import cn.org.atool.fluent.mybatis.base.IEntity;
 import cn.org.atool.fluent.mybatis.base.crud.IQuery;
 import cn.org.atool.fluent.mybatis.base.crud.IUpdate;
+import cn.org.atool.fluent.mybatis.base.mapper.BatchUpdateExecutor;
+import cn.org.atool.fluent.mybatis.model.BatchUpdateResult;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -47,13 +51,27 @@ public abstract class BaseDao<E extends IEntity> implements IBaseDao<E>, IProtec
 
     @Override
     public boolean updateEntityByIds(E... entities) {
-        List<IUpdate> updates = new ArrayList<>(entities.length);
+        if (BatchUpdateExecutor.isJdbcBatch()) {
+            return this.updateEntityByIdsInJdbcBatch(Arrays.asList(entities)).getTotal() > 0;
+        }
+        List<IUpdate> updates = this.buildUpdateEntityByIds(Arrays.asList(entities));
+        int count = this.mapper().updateBy(updates.toArray(new IUpdate[0]));
+        return count > 0;
+    }
+
+    @Override
+    public BatchUpdateResult updateEntityByIdsInJdbcBatch(Collection<E> entities) {
+        List<IUpdate> updates = this.buildUpdateEntityByIds(entities);
+        return new BatchUpdateExecutor(this.mapper()).update(updates);
+    }
+
+    private List<IUpdate> buildUpdateEntityByIds(Collection<E> entities) {
+        List<IUpdate> updates = new ArrayList<>(entities.size());
         for (IEntity entity : entities) {
             IUpdate update = DaoHelper.buildUpdateEntityById(this::updater, entity);
             updates.add(update);
         }
-        int count = this.mapper().updateBy(updates.toArray(new IUpdate[0]));
-        return count > 0;
+        return updates;
     }
 
     @Override
@@ -8,6 +8,7 @@ import cn.org.atool.fluent.mybatis.base.crud.IUpdate;
 import cn.org.atool.fluent.mybatis.base.mapper.IRichMapper;
 import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
 import cn.org.atool.fluent.mybatis.functions.MapFunction;
+import cn.org.atool.fluent.mybatis.model.ResultTable;
 import cn.org.atool.fluent.mybatis.model.StdPagedList;
 import cn.org.atool.fluent.mybatis.model.TagPagedList;
 
@@ -117,6 +118,48 @@ public interface IProtectedDao<E extends IEntity> {
         return this.mapper().listMaps(query);
     }
 
+    /**
+     * 根据query查询记录, 以列式结构返回
+     *
+     * @param query 查询条件
+     * @return 列式查询结果
+     */
+    default ResultTable listTable(IQuery<E> query) {
+        return this.mapper().listTable(query);
+    }
+
+    /**
+     * 根据query流式查询实例, 返回的Stream使用完毕必须关闭
+     *
+     * @param query 查询条件
+     * @return 实例流
+     */
+    default Stream<E> streamEntity(IQuery<E> query) {
+        return this.mapper().streamEntity(query);
+    }
+
+    /**
+     * 根据query流式查询记录, 返回的Stream使用完毕必须关闭
+     *
+     * @param query 查询条件
+     * @return map流
+     */
+    default Stream<Map<String, Object>> streamMaps(IQuery<E> query) {
+        return this.mapper().streamMaps(query);
+    }
+
+    /**
+     * 根据query流式查询记录, 并将记录转换PoJo对象, 返回的Stream使用完毕必须关闭
+     *
+     * @param clazz  PoJo对象类型
+     * @param query  查询条件
+     * @param <POJO> PoJo对象类型
+     * @return PoJo流
+     */
+    default <POJO> Stream<POJO> streamPoJo(Class<POJO> clazz, IQuery<E> query) {
+        return this.mapper().streamPoJo(clazz, query);
+    }
+
     /**
      * 根据query查询记录列表，并根据function将记录转换成需要的对象
      *
@@ -231,6 +274,41 @@ public interface IProtectedDao<E extends IEntity> {
         return this.mapper().tagPagedPoJo(clazz, query);
     }
 
+    /**
+     * 游标(keyset)分页查询
+     *
+     * @param query 查询条件, 须设置 limit(size)
+     * @param token 续查标识, 为空时查询第一页
+     * @return 分页查询结果
+     */
+    default TagPagedList<E> keysetPagedEntity(IQuery<E> query, String token) {
+        return this.mapper().keysetPagedEntity(query, token);
+    }
+
+    /**
+     * 游标(keyset)分页查询（结果集为Map对象）
+     *
+     * @param query 查询条件, 须设置 limit(size)
+     * @param token 续查标识, 为空时查询第一页
+     * @return 分页查询结果
+     */
+    default TagPagedList<Map<String, Object>> keysetPagedMap(IQuery<E> query, String token) {
+        return this.mapper().keysetPagedMap(query, token);
+    }
+
+    /**
+     * 游标(keyset)分页查询（结果集为PoJo对象）
+     *
+     * @param clazz  PoJo类型
+     * @param query  查询条件, 须设置 limit(size)
+     * @param token  续查标识, 为空时查询第一页
+     * @param <POJO> PoJo类型
+     * @return 分页查询结果
+     */
+    default <POJO> TagPagedList<POJO> keysetPagedPoJo(Class<POJO> clazz, IQuery<E> query, String token) {
+        return this.mapper().keysetPagedPoJo(clazz, query, token);
+    }
+
     /**
      * 根据query查询满足条件的第一条记录
      * 当有多条记录符合条件时，只取第一条记录
@@ -19,6 +19,17 @@ public interface IMapping {
      */
     String findColumnByField(String field);
 
+    /**
+     * 根据Entity属性返回字段映射
+     *
+     * @param field 属性名称
+     * @return 字段映射, 属性不存在时返回null
+     */
+    default FieldMapping findMappingByField(String field) {
+        String column = this.findColumnByField(field);
+        return column == null ? null : new FieldMapping(field, column);
+    }
+
     /**
      * 返回主键字段名称
      * 如果没有主键字段, 则返回null
@@ -0,0 +1,116 @@
+package cn.org.atool.fluent.mybatis.base.entity;
+
+import cn.org.atool.fluent.mybatis.base.IEntity;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Date;
+
+/**
+ * ResultSet记录直接转换为Entity, 由编译时生成的EntityHelper实现
+ * <p>
+ * 只有所有字段都是基本类型, 且未指定typeHandler的Entity才会生成
+ * 取值方式和mybatis默认TypeHandler一致
+ *
+ * @param <E> Entity类型
+ * @author darui.wu
+ */
+public interface IRowMapper<E extends IEntity> {
+    /**
+     * Entity字段对应的数据库字段列表, 顺序和{@link #map(ResultSet, int[])}中的下标对应
+     *
+     * @return 数据库字段
+     */
+    String[] rowColumns();
+
+    /**
+     * 将ResultSet当前记录转换为Entity
+     *
+     * @param rs    ResultSet
+     * @param index rowColumns()中第i个字段在ResultSet中的位置(从1开始), 0表示不在结果集中
+     * @return 所有字段都为null时返回null, 和mybatis默认行为一致
+     * @throws SQLException 读取异常
+     */
+    E map(ResultSet rs, int[] index) throws SQLException;
+
+    static Long getLong(ResultSet rs, int index) throws SQLException {
+        long value = rs.getLong(index);
+        return value == 0 && rs.wasNull() ? null : value;
+    }
+
+    static Integer getInteger(ResultSet rs, int index) throws SQLException {
+        int value = rs.getInt(index);
+        return value == 0 && rs.wasNull() ? null : value;
+    }
+
+    static Short getShort(ResultSet rs, int index) throws SQLException {
+        short value = rs.getShort(index);
+        return value == 0 && rs.wasNull() ? null : value;
+    }
+
+    static Byte getByte(ResultSet rs, int index) throws SQLException {
+        byte value = rs.getByte(index);
+        return value == 0 && rs.wasNull() ? null : value;
+    }
+
+    static Double getDouble(ResultSet rs, int index) throws SQLException {
+        double value = rs.getDouble(index);
+        return value == 0 && rs.wasNull() ? null : value;
+    }
+
+    static Float getFloat(ResultSet rs, int index) throws SQLException {
+        float value = rs.getFloat(index);
+        return value == 0 && rs.wasNull() ? null : value;
+    }
+
+    static Boolean getBoolean(ResultSet rs, int index) throws SQLException {
+        boolean value = rs.getBoolean(index);
+        return !value && rs.wasNull() ? null : value;
+    }
+
+    static String getString(ResultSet rs, int index) throws SQLException {
+        return rs.getString(index);
+    }
+
+    static BigDecimal getBigDecimal(ResultSet rs, int index) throws SQLException {
+        return rs.getBigDecimal(index);
+    }
+
+    static byte[] getBytes(ResultSet rs, int index) throws SQLException {
+        return rs.getBytes(index);
+    }
+
+    static Date getDate(ResultSet rs, int index) throws SQLException {
+        Timestamp value = rs.getTimestamp(index);
+        return value == null ? null : new Date(value.getTime());
+    }
+
+    static Timestamp getTimestamp(ResultSet rs, int index) throws SQLException {
+        return rs.getTimestamp(index);
+    }
+
+    static java.sql.Date getSqlDate(ResultSet rs, int index) throws SQLException {
+        return rs.getDate(index);
+    }
+
+    static java.sql.Time getSqlTime(ResultSet rs, int index) throws SQLException {
+        return rs.getTime(index);
+    }
+
+    static LocalDateTime getLocalDateTime(ResultSet rs, int index) throws SQLException {
+        return rs.getObject(index, LocalDateTime.class);
+    }
+
+    static LocalDate getLocalDate(ResultSet rs, int index) throws SQLException {
+        return rs.getObject(index, LocalDate.class);
+    }
+
+    static LocalTime getLocalTime(ResultSet rs, int index) throws SQLException {
+        return rs.getObject(index, LocalTime.class);
+    }
+}
@@ -0,0 +1,92 @@
+package cn.org.atool.fluent.mybatis.base.mapper;
+
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.base.IRefs;
+import cn.org.atool.fluent.mybatis.model.BatchInsertResult;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.util.Collection;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_Insert;
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_Insert_With_Pk;
+
+/**
+ * JDBC batch方式批量插入执行器
+ * <pre>
+ * 使用单条记录的insert语句, 在{@link ExecutorType#BATCH}下通过 PreparedStatement.addBatch 执行,
+ * 每 flushSize 条记录提交一次, 避免构造 INSERT ... VALUES (...), (...) 超长语句
+ *
+ * 说明:
+ * 1. 自增主键由mybatis在每次提交后回写到实例
+ * 2. 不同记录null字段不同时, insert语句不同, 会分成多个PreparedStatement执行
+ * 3. 在spring事务中执行时, 使用的是事务绑定的数据库连接
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes"})
+public class BatchInsertExecutor {
+    /**
+     * {@link IRichMapper#save(Collection)}是否使用JDBC batch方式插入
+     */
+    @Getter
+    @Setter
+    private static boolean jdbcBatch = false;
+    /**
+     * 每批提交的记录数
+     */
+    @Getter
+    @Setter
+    private static int flushSize = 1000;
+
+    private final Class mapperInterface;
+
+    public BatchInsertExecutor(IEntityMapper mapper) {
+        this.mapperInterface = mapperInterface(mapper);
+    }
+
+    /**
+     * 批量插入, 列表实例的主键必须全赋值，或者全不赋值
+     *
+     * @param list 实体对象列表
+     * @param <E>  实体类型
+     * @return 插入结果
+     */
+    public <E extends IEntity> BatchInsertResult insert(Collection<E> list) {
+        boolean withPk = list.stream().anyMatch(e -> e.findPk() != null);
+        String statement = mapperInterface.getName() + "." + (withPk ? M_Insert_With_Pk : M_Insert);
+        SqlSessionFactory factory = IRefs.sqlSessionFactory(mapperInterface);
+        BatchInsertResult result = new BatchInsertResult();
+        try (SqlSession session = factory.openSession(ExecutorType.BATCH)) {
+            int count = 0;
+            for (E entity : list) {
+                session.insert(statement, entity);
+                if (++count % flushSize == 0) {
+                    result.add(session.flushStatements());
+                }
+            }
+            result.add(session.flushStatements());
+            session.commit();
+        }
+        return result;
+    }
+
+    /**
+     * 返回mapper实例对应的Mapper接口
+     *
+     * @param mapper mapper实例
+     * @return Mapper接口
+     */
+    static Class mapperInterface(IEntityMapper mapper) {
+        for (Class klass : mapper.getClass().getInterfaces()) {
+            if (IEntityMapper.class.isAssignableFrom(klass)) {
+                return klass;
+            }
+        }
+        throw new RuntimeException("the mapper interface of " + mapper.getClass().getName() + " not found.");
+    }
+}
@@ -0,0 +1,77 @@
+package cn.org.atool.fluent.mybatis.base.mapper;
+
+import cn.org.atool.fluent.mybatis.base.IRefs;
+import cn.org.atool.fluent.mybatis.base.crud.IUpdate;
+import cn.org.atool.fluent.mybatis.model.BatchUpdateResult;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.util.List;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_updateBy;
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Param_EW;
+
+/**
+ * JDBC batch方式批量更新执行器
+ * <pre>
+ * 每个更新器单独构造一条update语句, 在{@link ExecutorType#BATCH}下通过 PreparedStatement.addBatch 执行,
+ * SET字段相同的连续记录共用一个PreparedStatement, 每 flushSize 条记录提交一次
+ *
+ * 相比 updateBy(IUpdate...) 用分号拼接多条语句:
+ * 1. 不需要 allowMultiQueries=true
+ * 2. 返回每条记录的影响行数, 版本锁字段作为各自语句的条件, 版本不匹配的记录影响行数为0
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes"})
+public class BatchUpdateExecutor {
+    /**
+     * IBaseDao#updateEntityByIds是否使用JDBC batch方式更新
+     */
+    @Getter
+    @Setter
+    private static boolean jdbcBatch = false;
+    /**
+     * 每批提交的记录数
+     */
+    @Getter
+    @Setter
+    private static int flushSize = 1000;
+
+    private final Class mapperInterface;
+
+    public BatchUpdateExecutor(IEntityMapper mapper) {
+        this.mapperInterface = BatchInsertExecutor.mapperInterface(mapper);
+    }
+
+    /**
+     * 批量执行更新
+     *
+     * @param updates 更新器列表
+     * @return 更新结果, 按更新器顺序返回影响行数
+     */
+    public BatchUpdateResult update(List<IUpdate> updates) {
+        String statement = mapperInterface.getName() + "." + M_updateBy;
+        SqlSessionFactory factory = IRefs.sqlSessionFactory(mapperInterface);
+        BatchUpdateResult result = new BatchUpdateResult(updates.size());
+        try (SqlSession session = factory.openSession(ExecutorType.BATCH)) {
+            int count = 0;
+            for (IUpdate update : updates) {
+                MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+                param.put(Param_EW, new IUpdate[]{update});
+                session.update(statement, param);
+                if (++count % flushSize == 0) {
+                    result.add(session.flushStatements());
+                }
+            }
+            result.add(session.flushStatements());
+            session.commit();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,149 @@
+package cn.org.atool.fluent.mybatis.base.mapper;
+
+import cn.org.atool.fluent.mybatis.base.IRefs;
+import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.metadata.DbType;
+import cn.org.atool.fluent.mybatis.segment.BaseWrapper;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.TransactionFactory;
+import org.apache.ibatis.transaction.managed.ManagedTransactionFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Param_EW;
+
+/**
+ * 流式查询执行器
+ * <pre>
+ * 使用 listEntity/listMaps 语句, 以只进(FORWARD_ONLY)结果集和指定的fetchSize逐行读取记录,
+ * 返回的{@link Stream}持有独立的Executor(和数据库连接), 使用完毕必须关闭:
+ *
+ * try (Stream&lt;XyzEntity&gt; stream = mapper.streamEntity(query)) {
+ *     stream.forEach(...);
+ * }
+ *
+ * 说明:
+ * 1. MySQL驱动只有在 fetchSize = Integer.MIN_VALUE 时逐行读取, 其它值会读取全部结果
+ * 2. MySQL流式读取期间, 同一连接不能执行其它语句
+ * 3. 在spring事务中执行时, 使用的是事务绑定的数据库连接
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class CursorExecutor {
+    /**
+     * 默认fetchSize, MySQL数据库为 Integer.MIN_VALUE
+     */
+    @Getter
+    @Setter
+    private static int fetchSize = 1000;
+
+    private final Class mapperInterface;
+
+    public CursorExecutor(IEntityMapper mapper) {
+        this.mapperInterface = BatchInsertExecutor.mapperInterface(mapper);
+    }
+
+    /**
+     * 数据库对应的默认fetchSize
+     *
+     * @param dbType 数据库类型
+     * @return fetchSize
+     */
+    public static int fetchSize(DbType dbType) {
+        return dbType == DbType.MYSQL ? Integer.MIN_VALUE : fetchSize;
+    }
+
+    /**
+     * 流式执行查询
+     *
+     * @param method    查询方法, listEntity 或 listMaps
+     * @param query     查询条件
+     * @param fetchSize fetchSize
+     * @param <T>       记录类型
+     * @return 记录流, 使用完毕必须关闭
+     */
+    public <T> Stream<T> stream(String method, IQuery query, int fetchSize) {
+        Configuration configuration = IRefs.sqlSessionFactory(mapperInterface).getConfiguration();
+        MappedStatement ms = this.cursorStatement(configuration, method, fetchSize);
+        MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+        param.put(Param_EW, query);
+        Environment environment = configuration.getEnvironment();
+        TransactionFactory factory = environment.getTransactionFactory() == null ?
+            new ManagedTransactionFactory() : environment.getTransactionFactory();
+        Executor executor = configuration.newExecutor(factory.newTransaction(environment.getDataSource(), null, false), ExecutorType.SIMPLE);
+        try {
+            Cursor<T> cursor = executor.queryCursor(ms, param, RowBounds.DEFAULT);
+            return StreamSupport.stream(cursor.spliterator(), false).onClose(() -> close(cursor, executor));
+        } catch (Exception e) {
+            executor.close(false);
+            throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+        } finally {
+            ErrorContext.instance().reset();
+        }
+    }
+
+    private static void close(Cursor cursor, Executor executor) {
+        try {
+            cursor.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            executor.close(false);
+        }
+    }
+
+    /**
+     * 流式执行查询, 使用数据库默认的fetchSize
+     *
+     * @param method 查询方法, listEntity 或 listMaps
+     * @param query  查询条件
+     * @param <T>    记录类型
+     * @return 记录流, 使用完毕必须关闭
+     */
+    public <T> Stream<T> stream(String method, IQuery query) {
+        return this.stream(method, query, fetchSize(((BaseWrapper) query).dbType()));
+    }
+
+    /**
+     * 以查询语句为模板构造流式查询语句
+     * 流式查询语句不注册到mybatis配置中, 直接交给Executor执行, 避免每种fetchSize注册一个语句
+     *
+     * @param configuration mybatis配置
+     * @param method        查询方法
+     * @param fetchSize     fetchSize
+     * @return 流式查询语句
+     */
+    private MappedStatement cursorStatement(Configuration configuration, String method, int fetchSize) {
+        MappedStatement ms = configuration.getMappedStatement(mapperInterface.getName() + "." + method);
+        return new MappedStatement.Builder(configuration, ms.getId() + "$cursor", ms.getSqlSource(), ms.getSqlCommandType())
+            .resource(ms.getResource())
+            .fetchSize(fetchSize)
+            .resultSetType(ResultSetType.FORWARD_ONLY)
+            .statementType(ms.getStatementType())
+            .timeout(ms.getTimeout())
+            .parameterMap(ms.getParameterMap())
+            .resultMaps(ms.getResultMaps())
+            .databaseId(ms.getDatabaseId())
+            .lang(ms.getLang())
+            .flushCacheRequired(false)
+            .useCache(false)
+            .build();
+    }
+}
@@ -7,16 +7,25 @@ import cn.org.atool.fluent.mybatis.base.crud.IDefaultSetter;
 import cn.org.atool.fluent.mybatis.base.crud.IQuery;
 import cn.org.atool.fluent.mybatis.base.model.Column;
 import cn.org.atool.fluent.mybatis.functions.MapFunction;
+import cn.org.atool.fluent.mybatis.metadata.DbType;
+import cn.org.atool.fluent.mybatis.model.BatchInsertResult;
+import cn.org.atool.fluent.mybatis.model.ResultTable;
 import cn.org.atool.fluent.mybatis.model.StdPagedList;
 import cn.org.atool.fluent.mybatis.model.TagPagedList;
 import cn.org.atool.fluent.mybatis.segment.BaseWrapper;
+import cn.org.atool.fluent.mybatis.utility.InListHelper;
+import cn.org.atool.fluent.mybatis.utility.KeysetPagedHelper;
+import cn.org.atool.fluent.mybatis.utility.MapperKits;
 import cn.org.atool.fluent.mybatis.utility.PoJoHelper;
 import lombok.NonNull;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static cn.org.atool.fluent.mybatis.base.model.SqlOp.EQ;
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_listEntity;
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_listMaps;
 import static java.util.stream.Collectors.toList;
 
 /**
@@ -86,6 +95,9 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
      * @return 插入记录数
      */
     default int save(Collection<E> list) {
+        if (BatchInsertExecutor.isJdbcBatch()) {
+            return this.saveInJdbcBatch(list).getTotal();
+        }
         boolean hasPk = false;
         for (E entity : list) {
             if (entity.findPk() != null) {
@@ -100,6 +112,17 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
         }
     }
 
+    /**
+     * 以JDBC batch方式批量插入, 列表实例的主键必须全赋值，或者全不赋值
+     * 每{@link BatchInsertExecutor#getFlushSize()}条记录提交一次
+     *
+     * @param list 实体对象列表
+     * @return 插入结果, 包含每批提交的影响行数
+     */
+    default BatchInsertResult saveInJdbcBatch(Collection<E> list) {
+        return new BatchInsertExecutor(this).insert(list);
+    }
+
     /**
      * 根据query查询满足条件的第一条记录，并根据mapFunction从map转换为Object实例
      *
@@ -171,6 +194,114 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
         return PoJoHelper.toPoJoList(clazz, list);
     }
 
+    /**
+     * 根据query流式查询实例, 按数据库默认fetchSize{@link CursorExecutor#fetchSize(DbType)}逐批读取
+     * 返回的Stream使用完毕必须关闭
+     *
+     * @param query 查询条件
+     * @return 实例流
+     */
+    default Stream<E> streamEntity(IQuery query) {
+        return new CursorExecutor(this).stream(M_listEntity, query);
+    }
+
+    /**
+     * 根据query流式查询实例, 返回的Stream使用完毕必须关闭
+     *
+     * @param query     查询条件
+     * @param fetchSize 每次从数据库读取的记录数
+     * @return 实例流
+     */
+    default Stream<E> streamEntity(IQuery query, int fetchSize) {
+        return new CursorExecutor(this).stream(M_listEntity, query, fetchSize);
+    }
+
+    /**
+     * 根据query流式查询记录, 返回的Stream使用完毕必须关闭
+     *
+     * @param query 查询条件
+     * @return map流
+     */
+    default Stream<Map<String, Object>> streamMaps(IQuery query) {
+        return new CursorExecutor(this).stream(M_listMaps, query);
+    }
+
+    /**
+     * 根据query流式查询记录, 返回的Stream使用完毕必须关闭
+     *
+     * @param query     查询条件
+     * @param fetchSize 每次从数据库读取的记录数
+     * @return map流
+     */
+    default Stream<Map<String, Object>> streamMaps(IQuery query, int fetchSize) {
+        return new CursorExecutor(this).stream(M_listMaps, query, fetchSize);
+    }
+
+    /**
+     * 根据query流式查询记录, 并将记录转换PoJo对象, 返回的Stream使用完毕必须关闭
+     * 转换规则是下划线转驼峰
+     *
+     * @param clazz  PoJo对象类型
+     * @param query  查询条件
+     * @param <POJO> PoJo对象类型
+     * @return PoJo流
+     */
+    default <POJO> Stream<POJO> streamPoJo(Class<POJO> clazz, IQuery query) {
+        return this.streamMaps(query).map(map -> PoJoHelper.toPoJo(clazz, map));
+    }
+
+    /**
+     * 根据query流式查询记录, 并根据function将记录转换成需要的对象, 返回的Stream使用完毕必须关闭
+     *
+     * @param query       查询条件
+     * @param mapFunction 从Map记录对实体POJO的转换函数
+     * @param <POJO>      POJO实体类型
+     * @return PoJo流
+     */
+    default <POJO> Stream<POJO> streamPoJo(IQuery query, MapFunction<POJO> mapFunction) {
+        return this.streamMaps(query).map(map -> PoJoHelper.toPoJo(map, mapFunction));
+    }
+
+    /**
+     * 根据query查询记录, 以列式结构返回, 遍历记录时不创建单条记录的Map
+     *
+     * @param query 查询条件
+     * @return 列式查询结果
+     */
+    default ResultTable listTable(IQuery query) {
+        return new ResultSetExecutor(this).table(query);
+    }
+
+    /**
+     * 根据query查询第一个字段的long值, 逐条处理结果不保存记录列表, 忽略null值
+     *
+     * @param query 查询条件
+     * @return long数组
+     */
+    default long[] listLongs(IQuery query) {
+        return new ResultSetExecutor(this).longs(query);
+    }
+
+    /**
+     * 根据query查询第一个字段的int值, 逐条处理结果不保存记录列表, 忽略null值
+     *
+     * @param query 查询条件
+     * @return int数组
+     */
+    default int[] listInts(IQuery query) {
+        return new ResultSetExecutor(this).ints(query);
+    }
+
+    /**
+     * 根据query查询第一个字段的字符串值, 逐条处理结果不保存记录列表
+     *
+     * @param query 查询条件
+     * @return 字符串列表
+     */
+    default List<String> listStrings(IQuery query) {
+        return new ResultSetExecutor(this).strings(query);
+    }
+
     /**
      * 根据where key值 + 和默认条件构造条件查询
      *
@@ -189,9 +320,7 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
      * @return 标准分页查询结果
      */
     default StdPagedList<E> stdPagedEntity(IQuery query) {
-        int total = this.countNoLimit(query);
-        List list = this.listEntity(query);
-        return new StdPagedList<>(total, list);
+        return StdPagedExecutor.paged(this, query, this::listEntity);
     }
 
     /**
@@ -201,9 +330,7 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
      * @return 按标准分页查询结果
      */
     default StdPagedList<Map<String, Object>> stdPagedMap(IQuery query) {
-        int total = this.countNoLimit(query);
-        List<Map<String, Object>> list = this.listMaps(query);
-        return new StdPagedList<>(total, list);
+        return StdPagedExecutor.paged(this, query, this::listMaps);
     }
 
     /**
@@ -302,6 +429,44 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
         return new TagPagedList<>(list, next);
     }
 
+    /**
+     * 游标(keyset)分页查询, 按ORDER BY字段(+主键)定位下一页, 不扫描偏移记录
+     *
+     * @param query 查询条件, 须设置 limit(size)
+     * @param token 续查标识{@link TagPagedList#getNextToken()}, 为空时查询第一页
+     * @return 分页查询结果
+     */
+    default TagPagedList<E> keysetPagedEntity(IQuery query, String token) {
+        return KeysetPagedHelper.paged(query, token, this::listEntity, KeysetPagedHelper::toColumnMap);
+    }
+
+    /**
+     * 游标(keyset)分页查询（结果集为Map对象）
+     *
+     * @param query 查询条件, 须设置 limit(size)
+     * @param token 续查标识{@link TagPagedList#getNextToken()}, 为空时查询第一页
+     * @return 分页查询结果
+     */
+    default TagPagedList<Map<String, Object>> keysetPagedMap(IQuery query, String token) {
+        return KeysetPagedHelper.paged(query, token, this::listMaps, map -> map);
+    }
+
+    /**
+     * 游标(keyset)分页查询（结果集为PoJo对象, 查询结果按照下划线转驼峰规则）
+     *
+     * @param clazz  PoJo类型
+     * @param query  查询条件, 须设置 limit(size)
+     * @param token  续查标识{@link TagPagedList#getNextToken()}, 为空时查询第一页
+     * @param <POJO> PoJo类型
+     * @return 分页查询结果
+     */
+    default <POJO> TagPagedList<POJO> keysetPagedPoJo(Class<POJO> clazz, IQuery query, String token) {
+        TagPagedList<Map<String, Object>> paged = this.keysetPagedMap(query, token);
+        List<POJO> list = PoJoHelper.toPoJoList(clazz, paged.getData());
+        POJO next = paged.getNext() == null ? null : PoJoHelper.toPoJo(clazz, paged.getNext());
+        return new TagPagedList<>(list, next, paged.getNextToken());
+    }
+
     /**
      * 根据where key值 + 和默认条件删除数据
      *
@@ -324,6 +489,62 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
         return this.logicDelete(query);
     }
 
+    /**
+     * 根据id列表查询, 超过数据库IN列表上限{@link DbType#getMaxInSize()}时分批查询, 合并结果
+     *
+     * @param ids 主键列表
+     * @return 结果列表
+     */
+    default List<E> listByIdsChunked(Collection<? extends Serializable> ids) {
+        List<? extends List<? extends Serializable>> chunks = InListHelper.chunk(ids, this.maxInSize());
+        if (chunks.size() == 1) {
+            return this.listByIds(ids);
+        }
+        List<E> list = new ArrayList<>(ids.size());
+        for (List<? extends Serializable> chunk : chunks) {
+            list.addAll(this.listByIds(chunk));
+        }
+        return list;
+    }
+
+    /**
+     * 根据id列表物理删除, 超过数据库IN列表上限{@link DbType#getMaxInSize()}时分批删除
+     *
+     * @param ids 主键列表
+     * @return 被执行的记录数
+     */
+    default int deleteByIdsChunked(Collection<? extends Serializable> ids) {
+        int count = 0;
+        for (List<? extends Serializable> chunk : InListHelper.chunk(ids, this.maxInSize())) {
+            count += this.deleteByIds(chunk);
+        }
+        return count;
+    }
+
+    /**
+     * 根据id列表逻辑删除, 超过数据库IN列表上限{@link DbType#getMaxInSize()}时分批删除
+     *
+     * @param ids 主键列表
+     * @return 被执行的记录数
+     */
+    default int logicDeleteByIdsChunked(Collection<? extends Serializable> ids) {
+        int count = 0;
+        for (List<? extends Serializable> chunk : InListHelper.chunk(ids, this.maxInSize())) {
+            count += this.logicDeleteByIds(chunk);
+        }
+        return count;
+    }
+
+    /**
+     * 数据库单个IN列表的最大长度
+     *
+     * @return 小于等于0表示不限制
+     */
+    default int maxInSize() {
+        DbType dbType = MapperKits.dbType(((IWrapperMapper<E>) this).entityClass());
+        return dbType == null ? 0 : dbType.getMaxInSize();
+    }
+
     /**
      * 根据entities中的id值，批量删除记录
      *
@@ -334,7 +555,7 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
         List<Serializable> ids = entities.stream()
             .map(IEntity::findPk)
             .collect(toList());
-        return this.deleteByIds(ids);
+        return this.deleteByIdsChunked(ids);
     }
 
     /**
@@ -347,7 +568,7 @@ public interface IRichMapper<E extends IEntity> extends IEntityMapper<E> {
         List<Serializable> ids = entities.stream()
             .map(IEntity::findPk)
             .collect(toList());
-        return this.logicDeleteByIds(ids);
+        return this.logicDeleteByIdsChunked(ids);
     }
 
     /**
@@ -3,6 +3,7 @@ package cn.org.atool.fluent.mybatis.base.mapper;
 import cn.org.atool.fluent.mybatis.base.IEntity;
 import cn.org.atool.fluent.mybatis.base.crud.IQuery;
 import cn.org.atool.fluent.mybatis.functions.MapFunction;
+import cn.org.atool.fluent.mybatis.model.ResultTable;
 import cn.org.atool.fluent.mybatis.model.StdPagedList;
 import cn.org.atool.fluent.mybatis.model.TagPagedList;
 
@@ -10,6 +11,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * 查询条件执行器
@@ -62,6 +64,46 @@ public class QueryExecutor<E extends IEntity> {
         return this.mapper.listMaps(this.query);
     }
 
+    public ResultTable listTable() {
+        return this.mapper.listTable(this.query);
+    }
+
+    public long[] listLongs() {
+        return this.mapper.listLongs(this.query);
+    }
+
+    public int[] listInts() {
+        return this.mapper.listInts(this.query);
+    }
+
+    public List<String> listStrings() {
+        return this.mapper.listStrings(this.query);
+    }
+
+    public Stream<E> streamEntity() {
+        return this.mapper.streamEntity(this.query);
+    }
+
+    public Stream<E> streamEntity(int fetchSize) {
+        return this.mapper.streamEntity(this.query, fetchSize);
+    }
+
+    public Stream<Map<String, Object>> streamMaps() {
+        return this.mapper.streamMaps(this.query);
+    }
+
+    public Stream<Map<String, Object>> streamMaps(int fetchSize) {
+        return this.mapper.streamMaps(this.query, fetchSize);
+    }
+
+    public <POJO> Stream<POJO> streamPoJo(MapFunction<POJO> mapFunction) {
+        return this.mapper.streamPoJo(this.query, mapFunction);
+    }
+
+    public <POJO> Stream<POJO> streamPoJo(Class<POJO> clazz) {
+        return this.mapper.streamPoJo(clazz, this.query);
+    }
+
     public Integer count() {
         return this.mapper.count(this.query);
     }
@@ -113,4 +155,16 @@ public class QueryExecutor<E extends IEntity> {
     public <POJO> TagPagedList<POJO> tagPagedPoJo(Class<POJO> clazz) {
         return this.mapper.tagPagedPoJo(clazz, this.query);
     }
-}
\ No newline at end of file
+
+    public TagPagedList<E> keysetPagedEntity(String token) {
+        return this.mapper.keysetPagedEntity(this.query, token);
+    }
+
+    public TagPagedList<Map<String, Object>> keysetPagedMap(String token) {
+        return this.mapper.keysetPagedMap(this.query, token);
+    }
+
+    public <POJO> TagPagedList<POJO> keysetPagedPoJo(Class<POJO> clazz, String token) {
+        return this.mapper.keysetPagedPoJo(clazz, this.query, token);
+    }
+}
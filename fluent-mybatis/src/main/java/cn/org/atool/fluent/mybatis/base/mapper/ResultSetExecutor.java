@@ -0,0 +1,162 @@
+package cn.org.atool.fluent.mybatis.base.mapper;
+
+import cn.org.atool.fluent.mybatis.base.IRefs;
+import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.model.ResultTable;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.TransactionFactory;
+import org.apache.ibatis.transaction.managed.ManagedTransactionFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_listMaps;
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Param_EW;
+
+/**
+ * 逐条处理查询结果的执行器
+ * <pre>
+ * 以 listMaps 语句为模板, 通过mybatis Executor(经过所有插件)执行查询, ResultHandler逐条处理记录, 不保存记录列表:
+ * 1. {@link #table(IQuery)}: 列式结果{@link ResultTable}, 字段值的TypeHandler选择规则同listMaps
+ * 2. {@link #longs(IQuery)}, {@link #ints(IQuery)}, {@link #strings(IQuery)}: 读取第一个字段,
+ *    原生类型数组忽略null值
+ *
+ * 在spring事务中执行时, 使用的是事务绑定的数据库连接
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class ResultSetExecutor {
+    private final Class mapperInterface;
+
+    public ResultSetExecutor(IEntityMapper mapper) {
+        this.mapperInterface = BatchInsertExecutor.mapperInterface(mapper);
+    }
+
+    /**
+     * 执行查询, 返回列式结果
+     *
+     * @param query 查询条件
+     * @return ResultTable
+     */
+    public ResultTable table(IQuery query) {
+        ResultTable.Collector collector = new ResultTable.Collector();
+        this.execute(query, LinkedHashMap.class, collector);
+        return collector.table();
+    }
+
+    /**
+     * 执行查询, 返回第一个字段的long值
+     *
+     * @param query 查询条件
+     * @return long数组
+     */
+    public long[] longs(IQuery query) {
+        long[][] values = {new long[16]};
+        int[] size = {0};
+        this.execute(query, Long.class, context -> {
+            Long value = (Long) context.getResultObject();
+            if (value == null) {
+                return;
+            }
+            if (size[0] == values[0].length) {
+                values[0] = Arrays.copyOf(values[0], size[0] * 2);
+            }
+            values[0][size[0]++] = value;
+        });
+        return Arrays.copyOf(values[0], size[0]);
+    }
+
+    /**
+     * 执行查询, 返回第一个字段的int值
+     *
+     * @param query 查询条件
+     * @return int数组
+     */
+    public int[] ints(IQuery query) {
+        int[][] values = {new int[16]};
+        int[] size = {0};
+        this.execute(query, Integer.class, context -> {
+            Integer value = (Integer) context.getResultObject();
+            if (value == null) {
+                return;
+            }
+            if (size[0] == values[0].length) {
+                values[0] = Arrays.copyOf(values[0], size[0] * 2);
+            }
+            values[0][size[0]++] = value;
+        });
+        return Arrays.copyOf(values[0], size[0]);
+    }
+
+    /**
+     * 执行查询, 返回第一个字段的字符串值
+     *
+     * @param query 查询条件
+     * @return 字符串列表, 包含null值
+     */
+    public List<String> strings(IQuery query) {
+        List<String> values = new ArrayList<>();
+        this.execute(query, String.class, context -> values.add((String) context.getResultObject()));
+        return values;
+    }
+
+    private void execute(IQuery query, Class resultType, ResultHandler handler) {
+        Configuration configuration = IRefs.sqlSessionFactory(mapperInterface).getConfiguration();
+        MappedStatement ms = this.statement(configuration, resultType);
+        MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+        param.put(Param_EW, query);
+        Environment environment = configuration.getEnvironment();
+        TransactionFactory factory = environment.getTransactionFactory() == null ?
+            new ManagedTransactionFactory() : environment.getTransactionFactory();
+        Executor executor = configuration.newExecutor(factory.newTransaction(environment.getDataSource(), null, true), ExecutorType.SIMPLE);
+        try {
+            executor.query(ms, param, RowBounds.DEFAULT, handler);
+        } catch (Exception e) {
+            throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+        } finally {
+            executor.close(false);
+            ErrorContext.instance().reset();
+        }
+    }
+
+    /**
+     * 以 listMaps 语句为模板, 构造结果类型为resultType的语句, 语句不注册到mybatis配置中
+     *
+     * @param configuration mybatis配置
+     * @param resultType    结果类型
+     * @return 查询语句
+     */
+    private MappedStatement statement(Configuration configuration, Class resultType) {
+        MappedStatement ms = configuration.getMappedStatement(mapperInterface.getName() + "." + M_listMaps);
+        String id = ms.getId() + "$" + resultType.getSimpleName();
+        ResultMap resultMap = new ResultMap.Builder(configuration, id + "-Inline", resultType, new ArrayList<>()).build();
+        return new MappedStatement.Builder(configuration, id, ms.getSqlSource(), ms.getSqlCommandType())
+            .resource(ms.getResource())
+            .fetchSize(ms.getFetchSize())
+            .resultSetType(ms.getResultSetType())
+            .statementType(ms.getStatementType())
+            .timeout(ms.getTimeout())
+            .parameterMap(ms.getParameterMap())
+            .resultMaps(Collections.singletonList(resultMap))
+            .databaseId(ms.getDatabaseId())
+            .lang(ms.getLang())
+            .flushCacheRequired(false)
+            .useCache(false)
+            .build();
+    }
+}
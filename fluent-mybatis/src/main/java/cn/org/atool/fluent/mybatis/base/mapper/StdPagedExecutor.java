@@ -0,0 +1,290 @@
+package cn.org.atool.fluent.mybatis.base.mapper;
+
+import cn.org.atool.fluent.mybatis.base.IRefs;
+import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.model.StdPagedList;
+import cn.org.atool.fluent.mybatis.utility.SharedExecutor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.exceptions.ExceptionFactory;
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.TransactionFactory;
+import org.apache.ibatis.transaction.managed.ManagedTransactionFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_countNoLimit;
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Param_EW;
+
+/**
+ * 标准分页(count + list)执行器
+ * <pre>
+ * 1. 并发模式{@link #setConcurrent(boolean)}: 不在事务中时, count语句在{@link #setExecutor(Executor)}线程池中执行,
+ *    和列表查询并发执行, 分别使用各自的数据库连接
+ * 2. 总数缓存{@link #setCountCacheTtl(long)}: 按 count语句 + 参数值 缓存总数, 有效期内翻页不再重复count, 超出条目数按LRU淘汰
+ *
+ * 并发执行时, count语句在当前线程构造, 参数值也在当前线程取出作为附加参数,
+ * 线程池中通过mybatis Executor(经过所有插件)执行直接返回构造好的语句的 countNoLimit$snapshot 语句,
+ * 不再访问查询条件的变量; 列表查询在当前线程构造和执行
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class StdPagedExecutor {
+    /**
+     * 是否并发执行count和列表查询
+     */
+    @Getter
+    @Setter
+    private static boolean concurrent = false;
+    /**
+     * 执行count语句的线程池, 未设置时使用内置的共享线程池{@link SharedExecutor}
+     */
+    @Setter
+    private static Executor executor;
+    /**
+     * 总数缓存有效期(毫秒), 小于等于0表示不缓存
+     */
+    @Getter
+    @Setter
+    private static long countCacheTtl = 0;
+    /**
+     * 总数缓存的最大条目数
+     */
+    @Getter
+    @Setter
+    private static int countCacheSize = 1024;
+    /**
+     * 当前线程是否在事务中, 默认判断spring事务同步是否激活
+     */
+    @Setter
+    private static BooleanSupplier transactionActive = StdPagedExecutor::springSynchronizationActive;
+
+    private static final Map<CountKey, CountValue> COUNT_CACHE = new LinkedHashMap<CountKey, CountValue>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CountKey, CountValue> eldest) {
+            return this.size() > countCacheSize;
+        }
+    };
+
+    /**
+     * 标准分页查询
+     *
+     * @param mapper     执行查询的mapper
+     * @param query      查询条件
+     * @param lister     列表查询
+     * @param <T>        记录类型
+     * @return 标准分页结果
+     */
+    public static <T> StdPagedList<T> paged(IRichMapper mapper, IQuery query, Function<IQuery, List<T>> lister) {
+        if (!concurrent && countCacheTtl <= 0) {
+            int total = mapper.countNoLimit(query);
+            return new StdPagedList<>(total, lister.apply(query));
+        }
+        Class mapperInterface = BatchInsertExecutor.mapperInterface(mapper);
+        Configuration configuration = IRefs.sqlSessionFactory(mapperInterface).getConfiguration();
+        MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+        param.put(Param_EW, query);
+        MappedStatement ms = configuration.getMappedStatement(mapperInterface.getName() + "." + M_countNoLimit);
+        BoundSql countSql = ms.getBoundSql(param);
+        MetaObject meta = configuration.newMetaObject(param);
+        CountKey key = countCacheTtl > 0 ? new CountKey(mapperInterface, countSql, meta) : null;
+        Integer cached = key == null ? null : cachedCount(key);
+        if (cached != null) {
+            return new StdPagedList<>(cached, lister.apply(query));
+        }
+        if (!concurrent || transactionActive.getAsBoolean()) {
+            int total = mapper.countNoLimit(query);
+            putCount(key, total);
+            return new StdPagedList<>(total, lister.apply(query));
+        }
+        snapshot(countSql, meta);
+        MappedStatement countMs = snapshotStatement(configuration, ms, countSql);
+        org.apache.ibatis.executor.Executor executor = newExecutor(configuration);
+        CompletableFuture<Integer> count = CompletableFuture.supplyAsync(() -> count(executor, countMs, param), executor());
+        List<T> list = lister.apply(query);
+        int total;
+        try {
+            total = count.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        putCount(key, total);
+        return new StdPagedList<>(total, list);
+    }
+
+    /**
+     * 在当前线程取出语句的参数值, 作为附加参数设置到语句中
+     *
+     * @param boundSql 语句
+     * @param param    参数
+     */
+    private static void snapshot(BoundSql boundSql, MetaObject param) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+            String property = mapping.getProperty();
+            if (!boundSql.hasAdditionalParameter(property)) {
+                values.put(property, param.getValue(property));
+            }
+        }
+        values.forEach(boundSql::setAdditionalParameter);
+    }
+
+    /**
+     * 以 countNoLimit 语句为模板, 构造总是返回已构造好的count语句的语句, 语句不注册到mybatis配置中
+     * Executor插件按语句重新取得BoundSql时, 得到的也是当前线程构造的语句
+     *
+     * @param configuration mybatis配置
+     * @param ms            countNoLimit语句
+     * @param countSql      构造好的count语句
+     * @return count语句
+     */
+    private static MappedStatement snapshotStatement(Configuration configuration, MappedStatement ms, BoundSql countSql) {
+        return new MappedStatement.Builder(configuration, ms.getId() + "$snapshot", parameter -> countSql, ms.getSqlCommandType())
+            .resource(ms.getResource())
+            .fetchSize(ms.getFetchSize())
+            .resultSetType(ms.getResultSetType())
+            .statementType(ms.getStatementType())
+            .timeout(ms.getTimeout())
+            .parameterMap(ms.getParameterMap())
+            .resultMaps(ms.getResultMaps())
+            .databaseId(ms.getDatabaseId())
+            .lang(ms.getLang())
+            .flushCacheRequired(false)
+            .useCache(false)
+            .build();
+    }
+
+    private static org.apache.ibatis.executor.Executor newExecutor(Configuration configuration) {
+        Environment environment = configuration.getEnvironment();
+        TransactionFactory factory = environment.getTransactionFactory() == null ?
+            new ManagedTransactionFactory() : environment.getTransactionFactory();
+        Transaction transaction = factory.newTransaction(environment.getDataSource(), null, true);
+        return configuration.newExecutor(transaction, ExecutorType.SIMPLE);
+    }
+
+    private static int count(org.apache.ibatis.executor.Executor executor, MappedStatement ms, Object param) {
+        try {
+            List<Object> list = executor.query(ms, param, RowBounds.DEFAULT, org.apache.ibatis.executor.Executor.NO_RESULT_HANDLER);
+            return list.isEmpty() || list.get(0) == null ? 0 : ((Number) list.get(0)).intValue();
+        } catch (Exception e) {
+            throw ExceptionFactory.wrapException("Error querying database.  Cause: " + e, e);
+        } finally {
+            executor.close(false);
+            ErrorContext.instance().reset();
+        }
+    }
+
+    /**
+     * 清空总数缓存
+     */
+    public static void clearCountCache() {
+        synchronized (COUNT_CACHE) {
+            COUNT_CACHE.clear();
+        }
+    }
+
+    private static Integer cachedCount(CountKey key) {
+        synchronized (COUNT_CACHE) {
+            CountValue value = COUNT_CACHE.get(key);
+            if (value == null) {
+                return null;
+            } else if (value.expireAt < System.currentTimeMillis()) {
+                COUNT_CACHE.remove(key);
+                return null;
+            } else {
+                return value.count;
+            }
+        }
+    }
+
+    private static void putCount(CountKey key, int count) {
+        if (key == null) {
+            return;
+        }
+        synchronized (COUNT_CACHE) {
+            COUNT_CACHE.put(key, new CountValue(count, System.currentTimeMillis() + countCacheTtl));
+        }
+    }
+
+    private static Executor executor() {
+        return executor == null ? SharedExecutor.instance() : executor;
+    }
+
+    private static final Method SYNCHRONIZATION_ACTIVE = synchronizationActiveMethod();
+
+    private static Method synchronizationActiveMethod() {
+        try {
+            return Class.forName("org.springframework.transaction.support.TransactionSynchronizationManager")
+                .getMethod("isSynchronizationActive");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static boolean springSynchronizationActive() {
+        if (SYNCHRONIZATION_ACTIVE == null) {
+            return false;
+        }
+        try {
+            return (Boolean) SYNCHRONIZATION_ACTIVE.invoke(null);
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    /**
+     * 总数缓存key: mapper + count语句 + 参数值
+     */
+    @EqualsAndHashCode
+    private static class CountKey {
+        private final Class mapper;
+
+        private final String sql;
+
+        private final List<Object> values;
+
+        CountKey(Class mapper, BoundSql boundSql, MetaObject param) {
+            this.mapper = mapper;
+            this.sql = boundSql.getSql();
+            this.values = new ArrayList<>(boundSql.getParameterMappings().size());
+            for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+                String property = mapping.getProperty();
+                this.values.add(boundSql.hasAdditionalParameter(property) ?
+                    boundSql.getAdditionalParameter(property) : param.getValue(property));
+            }
+        }
+    }
+
+    private static class CountValue {
+        final int count;
+
+        final long expireAt;
+
+        CountValue(int count, long expireAt) {
+            this.count = count;
+            this.expireAt = expireAt;
+        }
+    }
+}
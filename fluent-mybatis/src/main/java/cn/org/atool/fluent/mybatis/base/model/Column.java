@@ -129,7 +129,7 @@ public class Column {
         return buff.append("}").toString();
     }
 
-    static final String Wrapper_Para = ".wrapperData.parameters.";
+    public static final String Wrapper_Para = ".wrapperData.parameters.";
 
     public static Column column(String column, BaseWrapper wrapper) {
         return new Column(column, wrapper);
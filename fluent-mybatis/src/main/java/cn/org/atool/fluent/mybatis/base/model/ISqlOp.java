@@ -1,6 +1,7 @@
 package cn.org.atool.fluent.mybatis.base.model;
 
 import cn.org.atool.fluent.mybatis.segment.model.Parameters;
+import cn.org.atool.fluent.mybatis.utility.InListHelper;
 
 import static cn.org.atool.fluent.mybatis.If.isEmpty;
 import static cn.org.atool.fluent.mybatis.If.notBlank;
@@ -59,6 +60,9 @@ public interface ISqlOp {
         if (notBlank(expression)) {
             sql = String.format(this.getExpression(), expression);
         } else if (placeHolder.contains(STR_FORMAT)) {
+            if (this == SqlOp.IN || this == SqlOp.NOT_IN) {
+                paras = InListHelper.pad(paras);
+            }
             sql = SqlOp.placeHolder(placeHolder, paras);
         }
         return isEmpty(paras) ? sql : parameters.paramSql(column, sql, paras);
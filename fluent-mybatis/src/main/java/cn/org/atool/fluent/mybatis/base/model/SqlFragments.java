@@ -0,0 +1,141 @@
+package cn.org.atool.fluent.mybatis.base.model;
+
+import cn.org.atool.fluent.mybatis.metadata.DbType;
+import cn.org.atool.fluent.mybatis.metadata.feature.EscapeExpress;
+
+/**
+ * 实体sql语句中的静态片段(字段列表, 主键条件), 由生成的XyzSqlProvider定义为常量
+ * <p>
+ * 转义后的片段按数据库类型预先计算,
+ * 数据库转义规则变更({@link DbType#setEscapeExpress(String)})后重新计算
+ *
+ * @author darui.wu
+ */
+public class SqlFragments {
+    private final DbType dbType;
+    /**
+     * 主键字段, 无主键时为null
+     */
+    private final String primary;
+    /**
+     * 包含主键的字段列表
+     */
+    private final String[] allFields;
+    /**
+     * 不包含主键的字段列表
+     */
+    private final String[] noPkFields;
+
+    private volatile Wrapped wrapped;
+
+    public SqlFragments(DbType dbType, String primary, String[] allFields, String[] noPkFields) {
+        this.dbType = dbType;
+        this.primary = primary;
+        this.allFields = allFields;
+        this.noPkFields = noPkFields;
+        this.wrapped = new Wrapped(dbType.feature.getEscape());
+    }
+
+    /**
+     * select字段列表: `id`, `field1`, ...
+     *
+     * @return ignore
+     */
+    public String selectColumns() {
+        return this.wrapped().selectColumns;
+    }
+
+    /**
+     * insert字段列表: (`id`, `field1`, ...)
+     *
+     * @param withPk 是否包含主键
+     * @return ignore
+     */
+    public String insertColumns(boolean withPk) {
+        Wrapped wrapped = this.wrapped();
+        return withPk ? wrapped.insertColumns : wrapped.insertNoPkColumns;
+    }
+
+    /**
+     * 转义后的主键字段: `id`
+     *
+     * @return ignore
+     */
+    public String primary() {
+        return this.wrapped().primary;
+    }
+
+    /**
+     * 主键条件: `id` = #{value}
+     *
+     * @return ignore
+     */
+    public String primaryEqValue() {
+        return this.wrapped().primaryEqValue;
+    }
+
+    /**
+     * 主键条件: `id` = #{list[0]}
+     *
+     * @return ignore
+     */
+    public String primaryEqFirst() {
+        return this.wrapped().primaryEqFirst;
+    }
+
+    private Wrapped wrapped() {
+        Wrapped wrapped = this.wrapped;
+        EscapeExpress escape = dbType.feature.getEscape();
+        if (wrapped.escape != escape) {
+            wrapped = new Wrapped(escape);
+            this.wrapped = wrapped;
+        }
+        return wrapped;
+    }
+
+    /**
+     * 按转义规则计算的sql片段
+     */
+    private class Wrapped {
+        final EscapeExpress escape;
+
+        final String selectColumns;
+
+        final String insertColumns;
+
+        final String insertNoPkColumns;
+
+        final String primary;
+
+        final String primaryEqValue;
+
+        final String primaryEqFirst;
+
+        Wrapped(EscapeExpress escape) {
+            this.escape = escape;
+            this.selectColumns = joining(escape, allFields);
+            this.insertColumns = "(" + this.selectColumns + ")";
+            this.insertNoPkColumns = "(" + joining(escape, noPkFields) + ")";
+            if (SqlFragments.this.primary == null) {
+                this.primary = null;
+                this.primaryEqValue = null;
+                this.primaryEqFirst = null;
+            } else {
+                this.primary = escape.wrap(SqlFragments.this.primary);
+                this.primaryEqValue = this.primary + " = #{value}";
+                this.primaryEqFirst = this.primary + " = #{list[0]}";
+            }
+        }
+    }
+
+    private static String joining(EscapeExpress escape, String[] fields) {
+        StringBuilder buff = new StringBuilder();
+        for (int index = 0; index < fields.length; index++) {
+            if (index > 0) {
+                buff.append(", ");
+            }
+            buff.append(escape.wrap(fields[index]));
+        }
+        return buff.toString();
+    }
+}
@@ -0,0 +1,179 @@
+package cn.org.atool.fluent.mybatis.mapper;
+
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import lombok.Getter;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个Entity的主键缓存: 主键 -> Entity副本
+ * <pre>
+ * 1. 按LRU淘汰, 条目数不超过maxSize; ttl(毫秒)大于0时条目过期失效
+ * 2. 存取的都是Entity副本, 调用方修改返回的Entity不影响缓存
+ * 3. 每次失效都递增版本号, 查询数据库前记录版本号, 写入缓存时版本号已变化则放弃写入,
+ *    避免并发的写操作失效后, 又被之前读出的旧数据覆盖
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"unchecked"})
+public class EntityCache {
+    @Getter
+    private final Class<? extends IEntity> entityClass;
+
+    @Getter
+    private final int maxSize;
+
+    @Getter
+    private final long ttl;
+
+    private final Map<Object, Entry> entries;
+
+    private long version = 0;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    public EntityCache(Class<? extends IEntity> entityClass, int maxSize, long ttl) {
+        this.entityClass = entityClass;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<Object, Entry>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                return this.size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * 按主键读取缓存的Entity副本
+     *
+     * @param id 主键值
+     * @return 未缓存或已过期时返回null
+     */
+    public <E extends IEntity> E get(Object id) {
+        Object key = key(id);
+        IEntity entity;
+        synchronized (this) {
+            Entry entry = this.entries.get(key);
+            if (entry != null && entry.expireAt < System.currentTimeMillis()) {
+                this.entries.remove(key);
+                entry = null;
+            }
+            entity = entry == null ? null : entry.entity;
+        }
+        if (entity == null) {
+            misses.increment();
+            return null;
+        } else {
+            hits.increment();
+            return entity.copy();
+        }
+    }
+
+    /**
+     * 当前版本号, 在查询数据库前读取
+     *
+     * @return 版本号
+     */
+    public synchronized long version() {
+        return this.version;
+    }
+
+    /**
+     * 缓存数据库查询结果, 查询后有失效操作时放弃写入
+     *
+     * @param entities 查询结果
+     * @param version  查询前的版本号
+     */
+    public void put(Collection<? extends IEntity> entities, long version) {
+        long expireAt = this.ttl > 0 ? System.currentTimeMillis() + this.ttl : Long.MAX_VALUE;
+        synchronized (this) {
+            if (this.version != version) {
+                return;
+            }
+            for (IEntity entity : entities) {
+                if (entity != null && entity.findPk() != null) {
+                    this.entries.put(key(entity.findPk()), new Entry(entity.copy(), expireAt));
+                }
+            }
+        }
+    }
+
+    /**
+     * 失效指定主键的缓存
+     *
+     * @param ids 主键值列表
+     */
+    public synchronized void invalidate(Collection<?> ids) {
+        this.version++;
+        for (Object id : ids) {
+            this.entries.remove(key(id));
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        this.version++;
+        this.entries.clear();
+    }
+
+    /**
+     * 缓存的条目数
+     *
+     * @return 条目数
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * 缓存命中次数
+     *
+     * @return 命中次数
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * 缓存未命中次数
+     *
+     * @return 未命中次数
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * 整数主键统一按Long缓存, 按 1 和 1L 查询命中同一条目
+     */
+    private static Object key(Object id) {
+        if (id instanceof Integer || id instanceof Short || id instanceof Byte) {
+            return ((Number) id).longValue();
+        } else if (id instanceof BigInteger && ((BigInteger) id).bitLength() < 64) {
+            return ((BigInteger) id).longValue();
+        } else {
+            return id;
+        }
+    }
+
+    private static class Entry {
+        final IEntity entity;
+
+        final long expireAt;
+
+        Entry(IEntity entity, long expireAt) {
+            this.entity = entity;
+            this.expireAt = expireAt;
+        }
+    }
+}
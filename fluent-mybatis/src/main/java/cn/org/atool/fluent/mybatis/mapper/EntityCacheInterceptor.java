@@ -0,0 +1,287 @@
+package cn.org.atool.fluent.mybatis.mapper;
+
+import cn.org.atool.fluent.mybatis.annotation.FluentMybatis;
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.utility.MapperKits;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.*;
+
+/**
+ * mybatis插件: 按主键缓存 findById, listByIds 的查询结果
+ * <pre>
+ * 使用方式: configuration.addInterceptor(new EntityCacheInterceptor())
+ *
+ * 按Entity开启缓存:
+ * 1. 注解 {@link FluentMybatis#cacheSize()}, {@link FluentMybatis#cacheTtl()}
+ * 2. 或者显式设置 {@link #cache(Class, int, long)}, 优先于注解
+ *
+ * 1. findById 命中缓存时不访问数据库; listByIds 只查询未命中的主键
+ * 2. 写操作自动失效缓存:
+ *    updateById, deleteById(s), logicDeleteById(s) 失效对应主键;
+ *    updateBy(包括 IBaseDao#updateEntityByIds), delete, logicDelete, xxxByMap 和 Mapper中的其它写语句清空该Entity缓存;
+ *    batchCrud 清空所有Entity缓存
+ * 3. 写操作所在的SqlSession关闭(事务结束)时再失效一次, 之前会话内对该Entity的查询不使用缓存
+ *
+ * 不经过Entity Mapper的写操作(比如其它xml mapper, 直接jdbc)不会失效缓存, 依赖ttl过期;
+ * 使用动态表名的Entity不能开启缓存
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+    @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+    @Signature(type = Executor.class, method = "close", args = {boolean.class})
+})
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class EntityCacheInterceptor implements Interceptor {
+    /**
+     * 未开启缓存
+     */
+    private static final EntityCache NONE = new EntityCache(null, 0, 0);
+    /**
+     * 失效Entity所有缓存
+     */
+    private static final Set<Object> ALL = Collections.unmodifiableSet(new HashSet<>());
+    /**
+     * Entity类 - 缓存
+     */
+    private final Map<Class, EntityCache> caches = new ConcurrentHashMap<>();
+    /**
+     * 会话(Executor)中有写操作的Entity缓存和主键
+     */
+    private final Map<Executor, Map<EntityCache, Set<Object>>> written = new ConcurrentHashMap<>();
+
+    /**
+     * 开启(maxSize大于0)或关闭Entity的主键缓存
+     *
+     * @param entityClass Entity类
+     * @param maxSize     最大缓存条目数
+     * @param ttl         有效期(毫秒), 小于等于0表示不过期
+     * @return self
+     */
+    public EntityCacheInterceptor cache(Class<? extends IEntity> entityClass, int maxSize, long ttl) {
+        this.caches.put(entityClass, maxSize > 0 ? new EntityCache(entityClass, maxSize, ttl) : NONE);
+        return this;
+    }
+
+    /**
+     * 返回Entity的主键缓存
+     *
+     * @param entityClass Entity类
+     * @return 未开启缓存时返回null
+     */
+    public EntityCache getCache(Class entityClass) {
+        EntityCache cache = this.caches.computeIfAbsent(entityClass, EntityCacheInterceptor::annotated);
+        return cache == NONE ? null : cache;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Executor executor = (Executor) invocation.getTarget();
+        switch (invocation.getMethod().getName()) {
+            case "query":
+                return this.query(invocation, executor);
+            case "update":
+                return this.update(invocation, executor);
+            case "commit":
+                Object committed = invocation.proceed();
+                this.flush(executor, false);
+                return committed;
+            default:
+                try {
+                    return invocation.proceed();
+                } finally {
+                    this.flush(executor, true);
+                }
+        }
+    }
+
+    private Object query(Invocation invocation, Executor executor) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        String method = MapperKits.method(ms);
+        if (args[2] != RowBounds.DEFAULT || args[3] != Executor.NO_RESULT_HANDLER
+            || !(M_findById.equals(method) || M_listByIds.equals(method))) {
+            return invocation.proceed();
+        }
+        EntityCache cache = this.cache(ms);
+        if (cache == null || this.hasWritten(executor, cache)) {
+            return invocation.proceed();
+        }
+        if (M_findById.equals(method)) {
+            return findById(invocation, cache, args[1]);
+        }
+        Object ids = args[1] instanceof Map ? ((Map) args[1]).get(Param_List) : null;
+        return ids instanceof Collection ? listByIds(invocation, cache, (Collection) ids) : invocation.proceed();
+    }
+
+    private static Object findById(Invocation invocation, EntityCache cache, Object id) throws Throwable {
+        IEntity entity = id == null ? null : cache.get(id);
+        if (entity != null) {
+            List list = new ArrayList(1);
+            list.add(entity);
+            return list;
+        }
+        long version = cache.version();
+        List list = (List) invocation.proceed();
+        cache.put(list, version);
+        return list;
+    }
+
+    /**
+     * 先读缓存, 只查询未命中的主键
+     */
+    private static Object listByIds(Invocation invocation, EntityCache cache, Collection ids) throws Throwable {
+        List list = new ArrayList(ids.size());
+        List<Object> missed = new ArrayList<>();
+        for (Object id : ids) {
+            IEntity entity = id == null ? null : cache.get(id);
+            if (entity == null) {
+                missed.add(id);
+            } else {
+                list.add(entity);
+            }
+        }
+        if (missed.isEmpty()) {
+            return list;
+        }
+        if (missed.size() < ids.size()) {
+            Object[] args = invocation.getArgs();
+            Map<String, Object> param = new MapperMethod.ParamMap<>();
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) args[1]).entrySet()) {
+                param.put(entry.getKey(), entry.getValue() == ids ? missed : entry.getValue());
+            }
+            args[1] = param;
+        }
+        long version = cache.version();
+        List loaded = (List) invocation.proceed();
+        cache.put(loaded, version);
+        list.addAll(loaded);
+        return list;
+    }
+
+    private Object update(Invocation invocation, Executor executor) throws Throwable {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        String method = MapperKits.method(ms);
+        try {
+            return invocation.proceed();
+        } finally {
+            if (M_batchCrud.equals(method)) {
+                for (EntityCache cache : this.caches.values()) {
+                    this.written(executor, cache, null);
+                }
+            } else if (!isInsert(method)) {
+                this.written(executor, this.cache(ms), ids(method, invocation.getArgs()[1]));
+            }
+        }
+    }
+
+    /**
+     * 失效缓存, 并记录到会话中, 会话提交和关闭时再次失效
+     *
+     * @param ids null: 失效Entity所有缓存
+     */
+    private void written(Executor executor, EntityCache cache, Collection<?> ids) {
+        if (cache == null || cache == NONE) {
+            return;
+        }
+        invalidate(cache, ids == null ? ALL : ids);
+        Map<EntityCache, Set<Object>> caches = this.written.computeIfAbsent(executor, key -> new HashMap<>(4));
+        Set<Object> keys = caches.get(cache);
+        if (ids == null) {
+            caches.put(cache, ALL);
+        } else if (keys == null) {
+            caches.put(cache, new HashSet<>(ids));
+        } else if (keys != ALL) {
+            keys.addAll(ids);
+        }
+    }
+
+    private void flush(Executor executor, boolean closed) {
+        Map<EntityCache, Set<Object>> caches = closed ? this.written.remove(executor) : this.written.get(executor);
+        if (caches != null) {
+            caches.forEach(EntityCacheInterceptor::invalidate);
+        }
+    }
+
+    private boolean hasWritten(Executor executor, EntityCache cache) {
+        Map<EntityCache, Set<Object>> caches = this.written.get(executor);
+        return caches != null && caches.containsKey(cache);
+    }
+
+    private static void invalidate(EntityCache cache, Collection<?> ids) {
+        if (ids == ALL) {
+            cache.clear();
+        } else {
+            cache.invalidate(ids);
+        }
+    }
+
+    /**
+     * 写语句影响的主键
+     *
+     * @return null: 无法确定主键
+     */
+    private static Collection<?> ids(String method, Object parameter) {
+        Object value;
+        switch (method) {
+            case M_updateById:
+                value = parameter instanceof Map ? ((Map) parameter).get(Param_ET) : null;
+                Object pk = value instanceof IEntity ? ((IEntity) value).findPk() : null;
+                return pk == null ? null : Collections.singletonList(pk);
+            case M_DeleteById:
+            case M_LogicDeleteById:
+            case M_deleteByIds:
+            case M_LogicDeleteByIds:
+                value = parameter instanceof Map ? ((Map) parameter).get(Param_List) : null;
+                if (value instanceof Object[]) {
+                    return Arrays.asList((Object[]) value);
+                } else {
+                    return value instanceof Collection ? (Collection) value : null;
+                }
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isInsert(String method) {
+        switch (method) {
+            case M_Insert:
+            case M_Insert_With_Pk:
+            case M_InsertBatch:
+            case M_InsertBatch_With_Pk:
+            case M_InsertSelect:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private EntityCache cache(MappedStatement ms) {
+        Class entityClass = MapperKits.entityOfMapper(ms);
+        return entityClass == Void.class ? null : this.getCache(entityClass);
+    }
+
+    private static EntityCache annotated(Class entityClass) {
+        FluentMybatis fluent = (FluentMybatis) entityClass.getAnnotation(FluentMybatis.class);
+        if (fluent == null || fluent.cacheSize() <= 0) {
+            return NONE;
+        } else {
+            return new EntityCache(entityClass, fluent.cacheSize(), fluent.cacheTtl());
+        }
+    }
+}
@@ -1,14 +1,11 @@
 package cn.org.atool.fluent.mybatis.mapper;
 
 import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.base.IRefs;
 import cn.org.atool.fluent.mybatis.base.entity.IEntityHelper;
 
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Suffix_EntityHelper;
 
@@ -17,35 +14,36 @@ import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Suffix_EntityHelper
  *
  * @author wudarui
  */
+@SuppressWarnings({"unchecked", "rawtypes"})
 public class EntityHelperFactory {
-    private final static Map<Class<? extends IEntity>, IEntityHelper> INSTANCES = new HashMap<>();
-
-    private final static Lock lock = new ReentrantLock(true);
+    /**
+     * Entity类 - 帮助类实例, 查找成功后缓存, 命中时无锁
+     */
+    private final static ClassValue<IEntityHelper> INSTANCES = new ClassValue<IEntityHelper>() {
+        @Override
+        protected IEntityHelper computeValue(Class<?> clazz) {
+            IRefs registry = IRefs.registry();
+            IEntityHelper helper = registry == null ? null : registry.newEntityHelper(clazz);
+            if (helper != null) {
+                return helper;
+            }
+            try {
+                Set<ClassLoader> classLoaders = getClassLoaders((Class) clazz);
+                return loadEntityHelper((Class) clazz, classLoaders);
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    };
 
     /**
-     * 采用反射构造方式
+     * 优先从编译生成的注册表构造, 不在注册表中的实体类采用反射构造方式
      *
      * @param clazz 实例类型
      * @return IEntityHelper
      */
     public static IEntityHelper getInstance(Class<? extends IEntity> clazz) {
-        if (INSTANCES.containsKey(clazz)) {
-            return INSTANCES.get(clazz);
-        }
-        try {
-            lock.lock();
-            if (INSTANCES.containsKey(clazz)) {
-                return INSTANCES.get(clazz);
-            }
-            Set<ClassLoader> classLoaders = getClassLoaders(clazz);
-            IEntityHelper helper = loadEntityHelper(clazz, classLoaders);
-            INSTANCES.put(clazz, helper);
-            return helper;
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException(e);
-        } finally {
-            lock.unlock();
-        }
+        return INSTANCES.get(clazz);
     }
 
     protected static Set<ClassLoader> getClassLoaders(Class<? extends IEntity> clazz) {
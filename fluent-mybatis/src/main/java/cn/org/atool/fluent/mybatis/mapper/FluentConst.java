@@ -119,6 +119,8 @@ public interface FluentConst {
 
     String M_countNoLimit = "countNoLimit";
 
+    String M_batchCrud = "batchCrud";
+
     /**
      * RichEntity save 方法
      */
@@ -0,0 +1,180 @@
+package cn.org.atool.fluent.mybatis.mapper;
+
+import cn.org.atool.fluent.mybatis.segment.model.Parameters;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * fluent mybatis Mapper方法的sql解析器
+ * <p>
+ * ProviderSqlSource每次调用都会重新构造并解析sql语句, 这里按 (语句结构, 参数类型) 缓存解析结果
+ * <pre>
+ * sql语句由 select字段, 条件结构, hint, 分页 和 数据库类型 决定,
+ * 变量按出现位置重命名 {@link Parameters#stableSql(String, List)} 后, 语句文本和变量值无关, 即查询结构的指纹;
+ * 变量值在每次构造BoundSql时作为附加参数设置
+ * 关闭变量稳定命名 {@link #STABLE_NAME} 后, 包含非稳定命名变量的语句不进入缓存
+ * </pre>
+ *
+ * @author darui.wu
+ */
+public class FluentLanguageDriver extends XMLLanguageDriver {
+    /**
+     * mybatis配置变量(configuration properties): 是否开启变量稳定命名模式, 默认true
+     */
+    public static final String STABLE_NAME = "fluent-mybatis.stableName";
+    /**
+     * 变量稳定命名模式, 未设置时取配置变量 {@link #STABLE_NAME}
+     */
+    @Setter
+    private volatile Boolean stableName;
+
+    /**
+     * 缓存的最大sql语句数量, 超出后按LRU淘汰
+     */
+    @Getter
+    @Setter
+    private volatile int cacheSize = 1024;
+
+    private final Map<SqlKey, SqlSource> cache = new LinkedHashMap<SqlKey, SqlSource>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SqlKey, SqlSource> eldest) {
+            return this.size() > cacheSize;
+        }
+    };
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    @Override
+    public SqlSource createSqlSource(Configuration configuration, String script, Class<?> parameterType) {
+        if (script == null) {
+            return super.createSqlSource(configuration, script, parameterType);
+        }
+        List<String> paths = new ArrayList<>();
+        if (this.isStableName(configuration)) {
+            script = Parameters.stableSql(script, paths);
+        } else if (!Parameters.isStableSql(script)) {
+            return super.createSqlSource(configuration, script, parameterType);
+        }
+        SqlSource sqlSource = this.cached(configuration, script, parameterType);
+        return paths.isEmpty() ? sqlSource : new StableSqlSource(configuration, sqlSource, paths);
+    }
+
+    private boolean isStableName(Configuration configuration) {
+        if (this.stableName == null) {
+            String value = configuration.getVariables() == null ? null : configuration.getVariables().getProperty(STABLE_NAME);
+            this.stableName = value == null || Boolean.parseBoolean(value);
+        }
+        return this.stableName;
+    }
+
+    private SqlSource cached(Configuration configuration, String script, Class<?> parameterType) {
+        SqlKey key = new SqlKey(script, parameterType);
+        SqlSource sqlSource;
+        synchronized (cache) {
+            sqlSource = cache.get(key);
+        }
+        if (sqlSource != null) {
+            hits.increment();
+            return sqlSource;
+        }
+        misses.increment();
+        sqlSource = super.createSqlSource(configuration, script, parameterType);
+        synchronized (cache) {
+            cache.put(key, sqlSource);
+        }
+        return sqlSource;
+    }
+
+    /**
+     * 缓存命中次数
+     *
+     * @return ignore
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * 缓存未命中次数
+     *
+     * @return ignore
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * 当前缓存的sql语句数量
+     *
+     * @return ignore
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * 清空缓存和计数
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * 稳定命名的语句: 复用缓存的解析结果, 变量值按原变量路径取出后作为附加参数
+     */
+    private static class StableSqlSource implements SqlSource {
+        private final Configuration configuration;
+
+        private final SqlSource sqlSource;
+
+        private final List<String> paths;
+
+        StableSqlSource(Configuration configuration, SqlSource sqlSource, List<String> paths) {
+            this.configuration = configuration;
+            this.sqlSource = sqlSource;
+            this.paths = paths;
+        }
+
+        @Override
+        public BoundSql getBoundSql(Object parameterObject) {
+            BoundSql boundSql = this.sqlSource.getBoundSql(parameterObject);
+            MetaObject meta = this.configuration.newMetaObject(parameterObject);
+            for (int index = 0; index < this.paths.size(); index++) {
+                boundSql.setAdditionalParameter(Parameters.STABLE_PARAM + (index + 1), meta.getValue(this.paths.get(index)));
+            }
+            return boundSql;
+        }
+    }
+
+    @EqualsAndHashCode
+    private static class SqlKey {
+        private final String sql;
+
+        private final Class<?> parameterType;
+
+        SqlKey(String sql, Class<?> parameterType) {
+            this.sql = sql;
+            this.parameterType = parameterType;
+        }
+    }
+}
@@ -4,6 +4,7 @@ package cn.org.atool.fluent.mybatis.mapper;
 import cn.org.atool.fluent.mybatis.metadata.DbType;
 import cn.org.atool.fluent.mybatis.segment.model.HintType;
 import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
+import cn.org.atool.fluent.mybatis.utility.InListHelper;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -68,6 +69,17 @@ public class MapperSql {
         return this;
     }
 
+    /**
+     * 追加预构造的insert字段列表
+     *
+     * @param columns (`field1`, `field2`, ...)
+     * @return ignore
+     */
+    public MapperSql INSERT_COLUMNS(String columns) {
+        buffer.append(columns);
+        return this;
+    }
+
     public MapperSql INSERT_VALUES(List<String> values) {
         buffer.append("(").append(String.join(", ", values)).append(")");
         return this;
@@ -161,6 +173,23 @@ public class MapperSql {
         return this;
     }
 
+    /**
+     * WHERE column IN (#{list[0]}, ...)
+     * 按桶对齐列表长度(用最后一个值填充), 超过数据库上限时拆分为多个IN列表
+     *
+     * @param dbType 数据库类型
+     * @param column 主键字段
+     * @param size   主键值个数
+     * @return ignore
+     */
+    public MapperSql WHERE_PK_IN(DbType dbType, String column, int size) {
+        int bucket = InListHelper.bucket(size);
+        String in = InListHelper.in(column, false, bucket, dbType.getMaxInSize(),
+            index -> "#{list[" + Math.min(index, size - 1) + "]}");
+        buffer.append(" WHERE ").append(in);
+        return this;
+    }
+
     public MapperSql WHERE_PK_IN(String column, int size) {
         buffer.append(" WHERE ").append(column).append(" IN (");
         for (int index = 0; index < size; index++) {
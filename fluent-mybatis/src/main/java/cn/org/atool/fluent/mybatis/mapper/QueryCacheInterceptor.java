@@ -0,0 +1,362 @@
+package cn.org.atool.fluent.mybatis.mapper;
+
+import cn.org.atool.fluent.mybatis.annotation.FluentMybatis;
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.utility.MapperKits;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.Transaction;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.*;
+
+/**
+ * mybatis插件: 缓存 listEntity, listMaps, listObjs, count, countNoLimit, findOne 的查询结果
+ * <pre>
+ * 使用方式: configuration.addInterceptor(new QueryCacheInterceptor())
+ *
+ * 按Entity开启缓存(适合数据量小, 很少修改的配置表):
+ * 1. 注解 {@link FluentMybatis#queryCache()}
+ * 2. 或者显式设置 {@link #cache(Class, boolean)}, 优先于注解
+ *
+ * 1. 缓存key是mybatis的CacheKey: 语句id + 解析后的sql(占位符为?, 和变量名无关) + 参数值
+ * 2. 每个条目记录语句涉及的所有表(FROM, JOIN 后的表, 包括join查询和子查询), 以及查询前这些表的版本号
+ * 3. 任何写语句(insert, update, delete, batchCrud, 包括xml mapper中的写语句)执行时, 递增语句中所有表的版本号,
+ *    版本号变化的条目即失效; 非自动提交连接上的写操作, 所在的会话(事务)提交和关闭时再递增一次,
+ *    之前会话内对这些表的查询不使用缓存; 会话写过的表按Transaction弱引用记录, 会话未经插件关闭时随Transaction回收
+ * 4. 按LRU淘汰, 条目数不超过{@link #setMaxSize(int)}; 结果超过{@link #setMaxRows(int)}条的查询不缓存
+ *
+ * 未命中时通过 invocation.proceed() 执行查询, 内层插件(如分片, 读写分离)照常生效
+ * 直接jdbc或其它框架的写操作不会失效缓存, 依赖ttl过期;
+ * FROM a, b 形式的逗号连接只识别第一张表
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+    @Signature(type = Executor.class, method = "close", args = {boolean.class}),
+    @Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class})
+})
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class QueryCacheInterceptor implements Interceptor {
+    private static final Pattern TABLE = Pattern.compile("\\b(?:FROM|JOIN|UPDATE|INTO)\\s+([`\"\\[]?[\\w$]+[`\"\\]]?(?:\\.[`\"\\[]?[\\w$]+[`\"\\]]?)*)",
+        Pattern.CASE_INSENSITIVE);
+    /**
+     * 最大缓存条目数
+     */
+    @Getter
+    @Setter
+    private int maxSize = 1024;
+    /**
+     * 单个查询结果的最大记录数, 超过不缓存
+     */
+    @Getter
+    @Setter
+    private int maxRows = 1000;
+    /**
+     * 有效期(毫秒), 小于等于0表示不过期
+     */
+    @Getter
+    @Setter
+    private long ttl = 0;
+    /**
+     * Entity类 - 是否缓存查询结果
+     */
+    private final Map<Class, Boolean> entities = new ConcurrentHashMap<>();
+    /**
+     * 表名 - 版本号
+     */
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    /**
+     * 非自动提交的会话(事务)中写过的表
+     */
+    private final Map<Transaction, Set<String>> written = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Map<CacheKey, Entry> entries = new LinkedHashMap<CacheKey, Entry>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, Entry> eldest) {
+            return this.size() > maxSize;
+        }
+    };
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * 开启或关闭Entity的查询结果缓存
+     *
+     * @param entityClass Entity类
+     * @param enabled     是否缓存
+     * @return self
+     */
+    public QueryCacheInterceptor cache(Class<? extends IEntity> entityClass, boolean enabled) {
+        this.entities.put(entityClass, enabled);
+        return this;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (invocation.getTarget() instanceof StatementHandler) {
+            this.prepare((StatementHandler) invocation.getTarget(), (Connection) invocation.getArgs()[0]);
+            return invocation.proceed();
+        }
+        Executor executor = (Executor) invocation.getTarget();
+        switch (invocation.getMethod().getName()) {
+            case "query":
+                return this.query(invocation, executor);
+            case "commit":
+                Object committed = invocation.proceed();
+                this.flush(executor.getTransaction(), false);
+                return committed;
+            default:
+                Transaction transaction = executor.getTransaction();
+                try {
+                    return invocation.proceed();
+                } finally {
+                    this.flush(transaction, true);
+                }
+        }
+    }
+
+    private Object query(Invocation invocation, Executor executor) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        RowBounds rowBounds = (RowBounds) args[2];
+        ResultHandler resultHandler = (ResultHandler) args[3];
+        if (rowBounds != RowBounds.DEFAULT || resultHandler != Executor.NO_RESULT_HANDLER || !this.isCached(ms)) {
+            return invocation.proceed();
+        }
+        BoundSql boundSql = ms.getBoundSql(args[1]);
+        CacheKey key = executor.createCacheKey(ms, args[1], rowBounds, boundSql);
+        String[] tables = tables(boundSql.getSql());
+        Set<String> written = this.written.get(executor.getTransaction());
+        if (written != null && Arrays.stream(tables).anyMatch(written::contains)) {
+            return invocation.proceed();
+        }
+        List list = this.get(key);
+        if (list != null) {
+            hits.increment();
+            return list;
+        }
+        misses.increment();
+        long[] versions = this.versions(tables);
+        list = (List) invocation.proceed();
+        if (list.size() <= this.maxRows) {
+            long expireAt = this.ttl > 0 ? System.currentTimeMillis() + this.ttl : Long.MAX_VALUE;
+            Entry entry = new Entry(copy(list), tables, versions, expireAt);
+            synchronized (this.entries) {
+                this.entries.put(key, entry);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 写语句: 递增语句中所有表的版本号, 非自动提交连接上的写语句记录到会话中
+     */
+    private void prepare(StatementHandler handler, Connection connection) {
+        MetaObject meta = SystemMetaObject.forObject(handler);
+        while (Proxy.isProxyClass(meta.getOriginalObject().getClass())) {
+            meta = SystemMetaObject.forObject(meta.getValue("h.target"));
+        }
+        MappedStatement ms = (MappedStatement) meta.getValue("delegate.mappedStatement");
+        SqlCommandType type = ms.getSqlCommandType();
+        if (type != SqlCommandType.INSERT && type != SqlCommandType.UPDATE && type != SqlCommandType.DELETE) {
+            return;
+        }
+        String[] tables = tables(handler.getBoundSql().getSql());
+        this.increase(Arrays.asList(tables));
+        if (autoCommit(connection)) {
+            return;
+        }
+        Transaction transaction = ((Executor) meta.getValue("delegate.executor")).getTransaction();
+        this.written.computeIfAbsent(transaction, key -> ConcurrentHashMap.newKeySet()).addAll(Arrays.asList(tables));
+    }
+
+    private static boolean autoCommit(Connection connection) {
+        try {
+            return connection.getAutoCommit();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void flush(Transaction transaction, boolean closed) {
+        Set<String> tables = closed ? this.written.remove(transaction) : this.written.get(transaction);
+        if (tables != null) {
+            this.increase(tables);
+        }
+    }
+
+    private void increase(Collection<String> tables) {
+        for (String table : tables) {
+            this.versions.computeIfAbsent(table, key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    private long[] versions(String[] tables) {
+        long[] versions = new long[tables.length];
+        for (int index = 0; index < tables.length; index++) {
+            versions[index] = this.versions.computeIfAbsent(tables[index], key -> new AtomicLong()).get();
+        }
+        return versions;
+    }
+
+    /**
+     * 读取缓存结果的副本, 过期或涉及的表有写操作时失效
+     */
+    private List get(CacheKey key) {
+        Entry entry;
+        synchronized (this.entries) {
+            entry = this.entries.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        boolean valid = entry.expireAt >= System.currentTimeMillis()
+            && Arrays.equals(entry.versions, this.versions(entry.tables));
+        if (valid) {
+            return copy(entry.list);
+        }
+        synchronized (this.entries) {
+            this.entries.remove(key, entry);
+        }
+        return null;
+    }
+
+    private boolean isCached(MappedStatement ms) {
+        switch (MapperKits.method(ms)) {
+            case M_listEntity:
+            case M_listMaps:
+            case M_listObjs:
+            case M_count:
+            case M_countNoLimit:
+            case M_findOne:
+                break;
+            default:
+                return false;
+        }
+        Class entityClass = MapperKits.entityOfMapper(ms);
+        return entityClass != Void.class && this.entities.computeIfAbsent(entityClass, QueryCacheInterceptor::annotated);
+    }
+
+    private static Boolean annotated(Class entityClass) {
+        FluentMybatis fluent = (FluentMybatis) entityClass.getAnnotation(FluentMybatis.class);
+        return fluent != null && fluent.queryCache();
+    }
+
+    /**
+     * sql语句中 FROM, JOIN, UPDATE, INTO 后的表名, 去掉schema和转义符, 小写
+     *
+     * @param sql sql语句
+     * @return 表名列表
+     */
+    static String[] tables(String sql) {
+        Set<String> tables = new LinkedHashSet<>();
+        Matcher matcher = TABLE.matcher(sql);
+        while (matcher.find()) {
+            String table = matcher.group(1);
+            table = table.substring(table.lastIndexOf('.') + 1).replaceAll("[`\"\\[\\]]", "");
+            tables.add(table.toLowerCase(Locale.ENGLISH));
+        }
+        return tables.toArray(new String[0]);
+    }
+
+    /**
+     * 结果列表的副本, Entity和Map逐条复制
+     */
+    private static List copy(List list) {
+        List copy = new ArrayList(list.size());
+        for (Object item : list) {
+            if (item instanceof IEntity) {
+                copy.add(((IEntity) item).copy());
+            } else if (item instanceof Map) {
+                copy.add(new HashMap((Map) item));
+            } else {
+                copy.add(item);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    /**
+     * 缓存的条目数
+     *
+     * @return 条目数
+     */
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * 缓存命中次数
+     *
+     * @return 命中次数
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * 缓存未命中次数
+     *
+     * @return 未命中次数
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private static class Entry {
+        final List list;
+
+        final String[] tables;
+
+        final long[] versions;
+
+        final long expireAt;
+
+        Entry(List list, String[] tables, long[] versions, long expireAt) {
+            this.list = list;
+            this.tables = tables;
+            this.versions = versions;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package cn.org.atool.fluent.mybatis.mapper;
+
+import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.base.crud.IWrapper;
+import cn.org.atool.fluent.mybatis.utility.MapperKits;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.SimpleExecutor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.*;
+
+/**
+ * mybatis插件: 读写分离, 只读查询路由到从库
+ * <pre>
+ * 使用方式: configuration.addInterceptor(new ReadWriteInterceptor(replica1, replica2))
+ * SqlSession绑定的DataSource即主库
+ *
+ * 1. Entity Mapper的 listEntity, listMaps, listObjs, count, countNoLimit, findOne, findById, listByIds
+ *    在新建的从库连接上执行, 其它语句(包括所有写操作)在主库执行
+ * 2. 以下情况查询主库:
+ *    a) 查询设置了 {@link cn.org.atool.fluent.mybatis.base.crud.BaseQuery#forcePrimary()}
+ *    b) 当前会话(SqlSession)有过写操作, 直到会话关闭
+ *    c) 当前线程最近一次写操作后的 {@link #setStickyMillis(long)} 毫秒内(read-your-writes)
+ *    d) 在spring非只读事务中
+ * 3. 从库选择: {@link Balance#ROUND_ROBIN} 轮询; {@link Balance#LEAST_LATENCY} 最近成功查询耗时(指数平均)最小的从库
+ * 4. 从库获取连接失败时, 在 {@link #setCooldownMillis(long)} 毫秒内不再使用该从库, 本次查询改用下一个可用从库,
+ *    没有可用从库时查询主库
+ *
+ * 缓存插件(EntityCacheInterceptor, QueryCacheInterceptor)需要在本插件之后注册, 命中缓存时不访问从库
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+    @Signature(type = Executor.class, method = "close", args = {boolean.class})
+})
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class ReadWriteInterceptor implements Interceptor {
+    /**
+     * 从库列表
+     */
+    @Getter
+    private final List<Replica> replicas;
+    /**
+     * 从库选择方式
+     */
+    @Getter
+    @Setter
+    private Balance balance = Balance.ROUND_ROBIN;
+    /**
+     * 写操作后当前线程读主库的时长(毫秒)
+     */
+    @Getter
+    @Setter
+    private long stickyMillis = 1000;
+    /**
+     * 从库获取连接失败后暂停使用的时长(毫秒)
+     */
+    @Getter
+    @Setter
+    private long cooldownMillis = 10_000;
+
+    private final AtomicInteger next = new AtomicInteger();
+    /**
+     * 有写操作的会话
+     */
+    private final Set<Executor> written = ConcurrentHashMap.newKeySet();
+    /**
+     * 当前线程最近一次写操作的时间
+     */
+    private final ThreadLocal<Long> lastWrite = new ThreadLocal<>();
+
+    public ReadWriteInterceptor(DataSource... replicas) {
+        this(Arrays.asList(replicas));
+    }
+
+    public ReadWriteInterceptor(List<DataSource> replicas) {
+        List<Replica> list = new ArrayList<>(replicas.size());
+        for (DataSource dataSource : replicas) {
+            list.add(new Replica(dataSource));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Executor executor = (Executor) invocation.getTarget();
+        switch (invocation.getMethod().getName()) {
+            case "query":
+                return this.query(invocation, executor);
+            case "update":
+                try {
+                    return invocation.proceed();
+                } finally {
+                    this.written.add(executor);
+                    this.lastWrite.set(System.currentTimeMillis());
+                }
+            default:
+                try {
+                    return invocation.proceed();
+                } finally {
+                    this.written.remove(executor);
+                }
+        }
+    }
+
+    private Object query(Invocation invocation, Executor executor) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        if (this.replicas.isEmpty() || !this.isRead(ms) || this.isPrimary(executor, args[1])) {
+            return invocation.proceed();
+        }
+        List<Replica> tried = new ArrayList<>(2);
+        for (Replica replica = this.select(tried); replica != null; replica = this.select(tried)) {
+            tried.add(replica);
+            JdbcTransaction transaction = new JdbcTransaction(replica.dataSource, null, true);
+            long start = System.nanoTime();
+            try {
+                transaction.getConnection();
+            } catch (SQLException e) {
+                replica.fail(System.currentTimeMillis() + this.cooldownMillis);
+                continue;
+            }
+            Executor reader = new SimpleExecutor(ms.getConfiguration(), transaction);
+            try {
+                Object result = reader.query(ms, args[1], (RowBounds) args[2], (ResultHandler) args[3]);
+                replica.record(System.nanoTime() - start);
+                return result;
+            } finally {
+                reader.close(false);
+            }
+        }
+        return invocation.proceed();
+    }
+
+    /**
+     * 是否必须查询主库
+     */
+    private boolean isPrimary(Executor executor, Object parameter) {
+        if (this.written.contains(executor) || springWriteTransaction()) {
+            return true;
+        }
+        Long writeAt = this.lastWrite.get();
+        if (writeAt != null) {
+            if (System.currentTimeMillis() - writeAt < this.stickyMillis) {
+                return true;
+            }
+            this.lastWrite.remove();
+        }
+        Object wrapper = parameter instanceof Map && ((Map) parameter).containsKey(Param_EW) ? ((Map) parameter).get(Param_EW) : null;
+        if (wrapper instanceof IWrapper) {
+            return ((IWrapper) wrapper).getWrapperData().isForcePrimary();
+        } else if (wrapper instanceof IQuery) {
+            return ((IQuery) wrapper).getWrapperData().isForcePrimary();
+        } else {
+            return false;
+        }
+    }
+
+    private boolean isRead(MappedStatement ms) {
+        switch (MapperKits.method(ms)) {
+            case M_listEntity:
+            case M_listMaps:
+            case M_listObjs:
+            case M_count:
+            case M_countNoLimit:
+            case M_findOne:
+            case M_findById:
+            case M_listByIds:
+                return MapperKits.entityOfMapper(ms) != Void.class;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 选择可用的从库
+     *
+     * @param excluded 本次查询已尝试过的从库
+     * @return 没有可用从库时返回null
+     */
+    private Replica select(List<Replica> excluded) {
+        long now = System.currentTimeMillis();
+        int start = Math.floorMod(this.next.getAndIncrement(), this.replicas.size());
+        Replica selected = null;
+        for (int index = 0; index < this.replicas.size(); index++) {
+            Replica replica = this.replicas.get((start + index) % this.replicas.size());
+            if (!replica.isAvailable(now) || excluded.contains(replica)) {
+                continue;
+            }
+            if (this.balance == Balance.ROUND_ROBIN) {
+                return replica;
+            } else if (selected == null || replica.latency < selected.latency) {
+                selected = replica;
+            }
+        }
+        return selected;
+    }
+
+    private static final Method[] TRANSACTION_METHODS = transactionMethods();
+
+    private static Method[] transactionMethods() {
+        try {
+            Class klass = Class.forName("org.springframework.transaction.support.TransactionSynchronizationManager");
+            return new Method[]{klass.getMethod("isActualTransactionActive"), klass.getMethod("isCurrentTransactionReadOnly")};
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 是否在spring非只读事务中
+     */
+    private static boolean springWriteTransaction() {
+        if (TRANSACTION_METHODS == null) {
+            return false;
+        }
+        try {
+            return (Boolean) TRANSACTION_METHODS[0].invoke(null) && !(Boolean) TRANSACTION_METHODS[1].invoke(null);
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    /**
+     * 从库选择方式
+     */
+    public enum Balance {
+        /**
+         * 轮询
+         */
+        ROUND_ROBIN,
+        /**
+         * 最近查询耗时最小
+         */
+        LEAST_LATENCY
+    }
+
+    /**
+     * 从库
+     */
+    public static class Replica {
+        @Getter
+        private final DataSource dataSource;
+        /**
+         * 成功查询耗时(纳秒)的指数平均, 未查询过为0
+         */
+        @Getter
+        private volatile long latency = 0;
+        /**
+         * 获取连接失败后, 暂停使用到该时间点(毫秒)
+         */
+        private volatile long failedUntil = 0;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        /**
+         * 是否可用: 不在连接失败后的暂停期内
+         *
+         * @param now 当前时间(毫秒)
+         * @return true: 可用
+         */
+        public boolean isAvailable(long now) {
+            return now >= this.failedUntil;
+        }
+
+        void fail(long until) {
+            this.failedUntil = until;
+        }
+
+        void record(long nanos) {
+            long last = this.latency;
+            this.latency = last == 0 ? Math.max(nanos, 1) : (last * 7 + nanos) / 8;
+        }
+    }
+}
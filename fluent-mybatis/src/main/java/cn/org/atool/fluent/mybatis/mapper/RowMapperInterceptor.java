@@ -0,0 +1,276 @@
+package cn.org.atool.fluent.mybatis.mapper;
+
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.base.crud.IWrapper;
+import cn.org.atool.fluent.mybatis.base.entity.IEntityHelper;
+import cn.org.atool.fluent.mybatis.base.entity.IRowMapper;
+import cn.org.atool.fluent.mybatis.model.CompactRow;
+import cn.org.atool.fluent.mybatis.model.RowIndex;
+import cn.org.atool.fluent.mybatis.utility.MapperKits;
+import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
+import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
+import org.apache.ibatis.session.AutoMappingBehavior;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.*;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Param_EW;
+
+/**
+ * mybatis插件: Entity查询结果使用编译时生成的{@link IRowMapper}直接从ResultSet转换,
+ * 不经过mybatis ResultMap的反射赋值
+ * 查询设置了{@link cn.org.atool.fluent.mybatis.base.crud.BaseQuery#compactMap()}时,
+ * Map查询结果(listMaps, findOneMap)转换为只读的{@link CompactRow}
+ * <pre>
+ * 使用方式: configuration.addInterceptor(new RowMapperInterceptor())
+ *
+ * 以下情况使用mybatis默认处理:
+ * 1. 语句未使用生成的Mapper声明的Entity ResultMap, 或Entity未生成IRowMapper实现(如字段指定了typeHandler)
+ * 2. 指定了ResultHandler或RowBounds分页, 多结果集, 嵌套映射
+ * 3. 开启了 returnInstanceForEmptyRow 或 callSettersOnNulls, 或自定义了ObjectFactory
+ * 4. 结果集中有ResultMap未映射的字段(需要mybatis自动映射)
+ * 5. Map查询关闭了自动映射, 或字段名称中包含 '.' 等mybatis属性表达式字符
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@Intercepts(@Signature(type = ResultSetHandler.class, method = "handleResultSets", args = {Statement.class}))
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class RowMapperInterceptor implements Interceptor {
+    /**
+     * 和mybatis默认TypeHandler取值方式一致的TypeHandler
+     */
+    private static final Set<Class> DEFAULT_HANDLERS = new HashSet<>(Arrays.asList(
+        LongTypeHandler.class, IntegerTypeHandler.class, ShortTypeHandler.class, ByteTypeHandler.class,
+        DoubleTypeHandler.class, FloatTypeHandler.class, BooleanTypeHandler.class, StringTypeHandler.class,
+        BigDecimalTypeHandler.class, ByteArrayTypeHandler.class, DateTypeHandler.class, SqlTimestampTypeHandler.class,
+        SqlDateTypeHandler.class, SqlTimeTypeHandler.class, LocalDateTimeTypeHandler.class,
+        LocalDateTypeHandler.class, LocalTimeTypeHandler.class
+    ));
+    /**
+     * 不能直接转换的语句
+     */
+    private static final RowPlan NONE = new RowPlan(null, null);
+    /**
+     * 结果为Map的语句
+     */
+    private static final RowPlan MAPS = new RowPlan(null, null);
+    /**
+     * MappedStatement - 转换计划
+     */
+    private final Map<MappedStatement, RowPlan> plans = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (!(invocation.getTarget() instanceof DefaultResultSetHandler)) {
+            return invocation.proceed();
+        }
+        MetaObject handler = SystemMetaObject.forObject(invocation.getTarget());
+        if (handler.getValue("resultHandler") != null || handler.getValue("rowBounds") != RowBounds.DEFAULT) {
+            return invocation.proceed();
+        }
+        MappedStatement ms = (MappedStatement) handler.getValue("mappedStatement");
+        RowPlan plan = this.plans.computeIfAbsent(ms, RowMapperInterceptor::plan);
+        if (plan == NONE || (plan == MAPS && !isCompactMap(handler.getValue("parameterHandler.parameterObject")))) {
+            return invocation.proceed();
+        }
+        Statement stmt = (Statement) invocation.getArgs()[0];
+        ResultSet rs = stmt.getResultSet();
+        if (rs == null) {
+            return invocation.proceed();
+        } else if (plan == MAPS) {
+            RowIndex index = RowIndex.of(rs, ms.getConfiguration());
+            return isPlainNames(index) ? compactRows(rs, index) : invocation.proceed();
+        }
+        int[] index = plan.index(rs, ms.getConfiguration().isUseColumnLabel());
+        if (index == null) {
+            return invocation.proceed();
+        }
+        try {
+            List list = new ArrayList();
+            while (rs.next()) {
+                list.add(plan.mapper.map(rs, index));
+            }
+            return list;
+        } finally {
+            closeResultSet(rs);
+        }
+    }
+
+    /**
+     * 查询是否设置了Map结果转换为{@link CompactRow}
+     *
+     * @param parameter 语句参数
+     * @return true: 转换为CompactRow
+     */
+    private static boolean isCompactMap(Object parameter) {
+        Object wrapper = parameter instanceof Map && ((Map) parameter).containsKey(Param_EW) ? ((Map) parameter).get(Param_EW) : null;
+        if (wrapper instanceof IWrapper) {
+            return ((IWrapper) wrapper).getWrapperData().isCompactMap();
+        } else if (wrapper instanceof IQuery) {
+            return ((IQuery) wrapper).getWrapperData().isCompactMap();
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * 转换为共享字段索引的Map, 所有字段都为null时和mybatis一样返回null
+     *
+     * @param rs    结果集
+     * @param index 字段索引
+     * @return CompactRow列表
+     * @throws SQLException 读取异常
+     */
+    private static List compactRows(ResultSet rs, RowIndex index) throws SQLException {
+        try {
+            List list = new ArrayList();
+            while (rs.next()) {
+                CompactRow row = new CompactRow(index, index.read(rs));
+                list.add(row.isEmpty() ? null : row);
+            }
+            return list;
+        } finally {
+            closeResultSet(rs);
+        }
+    }
+
+    /**
+     * 构造语句的转换计划
+     *
+     * @param ms MappedStatement
+     * @return 不能直接转换时返回 NONE
+     */
+    private static RowPlan plan(MappedStatement ms) {
+        Configuration configuration = ms.getConfiguration();
+        if (ms.getResultSets() != null || ms.getResultMaps().size() != 1
+            || configuration.isReturnInstanceForEmptyRow() || configuration.isCallSettersOnNulls()
+            || configuration.getObjectFactory().getClass() != DefaultObjectFactory.class) {
+            return NONE;
+        }
+        ResultMap resultMap = ms.getResultMaps().get(0);
+        Class type = resultMap.getType();
+        if (type == Map.class || type == HashMap.class) {
+            return isAutoMapMaps(resultMap, configuration) ? MAPS : NONE;
+        }
+        if (!IEntity.class.isAssignableFrom(type) || resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries()
+            || resultMap.getDiscriminator() != null || !MapperKits.isEntityResultMap(resultMap)) {
+            return NONE;
+        }
+        IRowMapper mapper = rowMapper(type);
+        if (mapper == null) {
+            return NONE;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        String[] rowColumns = mapper.rowColumns();
+        for (int index = 0; index < rowColumns.length; index++) {
+            columns.put(rowColumns[index].toUpperCase(Locale.ENGLISH), index);
+        }
+        for (ResultMapping mapping : resultMap.getResultMappings()) {
+            if (mapping.getColumn() == null || !columns.containsKey(mapping.getColumn().toUpperCase(Locale.ENGLISH))
+                || mapping.getTypeHandler() == null || !DEFAULT_HANDLERS.contains(mapping.getTypeHandler().getClass())) {
+                return NONE;
+            }
+        }
+        return new RowPlan(mapper, columns);
+    }
+
+    /**
+     * 字段名称不是mybatis属性表达式(如 a.b, a[0])
+     */
+    private static boolean isPlainNames(RowIndex index) {
+        for (int i = 0; i < index.size(); i++) {
+            String name = index.name(i);
+            if (name.indexOf('.') >= 0 || name.indexOf('[') >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * resultType=Map 的语句: mybatis自动映射所有字段
+     */
+    private static boolean isAutoMapMaps(ResultMap resultMap, Configuration configuration) {
+        if (!resultMap.getResultMappings().isEmpty() || resultMap.getDiscriminator() != null) {
+            return false;
+        }
+        Boolean autoMapping = resultMap.getAutoMapping();
+        return autoMapping == null ? configuration.getAutoMappingBehavior() != AutoMappingBehavior.NONE : autoMapping;
+    }
+
+    private static IRowMapper rowMapper(Class<? extends IEntity> type) {
+        try {
+            IEntityHelper helper = EntityHelperFactory.getInstance(type);
+            return helper instanceof IRowMapper ? (IRowMapper) helper : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void closeResultSet(ResultSet rs) {
+        try {
+            rs.close();
+        } catch (SQLException ignored) {
+            // ignore, 同mybatis
+        }
+    }
+
+    /**
+     * Entity转换计划
+     */
+    private static class RowPlan {
+        final IRowMapper mapper;
+        /**
+         * 大写字段名 - rowColumns()下标
+         */
+        final Map<String, Integer> columns;
+
+        RowPlan(IRowMapper mapper, Map<String, Integer> columns) {
+            this.mapper = mapper;
+            this.columns = columns;
+        }
+
+        /**
+         * 返回rowColumns()各字段在结果集中的位置
+         *
+         * @param rs          结果集
+         * @param columnLabel 是否使用字段别名
+         * @return 结果集中有未映射字段时返回null
+         * @throws SQLException 读取元数据异常
+         */
+        int[] index(ResultSet rs, boolean columnLabel) throws SQLException {
+            ResultSetMetaData metaData = rs.getMetaData();
+            int[] index = new int[this.mapper.rowColumns().length];
+            for (int col = 1; col <= metaData.getColumnCount(); col++) {
+                String name = columnLabel ? metaData.getColumnLabel(col) : metaData.getColumnName(col);
+                Integer pos = this.columns.get(name.toUpperCase(Locale.ENGLISH));
+                if (pos == null) {
+                    return null;
+                } else if (index[pos] == 0) {
+                    index[pos] = col;
+                }
+            }
+            return index;
+        }
+    }
+}
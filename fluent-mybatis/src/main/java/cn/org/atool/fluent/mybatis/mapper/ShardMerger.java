@@ -0,0 +1,462 @@
+package cn.org.atool.fluent.mybatis.mapper;
+
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import cn.org.atool.fluent.mybatis.segment.model.OrderByKey;
+import cn.org.atool.fluent.mybatis.segment.model.PagedOffset;
+import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
+import org.apache.ibatis.session.RowBounds;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_count;
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.M_countNoLimit;
+
+/**
+ * 多分片查询结果归并
+ * <pre>
+ * 1. count, countNoLimit: 各分片结果求和
+ * 2. 查询字段有聚合函数(listMaps, listObjs): 按非聚合字段分组, COUNT/SUM求和, MIN/MAX取最值; 再按排序字段排序
+ * 3. 其它查询: 各分片结果已按排序字段有序, 多路归并;
+ *    distinct 或 GROUP BY(没有聚合函数)查询, 归并后按 GROUP BY 字段(没有时按整条记录)去重
+ * 4. 按原始的 limit(offset, size) 和 RowBounds 截取
+ *
+ * AVG, GROUP_CONCAT, COUNT(DISTINCT ...), HAVING 和 distinct 查询的 count 无法由分片结果归并, 抛出异常
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+class ShardMerger {
+    private static final Pattern AGGREGATE = Pattern.compile("^(COUNT|SUM|MIN|MAX|AVG|GROUP_CONCAT)\\s*\\((.*)\\)(?:\\s+AS\\s+(\\S+))?$",
+        Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private static final Pattern DISTINCT = Pattern.compile("^DISTINCT\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern AGGREGATE_LABEL = Pattern.compile("^(COUNT|SUM|MIN|MAX|AVG|GROUP_CONCAT)\\s*\\(", Pattern.CASE_INSENSITIVE);
+
+    private final String method;
+
+    private final PagedOffset paged;
+
+    private final RowBounds rowBounds;
+
+    private final List<OrderByKey> orderBy;
+    /**
+     * 查询字段(去掉转义符, 小写)
+     */
+    private final List<String> selects = new ArrayList<>();
+    /**
+     * 聚合字段别名(小写) - 聚合函数, 没有别名的聚合字段按结果列名判断
+     */
+    private final Map<String, String> aliases = new HashMap<>();
+    /**
+     * 查询字段中是否有聚合函数
+     */
+    private boolean aggregate = false;
+    /**
+     * 非聚合查询的结果需要去重(distinct 或 GROUP BY)
+     */
+    private boolean distinct = false;
+    /**
+     * GROUP BY 字段(去掉转义符和表别名, 小写)
+     */
+    private final List<String> groupBy = new ArrayList<>();
+
+    ShardMerger(String method, WrapperData data, RowBounds rowBounds) {
+        this.method = method;
+        this.rowBounds = rowBounds;
+        this.paged = data == null ? null : data.getPaged();
+        this.orderBy = data == null ? Collections.emptyList() : new ArrayList<>(data.getOrderByKeys());
+        if (data == null) {
+            return;
+        }
+        String select = data.getSqlSelect() == null ? "" : data.getSqlSelect().trim();
+        boolean distinct = data.isDistinct() || DISTINCT.matcher(select).find();
+        if (this.isCount()) {
+            if (distinct) {
+                throw new FluentMybatisException("The count of distinct query can't be merged across shards.");
+            }
+            return;
+        }
+        for (String item : split(data.getSqlSelect())) {
+            Matcher matcher = AGGREGATE.matcher(item);
+            if (matcher.matches()) {
+                String function = matcher.group(1).toUpperCase(Locale.ENGLISH);
+                if ("AVG".equals(function) || "GROUP_CONCAT".equals(function)) {
+                    throw FluentMybatisException.instance("The aggregate function %s can't be merged across shards.", function);
+                }
+                if ("COUNT".equals(function) && DISTINCT.matcher(matcher.group(2).trim()).find()) {
+                    throw new FluentMybatisException("The aggregate function COUNT(DISTINCT) can't be merged across shards.");
+                }
+                this.aggregate = true;
+                if (matcher.group(3) != null) {
+                    this.aliases.put(unquote(matcher.group(3)), function);
+                }
+                this.selects.add(function);
+            } else {
+                this.selects.add(unquote(item.replaceAll("(?i)\\s+AS\\s+.*$", "").replaceAll("^.*\\.", "")));
+            }
+        }
+        if (this.aggregate && data.getGroupBy().toUpperCase(Locale.ENGLISH).contains("HAVING")) {
+            throw new FluentMybatisException("The HAVING condition can't be merged across shards.");
+        }
+        data.getMergeSegments().getGroupBy().getSegments()
+            .forEach(segment -> this.groupBy.add(unquote(segment.getSqlSegment().trim()).replaceAll("^.*\\.", "")));
+        this.distinct = !this.aggregate && (distinct || !this.groupBy.isEmpty());
+    }
+
+    /**
+     * 分片查询是否需要去掉分页(聚合查询), 在内存中分页
+     *
+     * @return true: 分片查询不分页
+     */
+    boolean isAggregate() {
+        return this.aggregate;
+    }
+
+    /**
+     * 归并各分片的查询结果
+     *
+     * @param results 分片查询结果
+     * @return 归并结果
+     */
+    List merge(List<List> results) {
+        if (this.isCount()) {
+            Object total = null;
+            for (List list : results) {
+                for (Object count : list) {
+                    total = add(total, count);
+                }
+            }
+            List merged = new ArrayList(1);
+            if (total != null) {
+                merged.add(total);
+            }
+            return merged;
+        }
+        List merged;
+        if (this.aggregate) {
+            List rows = new ArrayList();
+            results.forEach(rows::addAll);
+            merged = this.aggregate(rows);
+            if (!this.orderBy.isEmpty()) {
+                merged.sort((a, b) -> this.compare(this.keys(a), this.keys(b)));
+            }
+        } else {
+            merged = this.mergeSorted(results);
+            if (this.distinct) {
+                merged = this.distinct(merged);
+            }
+        }
+        return this.limit(merged);
+    }
+
+    /**
+     * 是否count语句, count语句不改写分片上的分页参数
+     *
+     * @return true: count, countNoLimit
+     */
+    boolean isCount() {
+        return M_count.equals(this.method) || M_countNoLimit.equals(this.method);
+    }
+
+    /**
+     * 多路归并: 每个分片的结果已按排序字段有序
+     */
+    private List mergeSorted(List<List> results) {
+        List merged = new ArrayList();
+        if (this.orderBy.isEmpty()) {
+            results.forEach(merged::addAll);
+            return merged;
+        }
+        PriorityQueue<Cursor> queue = new PriorityQueue<>((a, b) -> {
+            int compared = this.compare(a.keys, b.keys);
+            return compared == 0 ? Integer.compare(a.shard, b.shard) : compared;
+        });
+        for (int shard = 0; shard < results.size(); shard++) {
+            List list = results.get(shard);
+            if (!list.isEmpty()) {
+                queue.add(new Cursor(list, shard, this.keys(list.get(0))));
+            }
+        }
+        while (!queue.isEmpty()) {
+            Cursor cursor = queue.poll();
+            merged.add(cursor.list.get(cursor.index));
+            cursor.index++;
+            if (cursor.index < cursor.list.size()) {
+                cursor.keys = this.keys(cursor.list.get(cursor.index));
+                queue.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 去掉各分片结果中重复的记录(或分组), 保留第一条
+     */
+    private List distinct(List rows) {
+        Set<Object> keys = new HashSet<>();
+        List merged = new ArrayList(rows.size());
+        for (Object row : rows) {
+            if (keys.add(this.distinctKey(row))) {
+                merged.add(row);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 去重依据: GROUP BY 字段值, 没有 GROUP BY(或结果中没有分组字段)时为整条记录
+     */
+    private Object distinctKey(Object row) {
+        Map<String, Object> columns;
+        if (row instanceof IEntity) {
+            columns = ((IEntity) row).toColumnMap(false);
+        } else if (row instanceof Map) {
+            columns = (Map<String, Object>) row;
+        } else {
+            return row == null ? Collections.emptyList() : row;
+        }
+        if (this.groupBy.isEmpty() || !this.groupBy.stream().allMatch(column -> hasColumn(columns, column))) {
+            return columns;
+        }
+        List<Object> key = new ArrayList<>(this.groupBy.size());
+        for (String column : this.groupBy) {
+            key.add(value(columns, column));
+        }
+        return key;
+    }
+
+    /**
+     * 按非聚合字段分组, 合并聚合字段
+     */
+    private List aggregate(List rows) {
+        if (rows.isEmpty() || !(rows.get(0) instanceof Map)) {
+            String function = this.selects.size() == 1 ? this.selects.get(0) : null;
+            Object value = null;
+            for (Object row : rows) {
+                value = function == null ? row : merge(function, value, row);
+            }
+            List merged = new ArrayList(1);
+            if (!rows.isEmpty()) {
+                merged.add(value);
+            }
+            return merged;
+        }
+        Map<List<Object>, Map<String, Object>> groups = new LinkedHashMap<>();
+        for (Object item : rows) {
+            Map<String, Object> row = (Map<String, Object>) item;
+            List<Object> group = new ArrayList<>();
+            row.forEach((label, value) -> {
+                if (this.function(label) == null) {
+                    group.add(label);
+                    group.add(value);
+                }
+            });
+            Map<String, Object> merged = groups.get(group);
+            if (merged == null) {
+                groups.put(group, new HashMap<>(row));
+            } else {
+                row.forEach((label, value) -> {
+                    String function = this.function(label);
+                    if (function != null) {
+                        merged.put(label, merge(function, merged.get(label), value));
+                    }
+                });
+            }
+        }
+        return new ArrayList(groups.values());
+    }
+
+    /**
+     * 结果列对应的聚合函数
+     *
+     * @return 非聚合字段返回null
+     */
+    private String function(String label) {
+        String function = this.aliases.get(unquote(label));
+        if (function != null) {
+            return function;
+        }
+        Matcher matcher = AGGREGATE_LABEL.matcher(label);
+        return matcher.find() ? matcher.group(1).toUpperCase(Locale.ENGLISH) : null;
+    }
+
+    private List limit(List merged) {
+        int offset = 0;
+        int limit = Integer.MAX_VALUE;
+        if (this.paged != null) {
+            offset = this.paged.getOffset();
+            limit = this.paged.getLimit();
+        }
+        if (this.rowBounds != null && this.rowBounds != RowBounds.DEFAULT) {
+            offset += this.rowBounds.getOffset();
+            limit = Math.min(limit, this.rowBounds.getLimit());
+        }
+        if (offset == 0 && limit >= merged.size()) {
+            return merged;
+        }
+        int from = Math.min(offset, merged.size());
+        int to = (int) Math.min((long) from + limit, merged.size());
+        return new ArrayList(merged.subList(from, to));
+    }
+
+    /**
+     * 记录的排序字段值
+     */
+    private Object[] keys(Object row) {
+        Object[] keys = new Object[this.orderBy.size()];
+        Map<String, Object> columns = null;
+        if (row instanceof IEntity) {
+            columns = ((IEntity) row).toColumnMap(false);
+        } else if (row instanceof Map) {
+            columns = (Map<String, Object>) row;
+        }
+        for (int index = 0; index < keys.length; index++) {
+            String column = this.orderBy.get(index).getColumn();
+            if (columns != null) {
+                keys[index] = value(columns, column);
+            } else if (this.selects.size() == 1 && column.equalsIgnoreCase(this.selects.get(0))) {
+                keys[index] = row;
+            }
+        }
+        return keys;
+    }
+
+    private int compare(Object[] keys1, Object[] keys2) {
+        for (int index = 0; index < keys1.length; index++) {
+            int compared = compareValue(keys1[index], keys2[index]);
+            if (compared != 0) {
+                return this.orderBy.get(index).isAsc() ? compared : -compared;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean hasColumn(Map<String, Object> columns, String column) {
+        return columns.containsKey(column) || columns.keySet().stream().anyMatch(key -> column.equalsIgnoreCase(unquote(key)));
+    }
+
+    private static Object value(Map<String, Object> columns, String column) {
+        if (columns.containsKey(column)) {
+            return columns.get(column);
+        }
+        for (Map.Entry<String, Object> entry : columns.entrySet()) {
+            if (column.equalsIgnoreCase(unquote(entry.getKey()))) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static Object merge(String function, Object merged, Object value) {
+        switch (function) {
+            case "COUNT":
+            case "SUM":
+                return add(merged, value);
+            case "MIN":
+                return merged == null || (value != null && compareValue(value, merged) < 0) ? value : merged;
+            default:
+                return merged == null || (value != null && compareValue(value, merged) > 0) ? value : merged;
+        }
+    }
+
+    /**
+     * 数值相加, 结果保持第一个值的类型
+     */
+    static Object add(Object value1, Object value2) {
+        if (value1 == null) {
+            return value2;
+        } else if (value2 == null) {
+            return value1;
+        }
+        Number num1 = (Number) value1;
+        Number num2 = (Number) value2;
+        if (isIntegral(num1) && isIntegral(num2)) {
+            long sum = num1.longValue() + num2.longValue();
+            if (num1 instanceof Integer) {
+                return (int) sum;
+            } else if (num1 instanceof BigInteger) {
+                return BigInteger.valueOf(sum);
+            } else {
+                return sum;
+            }
+        }
+        BigDecimal sum = new BigDecimal(num1.toString()).add(new BigDecimal(num2.toString()));
+        if (num1 instanceof Double) {
+            return sum.doubleValue();
+        } else if (num1 instanceof Float) {
+            return sum.floatValue();
+        } else {
+            return sum;
+        }
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Integer || number instanceof Long || number instanceof Short
+            || number instanceof Byte || (number instanceof BigInteger && ((BigInteger) number).bitLength() < 63);
+    }
+
+    /**
+     * 比较字段值, null最小
+     */
+    static int compareValue(Object value1, Object value2) {
+        if (value1 == null || value2 == null) {
+            return value1 == null ? (value2 == null ? 0 : -1) : 1;
+        }
+        if (value1 instanceof Number && value2 instanceof Number && value1.getClass() != value2.getClass()) {
+            return new BigDecimal(value1.toString()).compareTo(new BigDecimal(value2.toString()));
+        }
+        return ((Comparable) value1).compareTo(value2);
+    }
+
+    /**
+     * 按括号外的逗号拆分查询字段
+     */
+    private static List<String> split(String select) {
+        List<String> items = new ArrayList<>();
+        if (select == null) {
+            return items;
+        }
+        int depth = 0;
+        int start = 0;
+        for (int index = 0; index < select.length(); index++) {
+            char ch = select.charAt(index);
+            if (ch == '(') {
+                depth++;
+            } else if (ch == ')') {
+                depth--;
+            } else if (ch == ',' && depth == 0) {
+                items.add(select.substring(start, index).trim());
+                start = index + 1;
+            }
+        }
+        items.add(select.substring(start).trim());
+        return items;
+    }
+
+    private static String unquote(String name) {
+        return name.replaceAll("[`\"\\[\\]]", "").toLowerCase(Locale.ENGLISH);
+    }
+
+    private static class Cursor {
+        final List list;
+
+        final int shard;
+
+        int index = 0;
+
+        Object[] keys;
+
+        Cursor(List list, int shard, Object[] keys) {
+            this.list = list;
+            this.shard = shard;
+            this.keys = keys;
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package cn.org.atool.fluent.mybatis.mapper;
+
+import cn.org.atool.fluent.mybatis.annotation.ShardKey;
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.base.IRefs;
+import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.base.crud.IWrapper;
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import cn.org.atool.fluent.mybatis.segment.model.PagedOffset;
+import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
+import cn.org.atool.fluent.mybatis.utility.MapperKits;
+import cn.org.atool.fluent.mybatis.utility.SharedExecutor;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.SimpleExecutor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.*;
+
+/**
+ * mybatis插件: 按分片键hash分片, 每个分片是一个DataSource, 表名相同
+ * <pre>
+ * 使用方式: configuration.addInterceptor(new ShardingInterceptor(shard0, shard1, ...))
+ *
+ * 分片键: Entity字段上的注解 {@link ShardKey}, 或者显式设置 {@link #shardKey(Class, String)}
+ * 分片号: {@link #shardOf(Object)}, 整数按Long计算hash, 值对分片数取模
+ *
+ * 1. insert, insertWithPk 按Entity的分片键值路由; insertBatch 按分片拆分成多个批次
+ * 2. 其它语句的where条件中有顶层(不在括号, NOT, CASE, 函数中)的 分片键 = ? 或 分片键 IN (?, ...) 条件时,
+ *    只在对应的分片执行; 条件中有 OR, 子查询, 或者是多条语句时, 在所有分片执行
+ * 3. 多分片查询在{@link #setExecutor(java.util.concurrent.Executor)}线程池(默认{@link SharedExecutor})中并发执行, 结果由{@link ShardMerger}归并:
+ *    按排序字段多路归并; 分页语句在分片上查询 limit(0, offset + size), 归并后再截取 limit(offset, size);
+ *    COUNT/SUM/MIN/MAX 聚合结果合并, AVG, GROUP_CONCAT, COUNT(DISTINCT), HAVING 不支持跨分片
+ * 4. 多分片写操作依次在各分片执行, 返回影响记录数之和
+ * 5. 流式查询(queryCursor)只能路由到单个分片, 游标关闭时关闭分片连接; 需要在多个分片执行时抛出异常
+ *
+ * 各分片语句都在独立的自动提交连接上执行, 不参与当前会话的事务;
+ * 在spring事务(@Transactional)中执行分片写操作会抛出异常, 避免写入在事务回滚时无法撤销;
+ * batchCrud 不支持分片Entity; 预编译查询(CompiledQuery)跨分片时不能带分页位移
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = Executor.class, method = "query", args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+    @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class}),
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class ShardingInterceptor implements Interceptor {
+    private static final Pattern OR = Pattern.compile("\\bOR\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern SELECT = Pattern.compile("\\bSELECT\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern WHERE = Pattern.compile("\\bWHERE\\b", Pattern.CASE_INSENSITIVE);
+    /**
+     * 顶层条件的开始: WHERE 或 AND 之后
+     */
+    private static final Pattern CONJUNCT = Pattern.compile("\\b(?:WHERE|AND)\\s*$", Pattern.CASE_INSENSITIVE);
+    /**
+     * 非分片Entity
+     */
+    private static final ShardField NONE = new ShardField(null, null);
+    /**
+     * 分片DataSource列表
+     */
+    @Getter
+    private final List<DataSource> shards;
+    /**
+     * 多分片查询的线程池, 未设置时使用 {@link SharedExecutor}
+     */
+    @Setter
+    private java.util.concurrent.Executor executor;
+    /**
+     * Entity类 - 分片键
+     */
+    private final Map<Class, ShardField> fields = new ConcurrentHashMap<>();
+
+    public ShardingInterceptor(DataSource... shards) {
+        this(Arrays.asList(shards));
+    }
+
+    public ShardingInterceptor(List<DataSource> shards) {
+        if (shards.isEmpty()) {
+            throw new FluentMybatisException("The shards can't be empty.");
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+    }
+
+    /**
+     * 设置Entity的分片键, 优先于注解 {@link ShardKey}
+     *
+     * @param entityClass Entity类
+     * @param field       分片键属性名称, null表示不分片
+     * @return self
+     */
+    public ShardingInterceptor shardKey(Class<? extends IEntity> entityClass, String field) {
+        this.fields.put(entityClass, field == null ? NONE : new ShardField(field, IRefs.instance().findColumnByField(entityClass, field)));
+        return this;
+    }
+
+    /**
+     * 分片键值对应的分片号
+     *
+     * @param value 分片键值
+     * @return 分片号
+     */
+    public int shardOf(Object value) {
+        if (value == null) {
+            throw new FluentMybatisException("The value of shard key can't be null.");
+        }
+        Object key = value;
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            key = ((Number) value).longValue();
+        } else if (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64) {
+            key = ((BigInteger) value).longValue();
+        }
+        return Math.floorMod(key.hashCode(), this.shards.size());
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object[] args = invocation.getArgs();
+        MappedStatement ms = (MappedStatement) args[0];
+        Class entityClass = MapperKits.entityOfMapper(ms);
+        ShardField field = entityClass == Void.class ? NONE : this.fields.computeIfAbsent(entityClass, ShardingInterceptor::annotated);
+        if (field == NONE) {
+            return invocation.proceed();
+        }
+        String method = MapperKits.method(ms);
+        switch (invocation.getMethod().getName()) {
+            case "query":
+                BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(args[1]);
+                return this.query(ms, method, field, args[1], (RowBounds) args[2], (ResultHandler) args[3], boundSql);
+            case "queryCursor":
+                return this.queryCursor(ms, field, args[1], (RowBounds) args[2]);
+            default:
+                return this.update(ms, method, field, args[1]);
+        }
+    }
+
+    private Object query(MappedStatement ms, String method, ShardField field, Object parameter,
+                         RowBounds rowBounds, ResultHandler resultHandler, BoundSql boundSql) throws Throwable {
+        List<Integer> targets = this.targets(ms.getConfiguration(), field, boundSql, parameter);
+        if (targets.size() == 1) {
+            return this.query(targets.get(0), ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+        if (resultHandler != Executor.NO_RESULT_HANDLER) {
+            for (int shard : targets) {
+                this.query(shard, ms, parameter, rowBounds, resultHandler, boundSql);
+            }
+            return null;
+        }
+        WrapperData data = wrapperData(parameter);
+        ShardMerger merger = new ShardMerger(method, data, rowBounds);
+        PagedOffset paged = data == null ? null : data.getPaged();
+        if (paged != null && !merger.isCount() && (merger.isAggregate() || paged.getOffset() > 0)) {
+            data.setPaged(merger.isAggregate() ? null : new PagedOffset(0, paged.getEndOffset()));
+            try {
+                boundSql = ms.getBoundSql(parameter);
+            } finally {
+                data.setPaged(paged);
+            }
+        }
+        BoundSql shardSql = boundSql;
+        List<CompletableFuture<List>> futures = new ArrayList<>(targets.size());
+        for (int shard : targets) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return this.query(shard, ms, parameter, RowBounds.DEFAULT, resultHandler, shardSql);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, this.executor()));
+        }
+        List<List> results = new ArrayList<>(targets.size());
+        try {
+            for (CompletableFuture<List> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() == null ? e : e.getCause();
+        }
+        return merger.merge(results);
+    }
+
+    private Object update(MappedStatement ms, String method, ShardField field, Object parameter) throws Exception {
+        if (springTransactionActive()) {
+            throw FluentMybatisException.instance("The statement[%s] on sharded entity can't be executed in transaction, " +
+                "the shards are written on auto-commit connections.", ms.getId());
+        }
+        switch (method) {
+            case M_batchCrud:
+                throw new FluentMybatisException("The batchCrud can't be executed on sharded entity.");
+            case M_Insert:
+            case M_Insert_With_Pk:
+                return this.update(this.shardOf(field.value((IEntity) parameter)), ms, parameter);
+            case M_InsertBatch:
+            case M_InsertBatch_With_Pk:
+                return this.insertBatch(ms, field, (Map<String, Object>) parameter);
+            default:
+                List<Integer> targets = this.targets(ms.getConfiguration(), field, ms.getBoundSql(parameter), parameter);
+                int count = 0;
+                for (int shard : targets) {
+                    count += this.update(shard, ms, parameter);
+                }
+                return count;
+        }
+    }
+
+    /**
+     * 按分片拆分批量插入的Entity列表
+     */
+    private int insertBatch(MappedStatement ms, ShardField field, Map<String, Object> parameter) throws Exception {
+        Collection entities = (Collection) parameter.get(Param_List);
+        Map<Integer, List> batches = new TreeMap<>();
+        for (Object entity : entities) {
+            batches.computeIfAbsent(this.shardOf(field.value((IEntity) entity)), key -> new ArrayList<>()).add(entity);
+        }
+        int count = 0;
+        for (Map.Entry<Integer, List> batch : batches.entrySet()) {
+            Map<String, Object> param = new MapperMethod.ParamMap<>();
+            for (Map.Entry<String, Object> entry : parameter.entrySet()) {
+                param.put(entry.getKey(), entry.getValue() == entities ? batch.getValue() : entry.getValue());
+            }
+            count += this.update(batch.getKey(), ms, param);
+        }
+        return count;
+    }
+
+    /**
+     * 在分片上执行查询
+     */
+    private List query(int shard, MappedStatement ms, Object parameter, RowBounds rowBounds,
+                       ResultHandler resultHandler, BoundSql boundSql) throws Exception {
+        Executor executor = this.newExecutor(ms, shard);
+        try {
+            return executor.query(ms, parameter, rowBounds, resultHandler,
+                executor.createCacheKey(ms, parameter, rowBounds, boundSql), boundSql);
+        } finally {
+            executor.close(false);
+        }
+    }
+
+    /**
+     * 流式查询: 只在单个分片上执行
+     */
+    private Cursor queryCursor(MappedStatement ms, ShardField field, Object parameter, RowBounds rowBounds) throws Exception {
+        List<Integer> targets = this.targets(ms.getConfiguration(), field, ms.getBoundSql(parameter), parameter);
+        if (targets.size() != 1) {
+            throw FluentMybatisException.instance("The streaming query[%s] on sharded entity must be routed to a single shard, " +
+                "but %s shards were matched.", ms.getId(), targets.size());
+        }
+        Executor executor = this.newExecutor(ms, targets.get(0));
+        try {
+            return new ShardCursor(executor.queryCursor(ms, parameter, rowBounds), executor);
+        } catch (Exception e) {
+            executor.close(false);
+            throw e;
+        }
+    }
+
+    /**
+     * 在分片上执行写操作
+     */
+    private int update(int shard, MappedStatement ms, Object parameter) throws Exception {
+        Executor executor = this.newExecutor(ms, shard);
+        try {
+            return executor.update(ms, parameter);
+        } finally {
+            executor.close(false);
+        }
+    }
+
+    private Executor newExecutor(MappedStatement ms, int shard) {
+        return new SimpleExecutor(ms.getConfiguration(), new JdbcTransaction(this.shards.get(shard), null, true));
+    }
+
+    /**
+     * 根据where条件中分片键的值确定执行的分片
+     * 只识别单条语句顶层 AND 连接的 分片键 = ? 或 分片键 IN (?, ...) 条件
+     *
+     * @return 分片号列表
+     */
+    private List<Integer> targets(Configuration configuration, ShardField field, BoundSql boundSql, Object parameter) {
+        List<Integer> all = new ArrayList<>(this.shards.size());
+        for (int index = 0; index < this.shards.size(); index++) {
+            all.add(index);
+        }
+        String sql = boundSql.getSql();
+        Matcher where = WHERE.matcher(sql);
+        if (this.shards.size() == 1 || sql.contains(";") || !where.find() || OR.matcher(sql).find()) {
+            return all;
+        }
+        Matcher select = SELECT.matcher(sql);
+        if (select.find() && select.find()) {
+            return all;
+        }
+        Matcher condition = field.condition.matcher(sql).region(where.end(), sql.length());
+        boolean found = false;
+        while (!found && condition.find()) {
+            found = isConjunct(sql, where.end(), condition.start());
+        }
+        if (!found) {
+            return all;
+        }
+        int index = count(sql, condition.start());
+        int size = count(condition.group(), condition.group().length());
+        Set<Integer> targets = new TreeSet<>();
+        for (int offset = 0; offset < size; offset++) {
+            targets.add(this.shardOf(value(configuration, boundSql, parameter, index + offset)));
+        }
+        return new ArrayList<>(targets);
+    }
+
+    /**
+     * 条件是否是WHERE下 AND 连接的顶层条件: 括号层级为0, 且紧跟在 WHERE 或 AND 之后
+     *
+     * @param sql   sql语句
+     * @param where WHERE关键字结束位置
+     * @param start 条件开始位置
+     * @return true: 顶层条件
+     */
+    private static boolean isConjunct(String sql, int where, int start) {
+        int depth = 0;
+        boolean quoted = false;
+        for (int index = where; index < start; index++) {
+            char ch = sql.charAt(index);
+            if (ch == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && ch == '(') {
+                depth++;
+            } else if (!quoted && ch == ')') {
+                depth--;
+            }
+        }
+        return depth == 0 && !quoted && CONJUNCT.matcher(sql.substring(0, start)).find();
+    }
+
+    /**
+     * sql前length个字符中占位符?的个数
+     */
+    private static int count(String sql, int length) {
+        int count = 0;
+        for (int index = 0; index < length; index++) {
+            if (sql.charAt(index) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 第index个占位符的参数值, 同 DefaultParameterHandler
+     */
+    private static Object value(Configuration configuration, BoundSql boundSql, Object parameter, int index) {
+        ParameterMapping mapping = boundSql.getParameterMappings().get(index);
+        String property = mapping.getProperty();
+        if (boundSql.hasAdditionalParameter(property)) {
+            return boundSql.getAdditionalParameter(property);
+        } else if (parameter == null) {
+            return null;
+        } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+            return parameter;
+        } else {
+            return configuration.newMetaObject(parameter).getValue(property);
+        }
+    }
+
+    private static WrapperData wrapperData(Object parameter) {
+        Object wrapper = parameter instanceof Map && ((Map) parameter).containsKey(Param_EW) ? ((Map) parameter).get(Param_EW) : null;
+        if (wrapper instanceof IWrapper) {
+            return ((IWrapper) wrapper).getWrapperData();
+        } else if (wrapper instanceof IQuery) {
+            return ((IQuery) wrapper).getWrapperData();
+        } else {
+            return null;
+        }
+    }
+
+    private static ShardField annotated(Class entityClass) {
+        for (Class klass = entityClass; klass != null && klass != Object.class; klass = klass.getSuperclass()) {
+            for (Field field : klass.getDeclaredFields()) {
+                if (field.getAnnotation(ShardKey.class) != null) {
+                    return new ShardField(field.getName(), IRefs.instance().findColumnByField(entityClass, field.getName()));
+                }
+            }
+        }
+        return NONE;
+    }
+
+    private java.util.concurrent.Executor executor() {
+        return this.executor == null ? SharedExecutor.instance() : this.executor;
+    }
+
+    private static final Method TRANSACTION_ACTIVE = transactionActiveMethod();
+
+    private static Method transactionActiveMethod() {
+        try {
+            return Class.forName("org.springframework.transaction.support.TransactionSynchronizationManager")
+                .getMethod("isActualTransactionActive");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 是否在spring事务中
+     */
+    private static boolean springTransactionActive() {
+        if (TRANSACTION_ACTIVE == null) {
+            return false;
+        }
+        try {
+            return (Boolean) TRANSACTION_ACTIVE.invoke(null);
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    /**
+     * 分片上的游标, 关闭游标时关闭分片的Executor(数据库连接)
+     */
+    private static class ShardCursor<T> implements Cursor<T> {
+        private final Cursor<T> cursor;
+
+        private final Executor executor;
+
+        ShardCursor(Cursor<T> cursor, Executor executor) {
+            this.cursor = cursor;
+            this.executor = executor;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return this.cursor.isOpen();
+        }
+
+        @Override
+        public boolean isConsumed() {
+            return this.cursor.isConsumed();
+        }
+
+        @Override
+        public int getCurrentIndex() {
+            return this.cursor.getCurrentIndex();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return this.cursor.iterator();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.cursor.close();
+            } finally {
+                this.executor.close(false);
+            }
+        }
+    }
+
+    /**
+     * 分片键
+     */
+    private static class ShardField {
+        final String field;
+        /**
+         * 条件: [alias.]column = ? 或 [alias.]column IN (?, ...)
+         */
+        final Pattern condition;
+
+        ShardField(String field, String column) {
+            if (field != null && column == null) {
+                throw FluentMybatisException.instance("The shard key field[%s] was not found.", field);
+            }
+            this.field = field;
+            this.condition = column == null ? null : Pattern.compile("(?<![\\w`\"])(?:\\w+\\.)?[`\"]?" + Pattern.quote(column) +
+                "[`\"]?\\s*(?:=\\s*\\?|IN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\))", Pattern.CASE_INSENSITIVE);
+        }
+
+        Object value(IEntity entity) {
+            return entity.toEntityMap(false).get(this.field);
+        }
+    }
+}
@@ -69,6 +69,15 @@ public enum DbType {
     @Getter
     public final DbFeature feature;
 
+    static {
+        ORACLE.feature.setMaxInSize(1000);
+        SQL_SERVER2005.feature.setMaxInSize(2000);
+        SQL_SERVER.feature.setMaxInSize(2000);
+        for (DbType dbType : new DbType[]{MYSQL, MARIADB, H2, SQLITE, DB2, HSQL, POSTGRE_SQL}) {
+            dbType.feature.setRowValueCompare(true);
+        }
+    }
+
     DbType(String alias, PagedFormat paged) {
         this.feature = new DbFeature(alias, paged);
     }
@@ -136,6 +145,42 @@ public enum DbType {
         this.feature.setPaged(new PagedFormat(pagedFormat));
     }
 
+    /**
+     * 设置单个IN列表的最大长度, 超过时拆分处理
+     *
+     * @param maxInSize 最大长度, 小于等于0表示不限制
+     */
+    public void setMaxInSize(int maxInSize) {
+        this.feature.setMaxInSize(maxInSize);
+    }
+
+    /**
+     * 单个IN列表的最大长度
+     *
+     * @return 最大长度, 小于等于0表示不限制
+     */
+    public int getMaxInSize() {
+        return this.feature.getMaxInSize();
+    }
+
+    /**
+     * 设置是否支持行值比较: (a, b) &gt; (?, ?)
+     *
+     * @param rowValueCompare true: 支持
+     */
+    public void setRowValueCompare(boolean rowValueCompare) {
+        this.feature.setRowValueCompare(rowValueCompare);
+    }
+
+    /**
+     * 是否支持行值比较: (a, b) &gt; (?, ?)
+     *
+     * @return true: 支持
+     */
+    public boolean isRowValueCompare() {
+        return this.feature.isRowValueCompare();
+    }
+
     /**
      * 获取数据库分页语法
      *
@@ -26,6 +26,14 @@ public class DbFeature {
     private String seq;
 
     private boolean before = false;
+    /**
+     * 单个IN列表的最大长度, 小于等于0表示不限制
+     */
+    private int maxInSize = 0;
+    /**
+     * 是否支持行值比较: (a, b) &gt; (?, ?)
+     */
+    private boolean rowValueCompare = false;
 
     public DbFeature(String name) {
         this(name, NONE_ESCAPE, MYSQL_LIMIT, null);
@@ -68,6 +76,8 @@ public class DbFeature {
             .setEscape(this.escape)
             .setPaged(this.paged)
             .setSeq(this.seq)
-            .setBefore(this.before);
+            .setBefore(this.before)
+            .setMaxInSize(this.maxInSize)
+            .setRowValueCompare(this.rowValueCompare);
     }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package cn.org.atool.fluent.mybatis.model;
+
+import lombok.Getter;
+import org.apache.ibatis.executor.BatchResult;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC batch方式批量插入结果
+ *
+ * @author darui.wu
+ */
+@Getter
+public class BatchInsertResult {
+    /**
+     * 插入记录数
+     * 驱动返回{@link Statement#SUCCESS_NO_INFO}时按1条计算
+     */
+    private int total;
+    /**
+     * 每次提交(executeBatch)的各条记录影响行数
+     */
+    private final List<int[]> batchCounts = new ArrayList<>();
+
+    /**
+     * 累计一次提交的结果
+     *
+     * @param results flushStatements返回结果
+     * @return ignore
+     */
+    public BatchInsertResult add(List<BatchResult> results) {
+        for (BatchResult result : results) {
+            int[] counts = result.getUpdateCounts();
+            this.batchCounts.add(counts);
+            for (int count : counts) {
+                if (count > 0) {
+                    this.total += count;
+                } else if (count == Statement.SUCCESS_NO_INFO) {
+                    this.total++;
+                }
+            }
+        }
+        return this;
+    }
+}
@@ -0,0 +1,67 @@
+package cn.org.atool.fluent.mybatis.model;
+
+import lombok.Getter;
+import org.apache.ibatis.executor.BatchResult;
+
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * JDBC batch方式批量更新结果
+ *
+ * @author darui.wu
+ */
+@Getter
+public class BatchUpdateResult {
+    /**
+     * 更新记录数
+     * 驱动返回{@link Statement#SUCCESS_NO_INFO}时按1条计算
+     */
+    private int total;
+    /**
+     * 按实例顺序, 每个实例更新语句的影响行数
+     */
+    private final int[] rowCounts;
+
+    private int index = 0;
+
+    public BatchUpdateResult(int size) {
+        this.rowCounts = new int[size];
+    }
+
+    /**
+     * 累计一次提交的结果
+     *
+     * @param results flushStatements返回结果
+     * @return ignore
+     */
+    public BatchUpdateResult add(List<BatchResult> results) {
+        for (BatchResult result : results) {
+            for (int count : result.getUpdateCounts()) {
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    count = 1;
+                }
+                this.rowCounts[index++] = count;
+                if (count > 0) {
+                    this.total += count;
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 是否所有实例都更新成功
+     * 有版本锁字段时, 版本不匹配的实例影响行数为0
+     *
+     * @return ignore
+     */
+    public boolean isAllUpdated() {
+        for (int count : rowCounts) {
+            if (count <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
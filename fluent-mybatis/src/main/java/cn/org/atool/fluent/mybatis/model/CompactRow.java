@@ -0,0 +1,96 @@
+package cn.org.atool.fluent.mybatis.model;
+
+import java.util.*;
+
+/**
+ * 紧凑的只读记录Map: 共享结果集的字段索引{@link RowIndex}, 每条记录只保存一个值数组
+ * <pre>
+ * 和mybatis将记录映射为HashMap的结果一致: 值为null的字段不作为key出现
+ * 修改操作抛出{@link UnsupportedOperationException}
+ * </pre>
+ *
+ * @author darui.wu
+ */
+public final class CompactRow extends AbstractMap<String, Object> {
+    private final RowIndex index;
+
+    private final Object[] values;
+    /**
+     * 非null值数量
+     */
+    private final int size;
+
+    public CompactRow(RowIndex index, Object[] values) {
+        this.index = index;
+        this.values = values;
+        int count = 0;
+        for (Object value : values) {
+            if (value != null) {
+                count++;
+            }
+        }
+        this.size = count;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int i = this.index.indexOf(key);
+        return i < 0 ? null : this.values[i];
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.get(key) != null;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return CompactRow.this.size;
+            }
+        };
+    }
+
+    private class EntryIterator implements Iterator<Entry<String, Object>> {
+        private int next = this.skip(0);
+
+        private int skip(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < values.length;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int i = this.next;
+            this.next = this.skip(i + 1);
+            return new SimpleImmutableEntry<>(index.name(i), values[i]);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package cn.org.atool.fluent.mybatis.model;
+
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 列式存储的查询结果: 每个字段一个值数组, 遍历记录时不创建单条记录的Map
+ * <pre>
+ * 字段取值和TypeHandler选择规则同listMaps, 所有记录都为null的字段不出现在结果中
+ * 遍历方式:
+ * table.forEach(row -> {
+ *     Object id = row.get("id");
+ *     ...
+ * });
+ * </pre>
+ *
+ * @author darui.wu
+ */
+public class ResultTable {
+    private final RowIndex index;
+    /**
+     * [字段下标][记录下标]
+     */
+    private final Object[][] data;
+
+    private final int size;
+
+    private ResultTable(RowIndex index, Object[][] data, int size) {
+        this.index = index;
+        this.data = data;
+        this.size = size;
+    }
+
+    /**
+     * 按列收集查询结果的ResultHandler, 单条记录的Map用完即丢弃
+     */
+    public static class Collector implements ResultHandler<Map<String, Object>> {
+        /**
+         * 字段名称 - 字段下标, 按字段第一次出现的顺序
+         */
+        private final Map<String, Integer> columns = new LinkedHashMap<>();
+
+        private final List<Object[]> data = new ArrayList<>();
+
+        private int capacity = 16;
+
+        private int size;
+
+        @Override
+        public void handleResult(ResultContext<? extends Map<String, Object>> context) {
+            if (this.size == this.capacity) {
+                this.capacity = this.capacity * 2;
+                this.data.replaceAll(values -> Arrays.copyOf(values, this.capacity));
+            }
+            Map<String, Object> row = context.getResultObject();
+            if (row != null) {
+                for (Map.Entry<String, Object> entry : row.entrySet()) {
+                    Integer col = this.columns.get(entry.getKey());
+                    if (col == null) {
+                        col = this.data.size();
+                        this.columns.put(entry.getKey(), col);
+                        this.data.add(new Object[this.capacity]);
+                    }
+                    this.data.get(col)[this.size] = entry.getValue();
+                }
+            }
+            this.size++;
+        }
+
+        /**
+         * 返回收集的结果
+         *
+         * @return ResultTable
+         */
+        public ResultTable table() {
+            return new ResultTable(RowIndex.of(this.columns.keySet()), this.data.toArray(new Object[0][]), this.size);
+        }
+    }
+
+    /**
+     * 字段名称列表
+     *
+     * @return 字段名称
+     */
+    public List<String> columns() {
+        return this.index.names();
+    }
+
+    /**
+     * 记录数
+     *
+     * @return 记录数
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * 返回第row条记录column字段的值
+     *
+     * @param row    记录下标
+     * @param column 字段名称
+     * @return 字段值, 字段不存在时返回null
+     */
+    public Object get(int row, String column) {
+        this.checkRow(row);
+        int col = this.index.indexOf(column);
+        return col < 0 ? null : this.data[col][row];
+    }
+
+    /**
+     * 返回字段的所有值
+     *
+     * @param column 字段名称
+     * @return 只读的值列表
+     */
+    public List<Object> column(String column) {
+        int col = this.index.indexOf(column);
+        if (col < 0) {
+            throw new IllegalArgumentException("the column[" + column + "] not found in " + this.columns() + ".");
+        }
+        return Collections.unmodifiableList(Arrays.asList(this.data[col]).subList(0, this.size));
+    }
+
+    /**
+     * 返回第row条记录, 每次调用创建新的{@link CompactRow}
+     *
+     * @param row 记录下标
+     * @return 只读的记录Map
+     */
+    public Map<String, Object> row(int row) {
+        this.checkRow(row);
+        Object[] values = new Object[this.data.length];
+        for (int col = 0; col < values.length; col++) {
+            values[col] = this.data[col][row];
+        }
+        return new CompactRow(this.index, values);
+    }
+
+    /**
+     * 转换为记录列表
+     *
+     * @return 只读的记录Map列表
+     */
+    public List<Map<String, Object>> toMaps() {
+        List<Map<String, Object>> list = new ArrayList<>(this.size);
+        for (int row = 0; row < this.size; row++) {
+            list.add(this.row(row));
+        }
+        return list;
+    }
+
+    /**
+     * 逐条遍历记录, 回调参数row在遍历过程中复用, 不能在回调外保存
+     *
+     * @param consumer 记录处理
+     */
+    public void forEach(Consumer<Row> consumer) {
+        Row cursor = new Row();
+        for (int row = 0; row < this.size; row++) {
+            cursor.row = row;
+            consumer.accept(cursor);
+        }
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= this.size) {
+            throw new IndexOutOfBoundsException("row: " + row + ", size: " + this.size);
+        }
+    }
+
+    /**
+     * 遍历时的当前记录
+     */
+    public class Row {
+        private int row;
+
+        /**
+         * 当前记录下标
+         *
+         * @return 记录下标
+         */
+        public int index() {
+            return this.row;
+        }
+
+        /**
+         * 当前记录column字段的值
+         *
+         * @param column 字段名称
+         * @return 字段值, 字段不存在时返回null
+         */
+        public Object get(String column) {
+            int col = ResultTable.this.index.indexOf(column);
+            return col < 0 ? null : ResultTable.this.data[col][this.row];
+        }
+
+        /**
+         * 当前记录第col个字段的值
+         *
+         * @param col 字段下标, 对应{@link ResultTable#columns()}
+         * @return 字段值
+         */
+        public Object get(int col) {
+            return ResultTable.this.data[col][this.row];
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package cn.org.atool.fluent.mybatis.model;
+
+import org.apache.ibatis.executor.resultset.ResultSetWrapper;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * 结果集字段索引, 同一个结果集的所有记录共享
+ * <pre>
+ * 1. 字段名称(useColumnLabel时为别名)和位置的映射
+ * 2. 每个字段的TypeHandler, 和mybatis将记录映射为Map时的选择规则一致
+ * 3. 同名字段取第一个字段的值, 和mybatis按字段名称取值一致
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings("rawtypes")
+public final class RowIndex {
+    /**
+     * 去重后的字段名称
+     */
+    private final String[] names;
+    /**
+     * 字段名称 - names下标
+     */
+    private final Map<String, Integer> index;
+    /**
+     * names中各字段在结果集中的位置(从1开始)
+     */
+    private final int[] positions;
+
+    private final TypeHandler[] handlers;
+
+    private RowIndex(String[] names, Map<String, Integer> index, int[] positions, TypeHandler[] handlers) {
+        this.names = names;
+        this.index = index;
+        this.positions = positions;
+        this.handlers = handlers;
+    }
+
+    /**
+     * 根据结果集元数据构造字段索引
+     *
+     * @param rs            结果集
+     * @param configuration mybatis配置
+     * @return RowIndex
+     * @throws SQLException 读取元数据异常
+     */
+    public static RowIndex of(ResultSet rs, Configuration configuration) throws SQLException {
+        ResultSetWrapper rsw = new ResultSetWrapper(rs, configuration);
+        Map<String, Integer> first = new LinkedHashMap<>();
+        List<String> columns = rsw.getColumnNames();
+        for (int col = 0; col < columns.size(); col++) {
+            first.putIfAbsent(columns.get(col), col + 1);
+        }
+        String[] names = first.keySet().toArray(new String[0]);
+        Map<String, Integer> index = new HashMap<>(names.length * 4 / 3 + 1);
+        int[] positions = new int[names.length];
+        TypeHandler[] handlers = new TypeHandler[names.length];
+        for (int i = 0; i < names.length; i++) {
+            index.put(names[i], i);
+            positions[i] = first.get(names[i]);
+            handlers[i] = rsw.getTypeHandler(Object.class, names[i]);
+        }
+        return new RowIndex(names, index, positions, handlers);
+    }
+
+    /**
+     * 只有字段名称的索引, 不能用于{@link #read(ResultSet)}
+     *
+     * @param names 去重后的字段名称
+     * @return RowIndex
+     */
+    public static RowIndex of(Collection<String> names) {
+        String[] array = names.toArray(new String[0]);
+        Map<String, Integer> index = new HashMap<>(array.length * 4 / 3 + 1);
+        for (int i = 0; i < array.length; i++) {
+            index.put(array[i], i);
+        }
+        return new RowIndex(array, index, null, null);
+    }
+
+    /**
+     * 字段数量
+     *
+     * @return 去重后的字段数量
+     */
+    public int size() {
+        return this.names.length;
+    }
+
+    /**
+     * 第i个字段名称
+     *
+     * @param i 字段下标
+     * @return 字段名称
+     */
+    public String name(int i) {
+        return this.names[i];
+    }
+
+    /**
+     * 字段名称列表
+     *
+     * @return 字段名称列表
+     */
+    public List<String> names() {
+        return Collections.unmodifiableList(Arrays.asList(this.names));
+    }
+
+    /**
+     * 字段下标
+     *
+     * @param name 字段名称
+     * @return 不存在时返回-1
+     */
+    public int indexOf(Object name) {
+        Integer i = this.index.get(name);
+        return i == null ? -1 : i;
+    }
+
+    /**
+     * 读取结果集当前记录
+     *
+     * @param rs 结果集
+     * @return 按字段下标排列的值
+     * @throws SQLException 读取异常
+     */
+    public Object[] read(ResultSet rs) throws SQLException {
+        Object[] values = new Object[this.names.length];
+        for (int i = 0; i < this.names.length; i++) {
+            values[i] = this.handlers[i].getResult(rs, this.positions[i]);
+        }
+        return values;
+    }
+}
@@ -24,6 +24,11 @@ public class TagPagedList<E> implements IPagedList<E> {
      * next != null: 可以用来构造具体的marker值传递到下一个查询
      */
     private E next;
+    /**
+     * 游标(keyset)分页时, 下一页的续查标识
+     * nextToken == null: 表示没有更多记录
+     */
+    private String nextToken;
 
     public TagPagedList() {
     }
@@ -33,6 +38,11 @@ public class TagPagedList<E> implements IPagedList<E> {
         this.next = next;
     }
 
+    public TagPagedList(List<E> list, E next, String nextToken) {
+        this(list, next);
+        this.nextToken = nextToken;
+    }
+
     /**
      * 构造next标识
      *
@@ -5,7 +5,7 @@ import lombok.AccessLevel;
 import lombok.Getter;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static cn.org.atool.fluent.mybatis.mapper.StrConstant.EMPTY;
@@ -17,11 +17,40 @@ import static java.util.stream.Collectors.joining;
  * @author darui.wu
  */
 public abstract class BaseSegmentList {
+    private static final List<ISqlSegment> EMPTY_SEGMENTS = Collections.emptyList();
     /**
-     * sql片段列表
+     * 共享的只读空实例使用的片段列表, 不能添加片段
+     */
+    private static final List<ISqlSegment> READONLY_SEGMENTS = Collections.unmodifiableList(new ArrayList<>(0));
+    /**
+     * sql片段列表, 第一次添加片段时创建
      */
     @Getter
-    protected final List<ISqlSegment> segments = new ArrayList<>();
+    protected List<ISqlSegment> segments = EMPTY_SEGMENTS;
+
+    /**
+     * 返回可添加片段的列表
+     *
+     * @return sql片段列表
+     */
+    protected List<ISqlSegment> mutableSegments() {
+        if (this.segments == EMPTY_SEGMENTS) {
+            this.segments = new ArrayList<>(8);
+        }
+        return this.segments;
+    }
+
+    /**
+     * 转换为只读的空实例, 用于多个查询共享, 添加片段时抛出UnsupportedOperationException
+     *
+     * @param list 空的片段列表
+     * @param <T>  片段列表类型
+     * @return list
+     */
+    protected static <T extends BaseSegmentList> T readonly(T list) {
+        list.segments = READONLY_SEGMENTS;
+        return list;
+    }
 
     public boolean isEmpty() {
         return segments.isEmpty();
@@ -43,7 +72,10 @@ public abstract class BaseSegmentList {
      * @return self
      */
     protected final BaseSegmentList addAll(ISqlSegment... sqlSegments) {
-        this.segments.addAll(Arrays.asList(sqlSegments));
+        List<ISqlSegment> list = this.mutableSegments();
+        for (ISqlSegment segment : sqlSegments) {
+            list.add(segment);
+        }
         cache = null;
         return this;
     }
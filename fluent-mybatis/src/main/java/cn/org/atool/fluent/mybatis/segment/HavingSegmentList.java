@@ -16,7 +16,7 @@ public class HavingSegmentList extends BaseSegmentList {
     @Override
     public BaseSegmentList add(ISqlSegment first, ISqlSegment... sqlSegments) {
         if (!this.segments.isEmpty()) {
-            this.segments.add(AND);
+            this.mutableSegments().add(AND);
         }
         return super.addAll(sqlSegments);
     }
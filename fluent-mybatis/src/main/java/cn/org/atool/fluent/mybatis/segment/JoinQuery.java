@@ -11,11 +11,11 @@ import cn.org.atool.fluent.mybatis.utility.MybatisUtil;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 
-import java.lang.reflect.Constructor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 联合查询条件
@@ -163,15 +163,27 @@ public class JoinQuery<QL extends BaseQuery<?, QL>>
         return this.where;
     }
 
-    private static final Map<Class, Constructor> QueryAliasConstructors = new HashMap<>(128);
+    /**
+     * Query类 - 构造函数Query(String alias)句柄, 命中时无锁
+     */
+    private static final ClassValue<MethodHandle> QueryAliasConstructors = new ClassValue<MethodHandle>() {
+        @Override
+        protected MethodHandle computeValue(Class<?> queryClass) {
+            try {
+                return MethodHandles.publicLookup()
+                    .findConstructor(queryClass, MethodType.methodType(void.class, String.class))
+                    .asType(MethodType.methodType(Object.class, String.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        }
+    };
 
     private static <Q extends BaseQuery<?, Q>> Q newQuery(Class<Q> queryClass, String alias) {
         try {
-            if (!QueryAliasConstructors.containsKey(queryClass)) {
-                QueryAliasConstructors.put(queryClass, queryClass.getConstructor(String.class));
-            }
-            return (Q) QueryAliasConstructors.get(queryClass).newInstance(alias);
-        } catch (Exception e) {
+            Object query = QueryAliasConstructors.get(queryClass).invokeExact(alias);
+            return (Q) query;
+        } catch (Throwable e) {
             throw new RuntimeException(String.format("new %s(String, ParameterPair) error: %s",
                 queryClass.getSimpleName(), e.getMessage()), e);
         }
@@ -51,14 +51,14 @@ public class JoinWrapperData extends WrapperData {
         if (selectMerged) {
             return super.getSqlSelect();
         }
-        this.sqlSelect.addAll(this.query.wrapperData.sqlSelect());
+        this.sqlSelect().addAll(this.query.wrapperData.sqlSelect());
         for (BaseQuery query : this.queries) {
-            this.sqlSelect.addAll(query.wrapperData.sqlSelect());
+            this.sqlSelect().addAll(query.wrapperData.sqlSelect());
         }
-        if (this.sqlSelect.isEmpty()) {
-            this.query.allFields().forEach(c -> this.sqlSelect.add(alias(query.tableAlias, (String) c)));
+        if (this.sqlSelect().isEmpty()) {
+            this.query.allFields().forEach(c -> this.sqlSelect().add(alias(query.tableAlias, (String) c)));
             for (BaseQuery query : this.queries) {
-                query.allFields().forEach(c -> this.sqlSelect.add(alias(query.tableAlias, (String) c)));
+                query.allFields().forEach(c -> this.sqlSelect().add(alias(query.tableAlias, (String) c)));
             }
         }
         selectMerged = true;
@@ -72,9 +72,9 @@ public class JoinWrapperData extends WrapperData {
         if (whereMerged) {
             return super.getWhereSql();
         }
-        this.mergeSegments.getWhere().add(KeyWordSegment.AND, this.query.wrapperData.whereSegments());
+        this.mergeSegments.mutableWhere().add(KeyWordSegment.AND, this.query.wrapperData.whereSegments());
         for (BaseQuery query : this.queries) {
-            this.mergeSegments.getWhere().add(KeyWordSegment.AND, query.wrapperData.whereSegments());
+            this.mergeSegments.mutableWhere().add(KeyWordSegment.AND, query.wrapperData.whereSegments());
         }
         whereMerged = true;
         return super.getWhereSql();
@@ -87,15 +87,15 @@ public class JoinWrapperData extends WrapperData {
         if (groupByMerged) {
             return super.getGroupBy();
         }
-        this.query.wrapperData.getMergeSegments().getGroupBy().getSegments().forEach(this.mergeSegments.getGroupBy()::addAll);
-        this.query.wrapperData.getMergeSegments().getHaving().getSegments().forEach(this.mergeSegments.getHaving()::addAll);
+        this.query.wrapperData.getMergeSegments().getGroupBy().getSegments().forEach(this.mergeSegments.mutableGroupBy()::addAll);
+        this.query.wrapperData.getMergeSegments().getHaving().getSegments().forEach(this.mergeSegments.mutableHaving()::addAll);
         for (BaseQuery query : this.queries) {
-            query.wrapperData.getMergeSegments().getGroupBy().getSegments().forEach(this.mergeSegments.getGroupBy()::addAll);
+            query.wrapperData.getMergeSegments().getGroupBy().getSegments().forEach(this.mergeSegments.mutableGroupBy()::addAll);
             if (!this.mergeSegments.getHaving().isEmpty() &&
                 !query.wrapperData.getMergeSegments().getHaving().getSegments().isEmpty()) {
-                this.mergeSegments.getHaving().addAll(KeyWordSegment.AND);
+                this.mergeSegments.mutableHaving().addAll(KeyWordSegment.AND);
             }
-            query.wrapperData.getMergeSegments().getHaving().getSegments().forEach(this.mergeSegments.getHaving()::addAll);
+            query.wrapperData.getMergeSegments().getHaving().getSegments().forEach(this.mergeSegments.mutableHaving()::addAll);
         }
         this.groupByMerged = true;
         return super.getGroupBy();
@@ -108,9 +108,9 @@ public class JoinWrapperData extends WrapperData {
         if (orderByMerged) {
             return super.getOrderBy();
         }
-        this.query.wrapperData.getMergeSegments().getOrderBy().getSegments().forEach(this.mergeSegments.getOrderBy()::addAll);
+        this.query.wrapperData.getMergeSegments().getOrderBy().getSegments().forEach(this.mergeSegments.mutableOrderBy()::addAll);
         for (BaseQuery query : this.queries) {
-            query.wrapperData.getMergeSegments().getOrderBy().getSegments().forEach(this.mergeSegments.getOrderBy()::addAll);
+            query.wrapperData.getMergeSegments().getOrderBy().getSegments().forEach(this.mergeSegments.mutableOrderBy()::addAll);
         }
         orderByMerged = true;
         return super.getOrderBy();
@@ -8,10 +8,6 @@ import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
 import java.util.stream.Stream;
 
 import static cn.org.atool.fluent.mybatis.If.isBlank;
-import static cn.org.atool.fluent.mybatis.base.model.Column.EMPTY_COLUMN;
-import static cn.org.atool.fluent.mybatis.base.model.SqlOp.RETAIN;
-import static cn.org.atool.fluent.mybatis.mapper.StrConstant.*;
-import static cn.org.atool.fluent.mybatis.segment.model.KeyWordSegment.ORDER_BY;
 
 /**
  * BaseOrder: 排序对象基类
@@ -161,9 +157,12 @@ public abstract class OrderByBase<
         if (isBlank(column)) {
             return;
         }
-        Column _column = Column.column(column, this.wrapper);
-        String segment = _column.wrapColumn() + SPACE + (isAsc ? ASC : DESC);
-        this.wrapper.getWrapperData().apply(ORDER_BY, EMPTY_COLUMN, RETAIN, segment);
+        int dot = column.lastIndexOf('.');
+        String field = dot < 0 ? column : column.substring(dot + 1);
+        if (this.wrapper.dbType() != null) {
+            field = this.wrapper.dbType().unwrap(field);
+        }
+        this.wrapper.getWrapperData().orderBy(Column.column(column, this.wrapper), field, isAsc);
     }
 
     /**
@@ -2,15 +2,18 @@ package cn.org.atool.fluent.mybatis.segment;
 
 import cn.org.atool.fluent.mybatis.base.crud.IBaseQuery;
 import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.base.model.Column;
 import cn.org.atool.fluent.mybatis.base.model.ISqlOp;
 import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
 import cn.org.atool.fluent.mybatis.functions.QFunction;
 import cn.org.atool.fluent.mybatis.ifs.Ifs;
 import cn.org.atool.fluent.mybatis.ifs.IfsPredicate;
+import cn.org.atool.fluent.mybatis.metadata.DbType;
 import cn.org.atool.fluent.mybatis.segment.where.BooleanWhere;
 import cn.org.atool.fluent.mybatis.segment.where.NumericWhere;
 import cn.org.atool.fluent.mybatis.segment.where.ObjectWhere;
 import cn.org.atool.fluent.mybatis.segment.where.StringWhere;
+import cn.org.atool.fluent.mybatis.utility.InListHelper;
 import cn.org.atool.fluent.mybatis.utility.NestedQueryFactory;
 
 import java.util.Collection;
@@ -61,17 +64,39 @@ public class WhereApply<
                 Object[] arr = ((Collection) value).toArray();
                 assertNotEmpty(this.current().name, arr);
                 if (arr.length > 1) {
-                    return this.segment.apply(this.column(), IN, arr);
+                    return this.applyIn(IN, arr);
                 } else {
                     value = arr[0];
                 }
             }
             return this.segment.apply(this.column(), EQ, value);
+        } else if (op == IN || op == NOT_IN) {
+            return this.applyIn(op, args);
         } else {
             return this.segment.apply(this.column(), op, (Object[]) args);
         }
     }
 
+    /**
+     * column [NOT] IN (...)
+     * 列表长度超过数据库上限时, 拆分为 (column IN (...) OR column IN (...))
+     *
+     * @param op   IN 或 NOT_IN
+     * @param args 值列表
+     * @return 查询器或更新器
+     */
+    private WHERE applyIn(ISqlOp op, Object[] args) {
+        DbType dbType = this.segment.wrapper.dbType();
+        Object[] values = InListHelper.pad(args);
+        if (dbType == null || dbType.getMaxInSize() <= 0 || values.length <= dbType.getMaxInSize()) {
+            return this.segment.apply(this.column(), op, args);
+        }
+        Column column = this.column();
+        String sql = InListHelper.in(column.wrapColumn(), op == NOT_IN, values.length, dbType.getMaxInSize(), index -> "?");
+        /* 按字段参数化, 保留字段的typeHandler和javaType **/
+        return this.segment.applyFunc(this.segment.wrapper.getWrapperData().paramSql(column, sql, values));
+    }
+
     @Override
     public <T> WHERE apply(ISqlOp op, Ifs<T> ifs) {
         /* 重载（实际入参为null）时兼容处理 **/
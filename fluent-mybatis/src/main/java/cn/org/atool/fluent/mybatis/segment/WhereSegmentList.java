@@ -6,6 +6,7 @@ import cn.org.atool.fluent.mybatis.segment.model.ISqlSegment;
 import static cn.org.atool.fluent.mybatis.mapper.StrConstant.EMPTY;
 import static cn.org.atool.fluent.mybatis.mapper.StrConstant.SPACE;
 import static cn.org.atool.fluent.mybatis.segment.model.KeyWordSegment.AND;
+import static cn.org.atool.fluent.mybatis.segment.model.KeyWordSegment.OR;
 
 /**
  * 普通片段
@@ -21,13 +22,13 @@ public class WhereSegmentList extends BaseSegmentList {
         }
         if (first.isAndOr()) {
             if (!this.segments.isEmpty() && !this.lastIsAndOr()) {
-                this.segments.add(first);
+                this.mutableSegments().add(first);
             }
         } else {
             if (!this.segments.isEmpty() && !this.lastIsAndOr()) {
-                this.segments.add(AND);
+                this.mutableSegments().add(AND);
             }
-            this.segments.add(first);
+            this.mutableSegments().add(first);
         }
         super.addAll(segments);
         return this;
@@ -42,6 +43,20 @@ public class WhereSegmentList extends BaseSegmentList {
         return !this.segments.isEmpty() && this.segments.get(this.segments.size() - 1).isAndOr();
     }
 
+    /**
+     * 顶层条件有OR连接时, 用括号包裹全部条件, 保证后续追加的AND条件作用于整体
+     */
+    public void bracketIfHasOr() {
+        if (this.lastIsAndOr()) {
+            this.mutableSegments().remove(this.segments.size() - 1);
+        }
+        if (this.segments.contains(OR)) {
+            this.mutableSegments().add(0, () -> "(");
+            this.mutableSegments().add(() -> ")");
+            super.cache = null;
+        }
+    }
+
     /**
      * 示例: column1 = ? AND column2 = ?
      *
@@ -50,7 +65,7 @@ public class WhereSegmentList extends BaseSegmentList {
     @Override
     public String build() {
         if (this.lastIsAndOr()) {
-            this.segments.remove(this.segments.size() - 1);
+            this.mutableSegments().remove(this.segments.size() - 1);
         }
         return super.merge(EMPTY, SPACE);
     }
@@ -18,14 +18,84 @@ import static cn.org.atool.fluent.mybatis.utility.MybatisUtil.trim;
  */
 @Getter
 public class MergeSegments extends BaseSegmentList {
+    /**
+     * 未设置片段时, 读取方法返回的共享只读空实例
+     */
+    private static final WhereSegmentList EMPTY_WHERE = readonly(new WhereSegmentList());
+
+    private static final GroupBySegmentList EMPTY_GROUP_BY = readonly(new GroupBySegmentList());
+
+    private static final HavingSegmentList EMPTY_HAVING = readonly(new HavingSegmentList());
+
+    private static final OrderBySegmentList EMPTY_ORDER_BY = readonly(new OrderBySegmentList());
+    /**
+     * 各部分片段列表在第一次添加片段时创建
+     */
+    @Getter(AccessLevel.NONE)
+    private WhereSegmentList where;
+
+    @Getter(AccessLevel.NONE)
+    private GroupBySegmentList groupBy;
+
+    @Getter(AccessLevel.NONE)
+    private HavingSegmentList having;
+
+    @Getter(AccessLevel.NONE)
+    private OrderBySegmentList orderBy;
+
+    /**
+     * where条件片段, 没有条件时返回只读空实例
+     *
+     * @return WhereSegmentList
+     */
+    public WhereSegmentList getWhere() {
+        return this.where == null ? EMPTY_WHERE : this.where;
+    }
+
+    public GroupBySegmentList getGroupBy() {
+        return this.groupBy == null ? EMPTY_GROUP_BY : this.groupBy;
+    }
 
-    private final WhereSegmentList where = new WhereSegmentList();
+    public HavingSegmentList getHaving() {
+        return this.having == null ? EMPTY_HAVING : this.having;
+    }
 
-    private final GroupBySegmentList groupBy = new GroupBySegmentList();
+    public OrderBySegmentList getOrderBy() {
+        return this.orderBy == null ? EMPTY_ORDER_BY : this.orderBy;
+    }
 
-    private final HavingSegmentList having = new HavingSegmentList();
+    /**
+     * 返回可添加片段的where条件片段
+     *
+     * @return WhereSegmentList
+     */
+    public WhereSegmentList mutableWhere() {
+        if (this.where == null) {
+            this.where = new WhereSegmentList();
+        }
+        return this.where;
+    }
 
-    private final OrderBySegmentList orderBy = new OrderBySegmentList();
+    public GroupBySegmentList mutableGroupBy() {
+        if (this.groupBy == null) {
+            this.groupBy = new GroupBySegmentList();
+        }
+        return this.groupBy;
+    }
+
+    public HavingSegmentList mutableHaving() {
+        if (this.having == null) {
+            this.having = new HavingSegmentList();
+        }
+        return this.having;
+    }
+
+    public OrderBySegmentList mutableOrderBy() {
+        if (this.orderBy == null) {
+            this.orderBy = new OrderBySegmentList();
+        }
+        return this.orderBy;
+    }
 
     @Setter(AccessLevel.NONE)
     private String lastSql = EMPTY;
@@ -47,13 +117,13 @@ public class MergeSegments extends BaseSegmentList {
             return this;
         }
         if (ORDER_BY == first) {
-            orderBy.add(first, segments);
+            this.mutableOrderBy().add(first, segments);
         } else if (GROUP_BY == first) {
-            groupBy.add(first, segments);
+            this.mutableGroupBy().add(first, segments);
         } else if (HAVING == first) {
-            having.add(first, segments);
+            this.mutableHaving().add(first, segments);
         } else {
-            where.add(first, segments);
+            this.mutableWhere().add(first, segments);
         }
         super.cache = null;
         return this;
@@ -74,7 +144,7 @@ public class MergeSegments extends BaseSegmentList {
      */
     @Override
     protected String build() {
-        String sql = where.sql() + groupBy.sql() + having.sql() + orderBy.sql();
+        String sql = sql(where) + sql(groupBy) + sql(having) + sql(orderBy);
         return sql.trim() + last();
     }
 
@@ -88,7 +158,7 @@ public class MergeSegments extends BaseSegmentList {
      * @return ignore
      */
     public String whereSql() {
-        return trim(where.sql());
+        return trim(sql(where));
     }
 
     /**
@@ -97,7 +167,7 @@ public class MergeSegments extends BaseSegmentList {
      * @return ignore
      */
     public String groupBy() {
-        return trim(groupBy.sql() + having.sql());
+        return trim(sql(groupBy) + sql(having));
     }
 
     /**
@@ -106,6 +176,10 @@ public class MergeSegments extends BaseSegmentList {
      * @return ignore
      */
     public String orderBy() {
-        return trim(orderBy.sql());
+        return trim(sql(orderBy));
+    }
+
+    private static String sql(BaseSegmentList list) {
+        return list == null ? EMPTY : list.sql();
     }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package cn.org.atool.fluent.mybatis.segment.model;
+
+import lombok.Getter;
+
+/**
+ * 排序字段, 供游标(keyset)分页构造定位条件
+ *
+ * @author darui.wu
+ */
+@Getter
+public class OrderByKey {
+    /**
+     * 字段名称, 不包含表别名和转义符
+     */
+    private final String column;
+    /**
+     * sql语句中的字段: [t.]`column`
+     */
+    private final String sqlColumn;
+    /**
+     * 是否正序
+     */
+    private final boolean asc;
+
+    public OrderByKey(String column, String sqlColumn, boolean asc) {
+        this.column = column;
+        this.sqlColumn = sqlColumn;
+        this.asc = asc;
+    }
+}
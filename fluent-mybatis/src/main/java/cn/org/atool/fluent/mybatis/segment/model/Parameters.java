@@ -5,34 +5,48 @@ import cn.org.atool.fluent.mybatis.base.crud.IWrapper;
 import cn.org.atool.fluent.mybatis.base.model.Column;
 import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
 
-import java.lang.ref.WeakReference;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static cn.org.atool.fluent.mybatis.mapper.FluentConst.Param_EW;
 
 
 /**
  * ParameterPair: 自定义参数列表
+ * <pre>
+ * join查询和子查询共享同一个参数区(arena): 共享后所有参与者的变量都存放在根语句的参数区中,
+ * 任一参与者的读写都直接落到参数区, 不再在各个Map间复制变量
+ * </pre>
  *
  * @author darui.wu 2020/6/19 1:53 下午
  */
-public class Parameters extends HashMap<String, Object> {
+public class Parameters extends AbstractMap<String, Object> {
     /**
      * 全局实例化的Parameters序号
      */
     private static final AtomicLong globalSeq = new AtomicLong(0);
+    /**
+     * 每个线程一次从globalSeq中预取的序号个数, 避免每个实例都争用globalSeq
+     */
+    private static final int SEQ_BLOCK = 1024;
+    /**
+     * 线程预取的序号段: [当前序号, 序号段结束值]
+     */
+    private static final ThreadLocal<long[]> localSeq = ThreadLocal.withInitial(() -> new long[2]);
     /**
      * join表别名序号
      */
     private static final AtomicLong alias = new AtomicLong(0);
     /**
      * 当前实例序号, 具有全局唯一性, 保证变量的唯一性
+     * 在第一次设置变量时分配, 0表示未分配
      */
-    private final long instanceNo = globalSeq.incrementAndGet();
+    private long instanceNo = 0;
     /**
      * 自定义参数序号
      */
-    private final AtomicInteger sequence = new AtomicInteger();
+    private int sequence = 0;
 
     /**
      * 自动分配表别名
@@ -44,7 +58,6 @@ public class Parameters extends HashMap<String, Object> {
     }
 
     public Parameters() {
-        super(16);
     }
 
     /**
@@ -109,72 +122,231 @@ public class Parameters extends HashMap<String, Object> {
      * @return 占位符
      */
     public String putParameter(Column column, Object para) {
-        String paramName = WRAPPER_PARAM + this.instanceNo + "_" + this.sequence.incrementAndGet();
+        String paramName = WRAPPER_PARAM + this.instanceNo() + "_" + (++this.sequence);
         this.put(paramName, para);
         return Column.wrapColumn(column, paramName, para);
     }
 
+    private long instanceNo() {
+        if (this.instanceNo == 0) {
+            long[] seq = localSeq.get();
+            if (seq[0] == seq[1]) {
+                seq[1] = globalSeq.addAndGet(SEQ_BLOCK);
+                seq[0] = seq[1] - SEQ_BLOCK;
+            }
+            this.instanceNo = ++seq[0];
+        }
+        return this.instanceNo;
+    }
+
+    /**
+     * 将sql语句中引用的变量(variable_实例序号_变量序号)按出现顺序重命名为 ew_p1, ew_p2, ...
+     * <p>
+     * 只改写语句文本, 不修改参数区; 重命名后的变量值由调用方按原变量路径取值后,
+     * 作为附加参数设置到BoundSql中。
+     * 因为重命名是在完整的sql语句上进行的, join查询和子查询共享的变量同样适用
+     *
+     * @param sql   完整的sql语句
+     * @param paths 按重命名序号返回原变量的完整路径, 如: ew.wrapperData.parameters.variable_1_2
+     * @return 变量重命名后的sql语句
+     */
+    public static String stableSql(String sql, List<String> paths) {
+        int start = sql.indexOf(VAR_PARAM);
+        if (start < 0) {
+            return sql;
+        }
+        Map<String, Integer> indexes = new HashMap<>(16);
+        StringBuilder buff = new StringBuilder(sql.length());
+        int from = 0;
+        for (; start >= 0; start = sql.indexOf(VAR_PARAM, from)) {
+            int open = sql.lastIndexOf("#{", start);
+            int end = start + VAR_PARAM.length();
+            while (end < sql.length() && isNameChar(sql.charAt(end))) {
+                end++;
+            }
+            if (open < from || !isPath(sql, open + 2, start)) {
+                buff.append(sql, from, end);
+            } else {
+                int index = indexes.computeIfAbsent(sql.substring(open + 2, end), path -> {
+                    paths.add(path);
+                    return paths.size();
+                });
+                buff.append(sql, from, open + 2).append(STABLE_PARAM).append(index);
+            }
+            from = end;
+        }
+        buff.append(sql, from, sql.length());
+        return buff.toString();
+    }
+
+    private static boolean isPath(String sql, int from, int to) {
+        for (int index = from; index < to; index++) {
+            char ch = sql.charAt(index);
+            if (!isNameChar(ch) && ch != '.' && ch != '[' && ch != ']') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 按出现顺序逐个重命名sql语句中引用的变量(当前参数区中存在的变量)
+     *
+     * @param sql    完整的sql语句
+     * @param rename 原变量名 -> 新变量名
+     * @return 变量重命名后的sql语句
+     */
+    public String renameSql(String sql, Function<String, String> rename) {
+        int start = sql.indexOf(EW_PARAM_PREFIX);
+        if (start < 0) {
+            return sql;
+        }
+        StringBuilder buff = new StringBuilder(sql.length());
+        int from = 0;
+        for (; start >= 0; start = sql.indexOf(EW_PARAM_PREFIX, from)) {
+            int begin = start + EW_PARAM_PREFIX.length();
+            int end = begin;
+            while (end < sql.length() && isNameChar(sql.charAt(end))) {
+                end++;
+            }
+            String name = sql.substring(begin, end);
+            boolean isVar = start > 0 && sql.charAt(start - 1) == '{' && this.containsKey(name);
+            buff.append(sql, from, begin).append(isVar ? rename.apply(name) : name);
+            from = end;
+        }
+        buff.append(sql, from, sql.length());
+        return buff.toString();
+    }
+
+    /**
+     * sql语句中是否不包含非稳定命名(variable_实例序号_变量序号)的变量
+     *
+     * @param sql sql语句
+     * @return true: 语句文本和变量值无关
+     */
+    public static boolean isStableSql(String sql) {
+        return !sql.contains(VAR_PARAM);
+    }
+
+    private static boolean isNameChar(char ch) {
+        return ch == '_' || (ch >= '0' && ch <= '9') || (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
+    }
+
     private static final char char_question = '?';
     private static final char char_backslash = '\\';
     /**
      * 变量名称格式, 前缀+序号
      */
     private static final String WRAPPER_PARAM = "variable_";
+    /**
+     * 稳定命名的变量名称前缀, 作为BoundSql的附加参数, 不能和mapper参数的属性路径冲突
+     */
+    public static final String STABLE_PARAM = Param_EW + "_p";
+    /**
+     * sql语句中非稳定命名变量的路径片段
+     */
+    private static final String VAR_PARAM = Column.Wrapper_Para + WRAPPER_PARAM;
+    /**
+     * sql语句中变量引用前缀
+     */
+    private static final String EW_PARAM_PREFIX = Param_EW + Column.Wrapper_Para;
+
+    /**
+     * 合并到的参数区, null表示自身就是参数区
+     */
+    private Parameters arena;
+    /**
+     * 参数区的变量, 第一次设置变量时创建
+     */
+    private Map<String, Object> variables;
 
     /**
-     * 共享变量
+     * 返回当前参数所在的参数区, 同时压缩查找路径
+     *
+     * @return 参数区
      */
-    private final List<WeakReference<Parameters>> shared = new ArrayList<>();
+    private Parameters arena() {
+        Parameters root = this;
+        while (root.arena != null) {
+            root = root.arena;
+        }
+        for (Parameters p = this; p.arena != null && p.arena != root; ) {
+            Parameters next = p.arena;
+            p.arena = root;
+            p = next;
+        }
+        return root;
+    }
 
-    private Parameters nextShared(Iterator<WeakReference<Parameters>> it) {
-        WeakReference<Parameters> ref = it.next();
-        if (ref == null || ref.get() == null) {
-            it.remove();
-            return null;
-        } else {
-            return ref.get();
+    private Map<String, Object> variables() {
+        Parameters root = this.arena();
+        if (root.variables == null) {
+            root.variables = new HashMap<>(4);
         }
+        return root.variables;
+    }
+
+    private Map<String, Object> readVariables() {
+        Map<String, Object> variables = this.arena().variables;
+        return variables == null ? Collections.emptyMap() : variables;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return this.readVariables().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.readVariables().containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return this.readVariables().size();
     }
 
     @Override
     public Object put(String key, Object value) {
-        Object obj = super.put(key, value);
-        for (Iterator<WeakReference<Parameters>> it = shared.iterator(); it.hasNext(); ) {
-            Parameters parameter = this.nextShared(it);
-            if (parameter != null) {
-                parameter.put(key, value);
-            }
-        }
-        return obj;
+        return this.variables().put(key, value);
     }
 
     @Override
     public void putAll(Map<? extends String, ?> m) {
-        super.putAll(m);
-        for (Iterator<WeakReference<Parameters>> it = shared.iterator(); it.hasNext(); ) {
-            Parameters parameter = this.nextShared(it);
-            if (parameter != null) {
-                parameter.putAll(m);
-            }
-        }
+        this.variables().putAll(m);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return this.readVariables().isEmpty() ? null : this.variables().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        this.readVariables().clear();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return this.variables().entrySet();
     }
 
     /**
      * 设置join查询（或子查询）的共享变量
+     * 当前参数区的变量合并到shared所在的参数区, 之后两者读写同一个参数区
      *
      * @param shared 共享变量
      */
     public void sharedParameter(Parameters shared) {
-        if (this == shared) {
+        Parameters from = this.arena();
+        Parameters to = shared.arena();
+        if (from == to) {
             return;
         }
-        // 已设置过共享
-        for (WeakReference<Parameters> item : this.shared) {
-            if (item.get() == shared) {
-                return;
-            }
+        if (from.variables != null) {
+            to.variables().putAll(from.variables);
+            from.variables = null;
         }
-        this.shared.add(new WeakReference<>(shared));
-        shared.putAll(this);
+        from.arena = to;
     }
-}
\ No newline at end of file
+}
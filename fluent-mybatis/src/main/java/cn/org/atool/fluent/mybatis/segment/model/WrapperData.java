@@ -3,6 +3,7 @@ package cn.org.atool.fluent.mybatis.segment.model;
 import cn.org.atool.fluent.mybatis.If;
 import cn.org.atool.fluent.mybatis.base.model.Column;
 import cn.org.atool.fluent.mybatis.base.model.ISqlOp;
+import cn.org.atool.fluent.mybatis.base.model.SqlOp;
 import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
 import cn.org.atool.fluent.mybatis.segment.WhereSegmentList;
 import cn.org.atool.fluent.mybatis.utility.CustomizedSql;
@@ -21,6 +22,10 @@ import static java.util.stream.Collectors.joining;
 
 /**
  * WrapperInfo: 查询器或更新器xml需要用到信息
+ * <pre>
+ * 查询字段, 更新字段, hint, 字段别名, 排序字段等容器在第一次写入时创建,
+ * 未使用时读取返回共享的空实例
+ * </pre>
  *
  * @author darui.wu 2020/6/23 5:15 下午
  */
@@ -35,7 +40,7 @@ public class WrapperData implements IWrapperData {
     /**
      * 查询字段
      */
-    protected List<String> sqlSelect = new ArrayList<>(8);
+    protected List<String> sqlSelect;
     /**
      * 表名
      */
@@ -62,11 +67,13 @@ public class WrapperData implements IWrapperData {
     /**
      * SQL 更新字段内容，例如：name='1', age=2
      */
-    private final Map<String, String> updates = new LinkedHashMap<>(16);
+    @Getter(AccessLevel.NONE)
+    private Map<String, String> updates;
     /**
      * sql 中 hint 维护
      */
-    private final Map<HintType, String> hints = new HashMap<>(4);
+    @Getter(AccessLevel.NONE)
+    private Map<HintType, String> hints;
     /**
      * 实体类型
      */
@@ -78,13 +85,34 @@ public class WrapperData implements IWrapperData {
     /**
      * 字段别名列表
      */
-    private final Set<String> fieldAlias = new HashSet<>();
+    @Getter(AccessLevel.NONE)
+    private Set<String> fieldAlias;
+    /**
+     * 排序字段列表
+     */
+    @Getter(AccessLevel.NONE)
+    private List<OrderByKey> orderByKeys;
     /**
      * 按条件更新时, 跳过检查乐观锁条件字段
      * 默认必须有乐观锁
      */
     @Setter
     private boolean ignoreLockVersion = false;
+    /**
+     * 读写分离时, 强制查询主库
+     */
+    @Setter
+    private boolean forcePrimary = false;
+    /**
+     * 已执行过游标分页(追加了定位条件和limit), 不能再次用于游标分页
+     */
+    @Setter
+    private boolean keysetPaged = false;
+    /**
+     * Map查询结果转换为只读的{@link cn.org.atool.fluent.mybatis.model.CompactRow}
+     */
+    @Setter
+    private boolean compactMap = false;
 
     public WrapperData() {
         this.parameters = new Parameters();
@@ -107,8 +135,11 @@ public class WrapperData implements IWrapperData {
 
     @Override
     public String getSqlSelect() {
-        if (this.sqlSelect.isEmpty()) {
+        if (this.sqlSelect == null || this.sqlSelect.isEmpty()) {
             return null;
+        } else if (this.sqlSelect.size() == 1) {
+            String sql = this.sqlSelect.get(0);
+            return isBlank(sql) ? null : sql.trim();
         } else {
             String sql = String.join(COMMA_SPACE, sqlSelect);
             return isBlank(sql) ? null : sql.trim();
@@ -116,9 +147,48 @@ public class WrapperData implements IWrapperData {
     }
 
     public List<String> sqlSelect() {
+        if (this.sqlSelect == null) {
+            this.sqlSelect = new ArrayList<>(8);
+        }
         return this.sqlSelect;
     }
 
+    /**
+     * SQL 更新字段内容
+     *
+     * @return 更新字段 - 更新值
+     */
+    public Map<String, String> getUpdates() {
+        return this.updates == null ? Collections.emptyMap() : this.updates;
+    }
+
+    /**
+     * sql 中 hint 维护
+     *
+     * @return hint类型 - hint
+     */
+    public Map<HintType, String> getHints() {
+        return this.hints == null ? Collections.emptyMap() : this.hints;
+    }
+
+    /**
+     * 字段别名列表
+     *
+     * @return 字段别名
+     */
+    public Set<String> getFieldAlias() {
+        return this.fieldAlias == null ? Collections.emptySet() : this.fieldAlias;
+    }
+
+    /**
+     * 排序字段列表
+     *
+     * @return 排序字段
+     */
+    public List<OrderByKey> getOrderByKeys() {
+        return this.orderByKeys == null ? Collections.emptyList() : this.orderByKeys;
+    }
+
     /**
      * 用户完整自定义的sql语句
      */
@@ -158,6 +228,9 @@ public class WrapperData implements IWrapperData {
 
     @Override
     public String getUpdateStr() {
+        if (this.updates == null) {
+            return null;
+        }
         String sql = this.updates.entrySet().stream().map(i -> i.getKey() + " = " + i.getValue()).collect(joining(COMMA_SPACE));
         return isBlank(sql) ? null : sql.trim();
     }
@@ -215,6 +288,22 @@ public class WrapperData implements IWrapperData {
         this.apply(keyWord, column, operator, null, paras);
     }
 
+    /**
+     * 增加字段排序
+     *
+     * @param column 排序字段
+     * @param field  字段名称, 不包含表别名和转义符
+     * @param isAsc  是否正序
+     */
+    public void orderBy(Column column, String field, boolean isAsc) {
+        String sqlColumn = column.wrapColumn();
+        this.apply(KeyWordSegment.ORDER_BY, Column.EMPTY_COLUMN, SqlOp.RETAIN, sqlColumn + SPACE + (isAsc ? ASC : DESC));
+        if (this.orderByKeys == null) {
+            this.orderByKeys = new ArrayList<>(4);
+        }
+        this.orderByKeys.add(new OrderByKey(field, sqlColumn, isAsc));
+    }
+
     /**
      * 增加查询字段
      *
@@ -222,8 +311,14 @@ public class WrapperData implements IWrapperData {
      */
     public void addSelectColumn(String column) {
         if (notBlank(column)) {
-            this.sqlSelect.add(column);
-            this.fieldAlias.addAll(parseAlias(column));
+            this.sqlSelect().add(column);
+            List<String> alias = parseAlias(column);
+            if (!alias.isEmpty()) {
+                if (this.fieldAlias == null) {
+                    this.fieldAlias = new HashSet<>();
+                }
+                this.fieldAlias.addAll(alias);
+            }
         }
     }
 
@@ -315,7 +410,10 @@ public class WrapperData implements IWrapperData {
      */
     public void updateSql(Column column, String functionSql, Object... values) {
         if (notBlank(functionSql)) {
-            updates.put(column.wrapColumn(), this.paramSql(column, functionSql, values));
+            if (this.updates == null) {
+                this.updates = new LinkedHashMap<>(16);
+            }
+            this.updates.put(column.wrapColumn(), this.paramSql(column, functionSql, values));
         }
     }
 
@@ -341,12 +439,15 @@ public class WrapperData implements IWrapperData {
 
     public void hint(HintType type, String hint) {
         if (notBlank(hint)) {
+            if (this.hints == null) {
+                this.hints = new HashMap<>(4);
+            }
             this.hints.put(type, hint);
         }
     }
 
     public String hint(HintType type) {
-        String hint = this.hints.get(type);
+        String hint = this.hints == null ? null : this.hints.get(type);
         return isBlank(hint) ? SPACE : SPACE + hint + SPACE;
     }
 
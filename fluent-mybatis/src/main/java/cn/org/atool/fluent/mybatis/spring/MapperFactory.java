@@ -2,12 +2,15 @@ package cn.org.atool.fluent.mybatis.spring;
 
 import cn.org.atool.fluent.mybatis.base.IRefs;
 import cn.org.atool.fluent.mybatis.base.mapper.IEntityMapper;
+import org.apache.ibatis.session.SqlSessionFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 
 import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 所有Mapper实例登记, 需spring bean初始化
@@ -34,10 +37,32 @@ public class MapperFactory {
         return context.getBean(mapperInterface);
     }
 
+    /**
+     * 返回Mapper接口对应的SqlSessionFactory
+     *
+     * @param mapperInterface Mapper接口
+     * @return SqlSessionFactory
+     */
+    public SqlSessionFactory getSqlSessionFactory(Class mapperInterface) {
+        return sqlSessionFactories.computeIfAbsent(mapperInterface, this::findSqlSessionFactory);
+    }
+
+    private final Map<Class, SqlSessionFactory> sqlSessionFactories = new ConcurrentHashMap<>();
+
+    private SqlSessionFactory findSqlSessionFactory(Class mapperInterface) {
+        Map<String, SqlSessionFactory> factories = context.getBeansOfType(SqlSessionFactory.class);
+        for (SqlSessionFactory factory : factories.values()) {
+            if (factory.getConfiguration().hasMapper(mapperInterface)) {
+                return factory;
+            }
+        }
+        throw new RuntimeException("the SqlSessionFactory of mapper[" + mapperInterface.getName() + "] not found.");
+    }
+
     @PostConstruct
     public void afterPropertiesSet() throws Exception {
         IRefs refs = IRefs.instance();
-        Object relation = this.findEntityRelation();
+        Object relation = this.findEntityRelation(refs);
         refs.setEntityRelation(relation, this);
         refs.wiredMapper();
     }
@@ -45,12 +70,16 @@ public class MapperFactory {
     /**
      * 从spring容器中获取IEntityRelation bean
      *
+     * @param refs 编译生成的Refs
      * @return IEntityRelation bean
      * @throws ClassNotFoundException 编译问题
      */
-    private Object findEntityRelation() throws ClassNotFoundException {
+    private Object findEntityRelation(IRefs refs) throws ClassNotFoundException {
         try {
-            Class klass = Class.forName(IRefs.Fix_Package + ".IEntityRelation");
+            Class klass = refs.entityRelationClass();
+            if (klass == null) {
+                klass = Class.forName(IRefs.Fix_Package + ".IEntityRelation");
+            }
             return context.getBean(klass);
         } catch (NoSuchBeanDefinitionException be) {
             // do nothing
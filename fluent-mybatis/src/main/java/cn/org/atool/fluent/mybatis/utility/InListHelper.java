@@ -0,0 +1,129 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * IN (...) 列表处理
+ * <pre>
+ * 1. 按桶对齐: 列表长度补齐到2的幂次(超过上限时补齐到上限的整数倍), 用最后一个值填充
+ *    减少不同长度的语句个数, 提高数据库预编译语句缓存命中率
+ * 2. 分段: 列表长度超过数据库上限{@link cn.org.atool.fluent.mybatis.metadata.DbType#getMaxInSize()}时,
+ *    拆分为 (column IN (...) OR column IN (...)), 或由调用方拆分成多条语句执行
+ * </pre>
+ *
+ * @author darui.wu
+ */
+public class InListHelper {
+    /**
+     * 是否开启IN列表按桶对齐
+     */
+    @Getter
+    @Setter
+    private static boolean padding = false;
+    /**
+     * 按2的幂次对齐的上限, 超过上限后按上限的整数倍对齐
+     */
+    @Getter
+    @Setter
+    private static int paddingCap = 512;
+
+    /**
+     * 返回列表长度对齐后的长度
+     *
+     * @param size 列表长度
+     * @return 对齐后的长度
+     */
+    public static int bucket(int size) {
+        if (!padding || size <= 1) {
+            return size;
+        }
+        if (size >= paddingCap) {
+            return (size + paddingCap - 1) / paddingCap * paddingCap;
+        }
+        int bucket = Integer.highestOneBit(size - 1) << 1;
+        return Math.min(bucket, paddingCap);
+    }
+
+    /**
+     * 按桶对齐列表, 用最后一个值填充
+     *
+     * @param values 值列表
+     * @return 对齐后的列表
+     */
+    public static Object[] pad(Object[] values) {
+        if (values == null || values.length == 0) {
+            return values;
+        }
+        int bucket = bucket(values.length);
+        if (bucket == values.length) {
+            return values;
+        }
+        Object[] padded = Arrays.copyOf(values, bucket);
+        Arrays.fill(padded, values.length, bucket, values[values.length - 1]);
+        return padded;
+    }
+
+    /**
+     * 按最大长度拆分列表
+     *
+     * @param values  值列表
+     * @param maxSize 最大长度, 小于等于0表示不拆分
+     * @param <T>     值类型
+     * @return 拆分后的列表
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<List<T>> chunk(Collection<T> values, int maxSize) {
+        List<T> list = values instanceof List ? (List<T>) values : new ArrayList<>(values);
+        if (maxSize <= 0 || list.size() <= maxSize) {
+            return Collections.singletonList(list);
+        }
+        List<List<T>> chunks = new ArrayList<>((list.size() + maxSize - 1) / maxSize);
+        for (int from = 0; from < list.size(); from += maxSize) {
+            chunks.add(list.subList(from, Math.min(from + maxSize, list.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * 构造 column IN (?, ?, ...) 语句
+     * 超过maxSize时拆分为 (column IN (...) OR column IN (...))
+     * NOT IN 拆分为 (column NOT IN (...) AND column NOT IN (...))
+     *
+     * @param column      字段
+     * @param notIn       true: NOT IN; false: IN
+     * @param size        占位符个数
+     * @param maxSize     单个IN列表的最大长度, 小于等于0表示不拆分
+     * @param placeHolder 第i个占位符
+     * @return sql片段
+     */
+    public static String in(String column, boolean notIn, int size, int maxSize, IntFunction<String> placeHolder) {
+        String op = notIn ? " NOT IN (" : " IN (";
+        boolean split = maxSize > 0 && size > maxSize;
+        StringBuilder buff = new StringBuilder();
+        if (split) {
+            buff.append("(");
+        }
+        buff.append(column).append(op);
+        for (int index = 0; index < size; index++) {
+            if (split && index > 0 && index % maxSize == 0) {
+                buff.append(notIn ? ") AND " : ") OR ").append(column).append(op);
+            } else if (index > 0) {
+                buff.append(", ");
+            }
+            buff.append(placeHolder.apply(index));
+        }
+        buff.append(")");
+        if (split) {
+            buff.append(")");
+        }
+        return buff.toString();
+    }
+}
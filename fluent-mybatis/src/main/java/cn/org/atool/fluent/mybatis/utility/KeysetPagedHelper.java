@@ -0,0 +1,321 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import cn.org.atool.fluent.mybatis.If;
+import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.base.IRefs;
+import cn.org.atool.fluent.mybatis.base.crud.IQuery;
+import cn.org.atool.fluent.mybatis.base.model.Column;
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import cn.org.atool.fluent.mybatis.metadata.DbType;
+import cn.org.atool.fluent.mybatis.model.TagPagedList;
+import cn.org.atool.fluent.mybatis.segment.BaseWrapper;
+import cn.org.atool.fluent.mybatis.segment.model.OrderByKey;
+import cn.org.atool.fluent.mybatis.segment.model.WrapperData;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 游标(keyset)分页
+ * <pre>
+ * 按查询的 ORDER BY 字段(自动追加主键保证顺序唯一)构造定位条件, 替代 LIMIT offset, size 扫描:
+ * 1. 支持行值比较的数据库{@link DbType#isRowValueCompare()}, 且排序方向一致时:
+ *    (a, b) &gt; (?, ?)
+ * 2. 其它情况展开为:
+ *    (a &gt;= ? AND (a &gt; ? OR (a = ? AND b &gt; ?)))
+ * 上一页最后一条记录的排序字段值编码为续查标识{@link TagPagedList#getNextToken()}
+ *
+ * 说明:
+ * 1. 排序字段必须是实体字段, 且值不能为null
+ * 2. 分页会修改传入的查询(追加主键排序, 定位条件和limit), 每一页都需要构造新的查询
+ * </pre>
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class KeysetPagedHelper {
+    /**
+     * 游标分页查询
+     *
+     * @param query  查询条件, 须设置 limit(size), 只能使用一次
+     * @param token  续查标识, 为空时查询第一页
+     * @param lister 列表查询
+     * @param toMap  记录转换为 字段-值 map
+     * @param <R>    记录类型
+     * @return 分页结果
+     */
+    public static <R> TagPagedList<R> paged(IQuery query, String token,
+                                            Function<IQuery, List<R>> lister, Function<R, Map<String, Object>> toMap) {
+        if (query.getWrapperData().isKeysetPaged()) {
+            throw new FluentMybatisException("the query has been used by a keyset paged query, please build a new query for each page.");
+        }
+        int size = PoJoHelper.validateTagPaged(query);
+        query.getWrapperData().setKeysetPaged(true);
+        List<OrderByKey> keys = orderByKeys(query);
+        String signature = signature(keys);
+        if (If.notBlank(token)) {
+            Object[] values = decode(token, signature, keys.size());
+            List<Object> args = new ArrayList<>();
+            String predicate = predicate(keys, values, ((BaseWrapper) query).dbType(), args);
+            query.getWrapperData().getMergeSegments().getWhere().bracketIfHasOr();
+            query.where().applyFunc(predicate, args.toArray());
+        }
+        query.limit(size + 1);
+        List<R> list = lister.apply(query);
+        R next = null;
+        String nextToken = null;
+        if (list.size() > size) {
+            next = list.remove(size);
+            nextToken = encode(signature, values(keys, toMap.apply(list.get(size - 1))));
+        }
+        return new TagPagedList<>(list, next, nextToken);
+    }
+
+    /**
+     * 实体记录转换为 字段-值 map
+     *
+     * @param entity 实体
+     * @return map
+     */
+    public static Map<String, Object> toColumnMap(Object entity) {
+        return ((IEntity) entity).toColumnMap(false);
+    }
+
+    /**
+     * 查询的排序字段, 没有主键排序时按最后一个排序字段的方向追加主键排序
+     *
+     * @param query 查询条件
+     * @return 排序字段列表
+     */
+    static List<OrderByKey> orderByKeys(IQuery query) {
+        WrapperData data = query.getWrapperData();
+        String primary = IRefs.instance().findPrimaryColumn(data.getEntityClass());
+        List<OrderByKey> keys = data.getOrderByKeys();
+        boolean hasPrimary = keys.stream().anyMatch(key -> Objects.equals(key.getColumn(), primary));
+        if (!hasPrimary) {
+            if (primary == null) {
+                throw new FluentMybatisException("keyset paged query must order by unique columns, but the primary of entity[" + data.getEntityClass().getName() + "] not found.");
+            }
+            boolean asc = keys.isEmpty() || keys.get(keys.size() - 1).isAsc();
+            data.orderBy(Column.column(primary, (BaseWrapper) query), primary, asc);
+        }
+        return data.getOrderByKeys();
+    }
+
+    /**
+     * 构造定位条件
+     *
+     * @param keys   排序字段
+     * @param values 上一页最后一条记录的排序字段值
+     * @param dbType 数据库类型
+     * @param args   条件参数
+     * @return 带占位符'?'的条件语句
+     */
+    static String predicate(List<OrderByKey> keys, Object[] values, DbType dbType, List<Object> args) {
+        boolean sameDirection = keys.stream().allMatch(key -> key.isAsc() == keys.get(0).isAsc());
+        StringBuilder buff = new StringBuilder();
+        if (keys.size() == 1) {
+            args.add(values[0]);
+            return buff.append(keys.get(0).getSqlColumn()).append(gt(keys.get(0))).append("?").toString();
+        }
+        if (sameDirection && dbType != null && dbType.isRowValueCompare()) {
+            StringBuilder marks = new StringBuilder();
+            buff.append("(");
+            for (int index = 0; index < keys.size(); index++) {
+                if (index > 0) {
+                    buff.append(", ");
+                    marks.append(", ");
+                }
+                buff.append(keys.get(index).getSqlColumn());
+                marks.append("?");
+                args.add(values[index]);
+            }
+            return buff.append(")").append(gt(keys.get(0))).append("(").append(marks).append(")").toString();
+        }
+        OrderByKey first = keys.get(0);
+        buff.append("(").append(first.getSqlColumn()).append(first.isAsc() ? " >= ?" : " <= ?").append(" AND (");
+        args.add(values[0]);
+        for (int index = 0; index < keys.size(); index++) {
+            if (index > 0) {
+                buff.append(" OR (");
+            }
+            for (int eq = 0; eq < index; eq++) {
+                buff.append(keys.get(eq).getSqlColumn()).append(" = ? AND ");
+                args.add(values[eq]);
+            }
+            buff.append(keys.get(index).getSqlColumn()).append(gt(keys.get(index))).append("?");
+            args.add(values[index]);
+            if (index > 0) {
+                buff.append(")");
+            }
+        }
+        return buff.append("))").toString();
+    }
+
+    private static String gt(OrderByKey key) {
+        return key.isAsc() ? " > " : " < ";
+    }
+
+    /**
+     * 返回记录的排序字段值
+     *
+     * @param keys 排序字段
+     * @param row  字段-值 map
+     * @return 排序字段值
+     */
+    static Object[] values(List<OrderByKey> keys, Map<String, Object> row) {
+        Object[] values = new Object[keys.size()];
+        for (int index = 0; index < keys.size(); index++) {
+            String column = keys.get(index).getColumn();
+            Object value = row.containsKey(column) ? row.get(column) : ignoreCaseGet(row, column);
+            if (value == null) {
+                throw new FluentMybatisException("the value of keyset paged column[" + column + "] can't be null, and the column should be selected.");
+            }
+            values[index] = value;
+        }
+        return values;
+    }
+
+    private static Object ignoreCaseGet(Map<String, Object> row, String column) {
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (column.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String signature(List<OrderByKey> keys) {
+        StringBuilder buff = new StringBuilder();
+        for (OrderByKey key : keys) {
+            buff.append(key.getSqlColumn()).append(key.isAsc() ? "+" : "-");
+        }
+        return Integer.toHexString(buff.toString().hashCode());
+    }
+
+    /**
+     * 编码续查标识: 排序签名|类型长度:值...
+     *
+     * @param signature 排序字段签名
+     * @param values    排序字段值
+     * @return 续查标识
+     */
+    static String encode(String signature, Object[] values) {
+        StringBuilder buff = new StringBuilder(signature).append('|');
+        for (Object value : values) {
+            String text;
+            char type;
+            if (value instanceof String) {
+                type = 'S';
+                text = (String) value;
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                type = 'I';
+                text = value.toString();
+            } else if (value instanceof Long) {
+                type = 'L';
+                text = value.toString();
+            } else if (value instanceof BigDecimal) {
+                type = 'M';
+                text = value.toString();
+            } else if (value instanceof BigInteger) {
+                type = 'G';
+                text = value.toString();
+            } else if (value instanceof Double || value instanceof Float) {
+                type = 'F';
+                text = value.toString();
+            } else if (value instanceof Boolean) {
+                type = 'Z';
+                text = value.toString();
+            } else if (value instanceof Timestamp) {
+                type = 'T';
+                text = ((Timestamp) value).toLocalDateTime().toString();
+            } else if (value instanceof Date) {
+                type = 'D';
+                text = String.valueOf(((Date) value).getTime());
+            } else if (value instanceof LocalDateTime) {
+                type = 'X';
+                text = value.toString();
+            } else if (value instanceof LocalDate) {
+                type = 'Y';
+                text = value.toString();
+            } else {
+                throw new FluentMybatisException("unsupported keyset paged value type: " + value.getClass().getName());
+            }
+            buff.append(type).append(text.length()).append(':').append(text);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buff.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码续查标识
+     *
+     * @param token     续查标识
+     * @param signature 当前查询的排序字段签名
+     * @param size      排序字段个数
+     * @return 排序字段值
+     */
+    static Object[] decode(String token, String signature, int size) {
+        String text;
+        try {
+            text = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new FluentMybatisException("illegal keyset paged token: " + token, e);
+        }
+        int pos = text.indexOf('|');
+        if (pos < 0 || !signature.equals(text.substring(0, pos))) {
+            throw new FluentMybatisException("the keyset paged token does not match the order by of query: " + token);
+        }
+        List<Object> values = new ArrayList<>(size);
+        try {
+            for (pos = pos + 1; pos < text.length(); ) {
+                char type = text.charAt(pos);
+                int colon = text.indexOf(':', pos);
+                int len = Integer.parseInt(text.substring(pos + 1, colon));
+                String value = text.substring(colon + 1, colon + 1 + len);
+                values.add(parse(type, value));
+                pos = colon + 1 + len;
+            }
+        } catch (RuntimeException e) {
+            throw new FluentMybatisException("illegal keyset paged token: " + token, e);
+        }
+        if (values.size() != size) {
+            throw new FluentMybatisException("the keyset paged token does not match the order by of query: " + token);
+        }
+        return values.toArray();
+    }
+
+    private static Object parse(char type, String value) {
+        switch (type) {
+            case 'S':
+                return value;
+            case 'I':
+                return Integer.valueOf(value);
+            case 'L':
+                return Long.valueOf(value);
+            case 'M':
+                return new BigDecimal(value);
+            case 'G':
+                return new BigInteger(value);
+            case 'F':
+                return Double.valueOf(value);
+            case 'Z':
+                return Boolean.valueOf(value);
+            case 'T':
+                return Timestamp.valueOf(LocalDateTime.parse(value));
+            case 'D':
+                return new Date(Long.parseLong(value));
+            case 'X':
+                return LocalDateTime.parse(value);
+            case 'Y':
+                return LocalDate.parse(value);
+            default:
+                throw new IllegalArgumentException("unknown value type: " + type);
+        }
+    }
+}
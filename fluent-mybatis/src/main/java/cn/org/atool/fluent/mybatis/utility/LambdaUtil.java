@@ -1,17 +1,31 @@
 package cn.org.atool.fluent.mybatis.utility;
 
 import cn.org.atool.fluent.mybatis.base.IEntity;
+import cn.org.atool.fluent.mybatis.base.IRefs;
+import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
 import cn.org.atool.fluent.mybatis.functions.GetterFunc;
 
 import java.lang.invoke.SerializedLambda;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * lambda表达式处理
+ * <pre>
+ * 每个lambda(方法引用)调用点对应一个固定的合成类, 解析结果按合成类缓存在{@link ClassValue}中,
+ * 同一调用点只反射解析一次
+ * </pre>
  *
  * @author darui.wu
  */
 public class LambdaUtil {
+    private static final ClassValue<Resolved> RESOLVED = new ClassValue<Resolved>() {
+        @Override
+        protected Resolved computeValue(Class<?> type) {
+            return new Resolved();
+        }
+    };
 
     /**
      * 返回getter lambda表达式
@@ -20,20 +34,42 @@ public class LambdaUtil {
      * @return name of getter method
      */
     public static <E extends IEntity> String resolve(GetterFunc<E> getter) {
-        String method = lambdaName(getter);
-        return validateMethod(method);
+        Resolved resolved = RESOLVED.get(getter.getClass());
+        String property = resolved.property;
+        if (property == null) {
+            property = validateMethod(lambdaName(getter));
+            resolved.property = property;
+        }
+        return property;
+    }
+
+    /**
+     * 返回getter lambda表达式对应的Entity字段映射
+     *
+     * @param klass  Entity类
+     * @param getter getter method lambda
+     * @param <E>    Entity类型
+     * @return 字段映射, 属性不是Entity字段时返回null
+     */
+    public static <E extends IEntity> FieldMapping resolve(Class<E> klass, GetterFunc<E> getter) {
+        Resolved resolved = RESOLVED.get(getter.getClass());
+        FieldMapping mapping = resolved.mappings.get(klass);
+        if (mapping == null) {
+            mapping = IRefs.instance().findMappingByField(klass, resolve(getter));
+            if (mapping != null) {
+                resolved.mappings.put(klass, mapping);
+            }
+        }
+        return mapping;
     }
 
     private static <E extends IEntity> String lambdaName(GetterFunc<E> lambda) {
         try {
             String m_WRITE_REPLACE = "writeReplace";
             Method writeReplace = lambda.getClass().getDeclaredMethod(m_WRITE_REPLACE);
-            boolean accessible = writeReplace.isAccessible();
             writeReplace.setAccessible(Boolean.TRUE);
             SerializedLambda serializedLambda = (SerializedLambda) writeReplace.invoke(lambda);
-            String method = serializedLambda.getImplMethodName();
-            writeReplace.setAccessible(accessible);
-            return method;
+            return serializedLambda.getImplMethodName();
         } catch (Exception e) {
             throw new RuntimeException("can't parser getter name of " + lambda.getClass().getSimpleName(), e);
         }
@@ -49,4 +85,17 @@ public class LambdaUtil {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * lambda合成类的解析结果
+     */
+    private static class Resolved {
+        /**
+         * getter对应的属性名称
+         */
+        volatile String property;
+        /**
+         * Entity类 - 字段映射
+         */
+        final Map<Class, FieldMapping> mappings = new ConcurrentHashMap<>(4);
+    }
+}
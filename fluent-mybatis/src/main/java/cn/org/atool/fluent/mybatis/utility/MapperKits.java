@@ -0,0 +1,142 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import cn.org.atool.fluent.mybatis.annotation.FluentMybatis;
+import cn.org.atool.fluent.mybatis.base.mapper.IEntityMapper;
+import cn.org.atool.fluent.mybatis.metadata.DbType;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MapperKits: Mapper和Entity元数据工具类, 元数据只解析一次
+ *
+ * @author darui.wu
+ */
+@SuppressWarnings({"rawtypes"})
+public class MapperKits {
+    /**
+     * Entity类 -> 数据库类型
+     */
+    private static final Map<Class, Optional<DbType>> DB_TYPES = new ConcurrentHashMap<>();
+    /**
+     * mapper namespace -> Entity类, 非Entity Mapper为Void.class
+     */
+    private static final Map<String, Class> ENTITIES = new ConcurrentHashMap<>();
+    /**
+     * mapper namespace -> 编译生成的Mapper接口上声明的ResultMap名称
+     */
+    private static final Map<String, String> RESULT_MAPS = new ConcurrentHashMap<>();
+
+    /**
+     * 返回Entity类定义的数据库类型 {@link FluentMybatis#dbType()}
+     *
+     * @param entityClass Entity类
+     * @return 非fluent mybatis实体时返回null
+     */
+    public static DbType dbType(Class entityClass) {
+        return DB_TYPES.computeIfAbsent(entityClass, klass -> {
+            FluentMybatis fluent = (FluentMybatis) klass.getAnnotation(FluentMybatis.class);
+            return Optional.ofNullable(fluent == null ? null : fluent.dbType());
+        }).orElse(null);
+    }
+
+    /**
+     * 返回语句所在Mapper接口(IEntityMapper&lt;E&gt;)声明的Entity类型
+     *
+     * @param ms MappedStatement
+     * @return 非Entity Mapper返回Void.class
+     */
+    public static Class entityOfMapper(MappedStatement ms) {
+        String id = ms.getId();
+        return entityOfMapper(id.substring(0, id.lastIndexOf('.')));
+    }
+
+    /**
+     * 返回Mapper接口(IEntityMapper&lt;E&gt;)声明的Entity类型
+     *
+     * @param namespace mapper namespace
+     * @return 非Entity Mapper返回Void.class
+     */
+    public static Class entityOfMapper(String namespace) {
+        return ENTITIES.computeIfAbsent(namespace, MapperKits::parseEntityOfMapper);
+    }
+
+    private static Class parseEntityOfMapper(String namespace) {
+        try {
+            for (Type type : Resources.classForName(namespace).getGenericInterfaces()) {
+                if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == IEntityMapper.class) {
+                    Type entityType = ((ParameterizedType) type).getActualTypeArguments()[0];
+                    return entityType instanceof Class ? (Class) entityType : Void.class;
+                }
+            }
+        } catch (ClassNotFoundException e) {
+            // xml mapper namespace
+        }
+        return Void.class;
+    }
+
+    /**
+     * 返回语句对应的Mapper方法名称
+     * <pre>
+     * 以Mapper语句为模板构造的临时语句(id为 "方法名$后缀", 如流式查询)返回模板语句的方法名
+     * </pre>
+     *
+     * @param ms MappedStatement
+     * @return 方法名称
+     */
+    public static String method(MappedStatement ms) {
+        String id = ms.getId();
+        int dollar = id.indexOf('$', id.lastIndexOf('.') + 1);
+        return id.substring(id.lastIndexOf('.') + 1, dollar < 0 ? id.length() : dollar);
+    }
+
+    /**
+     * 是否是编译生成的Mapper接口声明的Entity ResultMap
+     * <pre>
+     * ResultMap的namespace是IEntityMapper接口, 且名称是接口上的常量 ResultMap
+     * </pre>
+     *
+     * @param resultMap ResultMap
+     * @return true: fluent mybatis生成的ResultMap
+     */
+    public static boolean isEntityResultMap(ResultMap resultMap) {
+        String id = resultMap.getId();
+        int dot = id.lastIndexOf('.');
+        if (dot <= 0) {
+            return false;
+        }
+        String declared = RESULT_MAPS.computeIfAbsent(id.substring(0, dot), MapperKits::resultMapOfMapper);
+        return declared.equals(id.substring(dot + 1));
+    }
+
+    /**
+     * 返回Mapper接口上常量 ResultMap 的值
+     *
+     * @param namespace mapper namespace
+     * @return 非fluent mybatis生成的Mapper返回空字符串
+     */
+    private static String resultMapOfMapper(String namespace) {
+        try {
+            Class klass = Resources.classForName(namespace);
+            if (!IEntityMapper.class.isAssignableFrom(klass)) {
+                return "";
+            }
+            Field field = klass.getDeclaredField("ResultMap");
+            if (field.getType() != String.class || !Modifier.isStatic(field.getModifiers())) {
+                return "";
+            }
+            return (String) field.get(null);
+        } catch (ClassNotFoundException | NoSuchFieldException | IllegalAccessException e) {
+            // xml mapper namespace, 或自定义的Mapper接口
+            return "";
+        }
+    }
+}
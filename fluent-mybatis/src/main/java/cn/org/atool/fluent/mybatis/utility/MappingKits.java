@@ -1,7 +1,6 @@
 package cn.org.atool.fluent.mybatis.utility;
 
 import cn.org.atool.fluent.mybatis.base.IEntity;
-import cn.org.atool.fluent.mybatis.base.IRefs;
 import cn.org.atool.fluent.mybatis.base.model.FieldMapping;
 import cn.org.atool.fluent.mybatis.functions.GetterFunc;
 
@@ -41,7 +40,7 @@ public class MappingKits {
      * @return 数据库字段名称
      */
     public static <E extends IEntity> String toColumn(Class<E> klass, GetterFunc<E> func) {
-        String field = LambdaUtil.resolve(func);
-        return IRefs.instance().findColumnByField(klass, field);
+        FieldMapping mapping = LambdaUtil.resolve(klass, func);
+        return mapping == null ? null : mapping.column;
     }
 }
@@ -11,8 +11,7 @@ import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
 import org.apache.ibatis.reflection.wrapper.DefaultObjectWrapperFactory;
 
-import java.math.BigDecimal;
-import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,7 +60,15 @@ public class PoJoHelper {
      * @return POJO实例列表
      */
     public static <POJO> List<POJO> toPoJoList(Class<POJO> clazz, List<Map<String, Object>> list) {
-        return list == null ? null : list.stream().map(map -> toPoJo(clazz, map)).collect(toList());
+        if (list == null) {
+            return null;
+        }
+        PoJoMapper<POJO> mapper = PoJoMapper.of(clazz);
+        List<POJO> pojos = new ArrayList<>(list.size());
+        for (Map<String, Object> map : list) {
+            pojos.add(mapper.toPoJo(map));
+        }
+        return pojos;
     }
 
     /**
@@ -73,35 +80,7 @@ public class PoJoHelper {
      * @return 根据Map值设置后的对象
      */
     public static <POJO> POJO toPoJo(@NonNull Class<POJO> clazz, @NonNull Map<String, Object> map) {
-        POJO target = newInstance(clazz);
-        MetaObject metaObject = MetaObject.forObject(target, new DefaultObjectFactory(), new DefaultObjectWrapperFactory(), new DefaultReflectorFactory());
-        for (Map.Entry<String, Object> entry : map.entrySet()) {
-            String name = MybatisUtil.underlineToCamel(entry.getKey(), false);
-            Class<?> type = metaObject.getSetterType(name);
-            try {
-                Object value = entry.getValue();
-                if (value == null) {
-                    metaObject.setValue(name, null);
-                } else {
-                    if (type.isAssignableFrom(value.getClass())) {
-                        metaObject.setValue(name, value);
-                    } else {
-                        setDefaultType(type, metaObject, name, value);
-                    }
-                }
-            } catch (Exception e) {
-                throw new RuntimeException("convert map to object[type=" + clazz.getName() + ", property=" + entry.getKey() + ", type=" + type.getName() + "] error: " + e.getMessage(), e);
-            }
-        }
-        return target;
-    }
-
-    private static <POJO> POJO newInstance(Class<POJO> clazz) {
-        try {
-            return clazz.getDeclaredConstructor().newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException("convert map to object[type=" + clazz.getName() + "] error: " + e.getMessage(), e);
-        }
+        return PoJoMapper.of(clazz).toPoJo(map);
     }
 
     /**
@@ -126,30 +105,6 @@ public class PoJoHelper {
         return map;
     }
 
-    /**
-     * 进行默认类型的转换
-     *
-     * @param type       类型
-     * @param metaObject 元数据
-     * @param name       属性名称
-     * @param value      属性值
-     */
-    private static void setDefaultType(Class type, MetaObject metaObject, String name, Object value) {
-        if (type == Long.class) {
-            metaObject.setValue(name, Long.parseLong(value.toString()));
-        } else if (type == Integer.class) {
-            metaObject.setValue(name, Integer.parseInt(value.toString()));
-        } else if (type == Boolean.class) {
-            metaObject.setValue(name, ObjectArray.toBoolean(value));
-        } else if (type == BigDecimal.class) {
-            metaObject.setValue(name, new BigDecimal(value.toString()));
-        } else if (type == BigInteger.class) {
-            metaObject.setValue(name, new BigInteger(value.toString()));
-        } else {
-            metaObject.setValue(name, value);
-        }
-    }
-
     /**
      * 校验marker方式分页的分页参数合法性
      *
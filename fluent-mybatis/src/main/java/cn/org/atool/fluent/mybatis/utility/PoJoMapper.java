@@ -0,0 +1,275 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import cn.org.atool.fluent.mybatis.functions.MapFunction;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Map转换为PoJo的映射计划
+ * <pre>
+ * 1. 每个PoJo类型的映射计划在第一次使用时构造一次, 缓存在{@link ClassValue}中, 不影响类卸载
+ * 2. 字段名(下划线转驼峰)到属性的映射按字段名缓存, 每个字段只转换一次
+ * 3. 属性setter(无setter时为字段)绑定为{@link MethodHandle}, 类型转换函数按属性类型预先确定
+ * 4. 可以通过{@link #register(Class, MapFunction)}注册手写或生成的转换函数, 替代默认映射
+ * </pre>
+ *
+ * @param <POJO> PoJo类型
+ * @author darui.wu
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class PoJoMapper<POJO> {
+    private static final ClassValue<PoJoMapper> MAPPERS = new ClassValue<PoJoMapper>() {
+        @Override
+        protected PoJoMapper computeValue(Class<?> type) {
+            return new PoJoMapper(type);
+        }
+    };
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<POJO> klass;
+
+    private final MethodHandle constructor;
+    /**
+     * 属性名称 - setter
+     */
+    private final Map<String, Property> properties = new HashMap<>();
+    /**
+     * map key - setter, 按需填充
+     */
+    private final Map<String, Property> columns = new ConcurrentHashMap<>(32);
+    /**
+     * 注册的转换函数
+     */
+    private volatile MapFunction<POJO> converter;
+
+    /**
+     * 返回PoJo类型的映射计划
+     *
+     * @param klass  PoJo类型
+     * @param <POJO> PoJo类型
+     * @return 映射计划
+     */
+    public static <POJO> PoJoMapper<POJO> of(Class<POJO> klass) {
+        return MAPPERS.get(klass);
+    }
+
+    /**
+     * 注册PoJo类型的转换函数(如编译期生成的转换器), 替代默认的映射
+     *
+     * @param klass     PoJo类型
+     * @param converter 转换函数
+     * @param <POJO>    PoJo类型
+     */
+    public static <POJO> void register(Class<POJO> klass, MapFunction<POJO> converter) {
+        of(klass).converter = converter;
+    }
+
+    private PoJoMapper(Class<POJO> klass) {
+        this.klass = klass;
+        this.constructor = constructor(klass);
+        if (!Map.class.isAssignableFrom(klass)) {
+            this.initFields(klass);
+            this.initSetters(klass);
+        }
+    }
+
+    /**
+     * 将Map转换为PoJo对象
+     *
+     * @param map map对象
+     * @return PoJo对象
+     */
+    public POJO toPoJo(Map<String, Object> map) {
+        MapFunction<POJO> converter = this.converter;
+        if (converter != null) {
+            return converter.apply(map);
+        }
+        POJO target = this.newInstance();
+        if (target instanceof Map) {
+            ((Map) target).putAll(map);
+            return target;
+        }
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            Property property = this.columns.get(entry.getKey());
+            if (property == null) {
+                property = this.property(entry.getKey());
+            }
+            property.set(this.klass, target, entry.getKey(), entry.getValue());
+        }
+        return target;
+    }
+
+    private Property property(String column) {
+        String name = MybatisUtil.underlineToCamel(column, false);
+        Property property = this.properties.get(name);
+        if (property == null) {
+            throw new FluentMybatisException("convert map to object[type=" + this.klass.getName() + ", property=" + column + "] error: There is no setter for property named '" + name + "'.");
+        }
+        this.columns.put(column, property);
+        return property;
+    }
+
+    private POJO newInstance() {
+        if (this.constructor == null) {
+            throw new RuntimeException("convert map to object[type=" + this.klass.getName() + "] error: no public constructor without parameters.");
+        }
+        try {
+            return (POJO) this.constructor.invoke();
+        } catch (Throwable e) {
+            throw new RuntimeException("convert map to object[type=" + this.klass.getName() + "] error: " + e.getMessage(), e);
+        }
+    }
+
+    private static MethodHandle constructor(Class klass) {
+        try {
+            return LOOKUP.unreflectConstructor(klass.getDeclaredConstructor()).asType(MethodType.methodType(Object.class));
+        } catch (Exception e) {
+            /* 非public构造函数, 创建对象时报错 */
+            return null;
+        }
+    }
+
+    /**
+     * 无setter的非final字段
+     */
+    private void initFields(Class klass) {
+        for (Class aClass = klass; aClass != null && aClass != Object.class; aClass = aClass.getSuperclass()) {
+            for (Field field : aClass.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || this.properties.containsKey(field.getName())) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    MethodHandle handle = LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+                    this.properties.put(field.getName(), new Property(field.getType(), handle));
+                } catch (Exception ignored) {
+                    /* 无法访问的字段不参与映射 */
+                }
+            }
+        }
+    }
+
+    /**
+     * public setter方法, 覆盖同名字段
+     */
+    private void initSetters(Class klass) {
+        Map<String, Method> setters = new HashMap<>();
+        for (Method method : klass.getMethods()) {
+            String name = method.getName();
+            if (Modifier.isStatic(method.getModifiers()) || method.isBridge() || method.getParameterCount() != 1
+                || name.length() <= 3 || !name.startsWith("set")) {
+                continue;
+            }
+            String property = propertyName(name.substring(3));
+            Method exists = setters.get(property);
+            if (exists == null || this.matchGetter(klass, property, method.getParameterTypes()[0])) {
+                setters.put(property, method);
+            }
+        }
+        for (Map.Entry<String, Method> entry : setters.entrySet()) {
+            Method method = entry.getValue();
+            try {
+                MethodHandle handle = LOOKUP.unreflect(method);
+                handle = handle.asType(handle.type().changeReturnType(void.class)).asType(SETTER_TYPE);
+                this.properties.put(entry.getKey(), new Property(method.getParameterTypes()[0], handle));
+            } catch (Exception ignored) {
+                /* 类型不可访问(如非public类)时, 保留字段映射 */
+            }
+        }
+    }
+
+    private boolean matchGetter(Class klass, String property, Class type) {
+        String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (String prefix : new String[]{"get", "is"}) {
+            try {
+                if (klass.getMethod(prefix + suffix).getReturnType() == type) {
+                    return true;
+                }
+            } catch (NoSuchMethodException ignored) {
+                // next prefix
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 同mybatis PropertyNamer: setURL -> URL, setName -> name
+     */
+    private static String propertyName(String name) {
+        if (name.length() == 1 || !Character.isUpperCase(name.charAt(1))) {
+            return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+        } else {
+            return name;
+        }
+    }
+
+    /**
+     * 属性赋值: setter + 预先确定的类型转换
+     */
+    private static class Property {
+        private final Class type;
+
+        private final MethodHandle setter;
+
+        private final Function<Object, Object> converter;
+
+        Property(Class type, MethodHandle setter) {
+            this.type = type.isPrimitive() ? boxed(type) : type;
+            this.setter = setter;
+            this.converter = converter(this.type);
+        }
+
+        void set(Class klass, Object target, String column, Object value) {
+            try {
+                if (value != null && !this.type.isInstance(value)) {
+                    value = this.converter.apply(value);
+                }
+                this.setter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw new RuntimeException("convert map to object[type=" + klass.getName() + ", property=" + column + ", type=" + this.type.getName() + "] error: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 进行默认类型的转换
+     *
+     * @param type 属性类型
+     * @return 转换函数
+     */
+    private static Function<Object, Object> converter(Class type) {
+        if (type == Long.class) {
+            return value -> Long.parseLong(value.toString());
+        } else if (type == Integer.class) {
+            return value -> Integer.parseInt(value.toString());
+        } else if (type == Boolean.class) {
+            return ObjectArray::toBoolean;
+        } else if (type == BigDecimal.class) {
+            return value -> new BigDecimal(value.toString());
+        } else if (type == BigInteger.class) {
+            return value -> new BigInteger(value.toString());
+        } else {
+            return value -> value;
+        }
+    }
+
+    private static Class boxed(Class type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
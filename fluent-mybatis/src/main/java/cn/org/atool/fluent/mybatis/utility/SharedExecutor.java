@@ -0,0 +1,63 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * fluent mybatis内置的共享线程池(守护线程), 用于并发count, 分片查询等
+ * <pre>
+ * 线程数和等待队列都有上限, 队列满时由提交任务的线程自己执行(CallerRunsPolicy)
+ * 线程池参数需要在第一次使用前设置
+ * </pre>
+ *
+ * @author darui.wu
+ */
+public class SharedExecutor {
+    /**
+     * 线程数上限, 默认为cpu核数(至少2个)
+     */
+    @Getter
+    @Setter
+    private static int poolSize = Math.max(2, Runtime.getRuntime().availableProcessors());
+    /**
+     * 等待队列长度
+     */
+    @Getter
+    @Setter
+    private static int queueSize = 1024;
+
+    private static volatile Executor instance;
+
+    /**
+     * 返回共享线程池, 第一次使用时创建
+     *
+     * @return 线程池
+     */
+    public static Executor instance() {
+        if (instance == null) {
+            synchronized (SharedExecutor.class) {
+                if (instance == null) {
+                    instance = newExecutor();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private static Executor newExecutor() {
+        AtomicInteger seq = new AtomicInteger(0);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(queueSize),
+            runnable -> {
+                Thread thread = new Thread(runnable, "fluent-mybatis-worker-" + seq.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
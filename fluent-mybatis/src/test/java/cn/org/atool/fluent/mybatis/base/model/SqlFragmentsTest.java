@@ -0,0 +1,46 @@
+package cn.org.atool.fluent.mybatis.base.model;
+
+import cn.org.atool.fluent.mybatis.metadata.DbType;
+import cn.org.atool.fluent.mybatis.metadata.feature.EscapeExpress;
+import org.junit.jupiter.api.Test;
+import org.test4j.hamcrest.IWant;
+
+@SuppressWarnings("all")
+class SqlFragmentsTest implements IWant {
+
+    @Test
+    void fragments() {
+        SqlFragments fragments = new SqlFragments(DbType.MYSQL, "id",
+            new String[]{"id", "user_name", "age"},
+            new String[]{"user_name", "age"});
+        want.string(fragments.selectColumns()).eq("`id`, `user_name`, `age`");
+        want.string(fragments.insertColumns(true)).eq("(`id`, `user_name`, `age`)");
+        want.string(fragments.insertColumns(false)).eq("(`user_name`, `age`)");
+        want.string(fragments.primary()).eq("`id`");
+        want.string(fragments.primaryEqValue()).eq("`id` = #{value}");
+        want.string(fragments.primaryEqFirst()).eq("`id` = #{list[0]}");
+    }
+
+    @Test
+    void fragments_noPrimary() {
+        SqlFragments fragments = new SqlFragments(DbType.MYSQL, null,
+            new String[]{"user_name"}, new String[]{"user_name"});
+        want.string(fragments.selectColumns()).eq("`user_name`");
+        want.object(fragments.primary()).isNull();
+    }
+
+    @Test
+    void fragments_escapeChanged() {
+        EscapeExpress origin = DbType.OTHER_2.feature.getEscape();
+        try {
+            SqlFragments fragments = new SqlFragments(DbType.OTHER_2, "id",
+                new String[]{"id", "age"}, new String[]{"age"});
+            want.string(fragments.selectColumns()).eq("id, age");
+            DbType.OTHER_2.setEscapeExpress("[?]");
+            want.string(fragments.selectColumns()).eq("[id], [age]");
+            want.string(fragments.primaryEqValue()).eq("[id] = #{value}");
+        } finally {
+            DbType.OTHER_2.feature.setEscape(origin);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package cn.org.atool.fluent.mybatis.segment.model;
+
+import org.junit.jupiter.api.Test;
+import org.test4j.junit5.Test4J;
+
+import static cn.org.atool.fluent.mybatis.segment.model.KeyWordSegment.AND;
+
+@SuppressWarnings("all")
+class MergeSegmentsTest extends Test4J {
+    @Test
+    void emptyGetters_shared() {
+        MergeSegments first = new MergeSegments();
+        MergeSegments second = new MergeSegments();
+        want.bool(first.getWhere() == second.getWhere()).is(true);
+        want.bool(first.getGroupBy() == second.getGroupBy()).is(true);
+        want.bool(first.getHaving() == second.getHaving()).is(true);
+        want.bool(first.getOrderBy() == second.getOrderBy()).is(true);
+        want.string(first.whereSql()).eq("");
+        want.exception(() -> first.getWhere().add(AND, () -> "id = 1"), UnsupportedOperationException.class);
+    }
+
+    @Test
+    void add_ownList() {
+        MergeSegments segments = new MergeSegments();
+        segments.add(AND, () -> "id = 1");
+        want.bool(segments.getWhere() == new MergeSegments().getWhere()).is(false);
+        want.string(segments.whereSql()).eq("id = 1");
+        want.bool(new MergeSegments().getWhere().isEmpty()).is(true);
+    }
+}
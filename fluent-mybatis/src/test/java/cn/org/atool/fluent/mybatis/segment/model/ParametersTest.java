@@ -0,0 +1,69 @@
+package cn.org.atool.fluent.mybatis.segment.model;
+
+import org.junit.jupiter.api.Test;
+import org.test4j.junit5.Test4J;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@SuppressWarnings("all")
+class ParametersTest extends Test4J {
+    @Test
+    void stableSql() {
+        Parameters parameters = new Parameters();
+        String var1 = parameters.putParameter(null, 1);
+        String var2 = parameters.putParameter(null, "x");
+        List<String> paths = new ArrayList<>();
+        String sql = Parameters.stableSql("a = " + var2 + " AND b = " + var1 + " AND c = " + var2, paths);
+        want.string(sql).eq("a = #{ew_p1} AND b = #{ew_p2} AND c = #{ew_p1}");
+        want.list(paths).eqReflect(Arrays.asList(var2.substring(2, var2.length() - 1), var1.substring(2, var1.length() - 1)));
+        want.number(parameters.size()).eq(2);
+    }
+
+    @Test
+    void stableSql_shared() {
+        Parameters root = new Parameters();
+        Parameters child = new Parameters();
+        String var1 = child.putParameter(null, 1);
+        String var2 = root.putParameter(null, 2);
+        child.sharedParameter(root);
+        List<String> paths = new ArrayList<>();
+        String sql = Parameters.stableSql("a = " + var2 + " AND id IN (SELECT id WHERE b = " + var1 + ")", paths);
+        want.string(sql).eq("a = #{ew_p1} AND id IN (SELECT id WHERE b = #{ew_p2})");
+        want.number(root.size()).eq(2);
+    }
+
+    @Test
+    void sharedParameter_arena() {
+        Parameters root = new Parameters();
+        Parameters child = new Parameters();
+        Parameters grandchild = new Parameters();
+        String var1 = grandchild.putParameter(null, 1);
+        grandchild.sharedParameter(child);
+        String var2 = child.putParameter(null, 2);
+        child.sharedParameter(root);
+        String var3 = grandchild.putParameter(null, 3);
+        root.sharedParameter(grandchild);
+
+        want.number(root.size()).eq(3);
+        want.object(root.get(name(var1))).eqReflect(1);
+        want.object(root.get(name(var2))).eqReflect(2);
+        want.object(root.get(name(var3))).eqReflect(3);
+        want.object(grandchild.get(name(var2))).eqReflect(2);
+        want.bool(root.equals(child)).is(true);
+    }
+
+    private static String name(String var) {
+        return var.substring(var.lastIndexOf('.') + 1, var.length() - 1);
+    }
+
+    @Test
+    void stableSql_keepSuffix() {
+        List<String> paths = new ArrayList<>();
+        String sql = Parameters.stableSql("#{ew.wrapperData.parameters.list[0].id, javaType=x} " +
+            "#{ew[1].wrapperData.parameters.variable_3_1, javaType=y}", paths);
+        want.string(sql).eq("#{ew.wrapperData.parameters.list[0].id, javaType=x} #{ew_p1, javaType=y}");
+        want.list(paths).eqReflect(Arrays.asList("ew[1].wrapperData.parameters.variable_3_1"));
+    }
+}
@@ -0,0 +1,69 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.test4j.integration.DataProvider;
+import org.test4j.junit5.Test4J;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+class InListHelperTest extends Test4J {
+    @AfterEach
+    void reset() {
+        InListHelper.setPadding(false);
+    }
+
+    @MethodSource("dataBucket")
+    @ParameterizedTest
+    void bucket(int size, int expected) {
+        InListHelper.setPadding(true);
+        want.number(InListHelper.bucket(size)).eq(expected);
+    }
+
+    public static Iterator dataBucket() {
+        return new DataProvider()
+            .data(0, 0)
+            .data(1, 1)
+            .data(2, 2)
+            .data(3, 4)
+            .data(5, 8)
+            .data(200, 256)
+            .data(512, 512)
+            .data(513, 1024)
+            .data(1100, 1536)
+            ;
+    }
+
+    @Test
+    void bucket_noPadding() {
+        want.number(InListHelper.bucket(3)).eq(3);
+    }
+
+    @Test
+    void pad() {
+        InListHelper.setPadding(true);
+        Object[] values = InListHelper.pad(new Object[]{1, 2, 3, 4, 5});
+        want.array(values).eqReflect(new Object[]{1, 2, 3, 4, 5, 5, 5, 5});
+    }
+
+    @Test
+    void chunk() {
+        List<List<Integer>> chunks = InListHelper.chunk(Arrays.asList(1, 2, 3, 4, 5), 2);
+        want.list(chunks).eqReflect(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4), Arrays.asList(5)));
+        want.list(InListHelper.chunk(Arrays.asList(1, 2), 0)).sizeEq(1);
+    }
+
+    @Test
+    void in() {
+        want.string(InListHelper.in("`id`", false, 3, 0, i -> "?"))
+            .eq("`id` IN (?, ?, ?)");
+        want.string(InListHelper.in("`id`", false, 5, 2, i -> "#{list[" + i + "]}"))
+            .eq("(`id` IN (#{list[0]}, #{list[1]}) OR `id` IN (#{list[2]}, #{list[3]}) OR `id` IN (#{list[4]}))");
+        want.string(InListHelper.in("`id`", true, 3, 2, i -> "?"))
+            .eq("(`id` NOT IN (?, ?) AND `id` NOT IN (?))");
+    }
+}
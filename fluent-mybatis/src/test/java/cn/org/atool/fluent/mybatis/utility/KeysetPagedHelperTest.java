@@ -0,0 +1,75 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import cn.org.atool.fluent.mybatis.metadata.DbType;
+import cn.org.atool.fluent.mybatis.segment.model.OrderByKey;
+import org.junit.jupiter.api.Test;
+import org.test4j.junit5.Test4J;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+class KeysetPagedHelperTest extends Test4J {
+    private static final List<OrderByKey> SAME = Arrays.asList(
+        new OrderByKey("age", "`age`", true),
+        new OrderByKey("id", "`id`", true));
+
+    private static final List<OrderByKey> MIXED = Arrays.asList(
+        new OrderByKey("age", "`age`", false),
+        new OrderByKey("id", "`id`", true));
+
+    @Test
+    void predicate_single() {
+        List<Object> args = new ArrayList<>();
+        String sql = KeysetPagedHelper.predicate(SAME.subList(1, 2), new Object[]{3L}, DbType.MYSQL, args);
+        want.string(sql).eq("`id` > ?");
+        want.list(args).eqReflect(new Object[]{3L});
+    }
+
+    @Test
+    void predicate_rowValue() {
+        List<Object> args = new ArrayList<>();
+        String sql = KeysetPagedHelper.predicate(SAME, new Object[]{20, 3L}, DbType.MYSQL, args);
+        want.string(sql).eq("(`age`, `id`) > (?, ?)");
+        want.list(args).eqReflect(new Object[]{20, 3L});
+    }
+
+    @Test
+    void predicate_expanded() {
+        List<Object> args = new ArrayList<>();
+        String sql = KeysetPagedHelper.predicate(SAME, new Object[]{20, 3L}, DbType.ORACLE, args);
+        want.string(sql).eq("(`age` >= ? AND (`age` > ? OR (`age` = ? AND `id` > ?)))");
+        want.list(args).eqReflect(new Object[]{20, 20, 20, 3L});
+    }
+
+    @Test
+    void predicate_mixed() {
+        List<Object> args = new ArrayList<>();
+        String sql = KeysetPagedHelper.predicate(MIXED, new Object[]{20, 3L}, DbType.MYSQL, args);
+        want.string(sql).eq("(`age` <= ? AND (`age` < ? OR (`age` = ? AND `id` > ?)))");
+    }
+
+    @Test
+    void token() {
+        Date now = new Date();
+        LocalDateTime time = LocalDateTime.of(2021, 3, 4, 5, 6, 7);
+        Object[] values = {"a:b|c", 12, 13L, new BigDecimal("1.50"), true, now, time};
+        String token = KeysetPagedHelper.encode("sig", values);
+        want.bool(token.contains("|")).is(false);
+        Object[] decoded = KeysetPagedHelper.decode(token, "sig", values.length);
+        want.array(decoded).eqReflect(values);
+    }
+
+    @Test
+    void token_mismatch() {
+        String token = KeysetPagedHelper.encode("sig", new Object[]{1L});
+        want.exception(() -> KeysetPagedHelper.decode(token, "other", 1), FluentMybatisException.class)
+            .contains("does not match");
+        want.exception(() -> KeysetPagedHelper.decode("!!", "sig", 1), FluentMybatisException.class)
+            .contains("illegal keyset paged token");
+    }
+}
@@ -23,6 +23,14 @@ public class LambdaUtilTest extends Test4J {
         column = LambdaUtil.resolve(DemoEntity::getAge);
         want.string(column).eq("age");
     }
+
+    @Test
+    public void test_sameCallSite() {
+        for (int i = 0; i < 3; i++) {
+            want.string(LambdaUtil.resolve(DemoEntity::getUserName)).eq("userName");
+            want.string(LambdaUtil.resolve(DemoEntity::getAge)).eq("age");
+        }
+    }
 }
 
 @Data
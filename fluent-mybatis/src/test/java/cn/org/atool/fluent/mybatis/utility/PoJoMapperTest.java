@@ -0,0 +1,77 @@
+package cn.org.atool.fluent.mybatis.utility;
+
+import cn.org.atool.fluent.mybatis.exception.FluentMybatisException;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.junit.jupiter.api.Test;
+import org.test4j.junit5.Test4J;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+class PoJoMapperTest extends Test4J {
+    @Test
+    void toPoJo() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", "12");
+        map.put("user_name", "darui");
+        map.put("age", 30L);
+        map.put("is_girl", 1);
+        map.put("score", 9.5d);
+        map.put("remark", "no setter");
+        UserPoJo expected = new UserPoJo()
+            .setId(12L)
+            .setUserName("darui")
+            .setAge(30)
+            .setIsGirl(true)
+            .setScore(new BigDecimal("9.5"));
+        expected.remark = "no setter";
+        want.object(PoJoHelper.toPoJo(UserPoJo.class, map)).eqReflect(expected);
+    }
+
+    @Test
+    void toPoJo_noProperty() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("not_exists", 1);
+        want.exception(() -> PoJoHelper.toPoJo(UserPoJo.class, map), FluentMybatisException.class)
+            .contains("There is no setter for property named 'notExists'");
+    }
+
+    @Test
+    void register() {
+        PoJoMapper.register(RegisteredPoJo.class, map -> new RegisteredPoJo().setName("registered:" + map.get("name")));
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", "test");
+        want.string(PoJoHelper.toPoJo(RegisteredPoJo.class, map).getName()).eq("registered:test");
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class UserPoJo {
+        private Long id;
+
+        private String userName;
+
+        private int age;
+
+        private Boolean isGirl;
+
+        private BigDecimal score;
+
+        private String remark;
+
+        /**
+         * 覆盖lombok生成的setter, remark按字段赋值
+         */
+        private void setRemark(String remark) {
+            this.remark = remark;
+        }
+    }
+
+    @Data
+    @Accessors(chain = true)
+    public static class RegisteredPoJo {
+        private String name;
+    }
+}